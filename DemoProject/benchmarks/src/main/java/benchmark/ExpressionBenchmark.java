@@ -0,0 +1,77 @@
+package benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Monomial;
+import model.PolyExpr;
+import model.Polynomial;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpressionBenchmark {
+	//A chain of operations (a + b - c + a * d)' + (a - c)'' computed eagerly, one Polynomial per operation,
+	//against the same chain as a PolyExpr, where the sums and derivatives are fused into a single accumulator.
+//The evaluation takes several seconds to be fully compiled, hence the long warmup
+
+	//Constants
+	private static final long SEED = 2018;
+	private static final int FACTOR_DEGREE = 8; //Degree of d, a short factor like a linear filter
+
+	//Attributes
+	@Param({"100", "10000"})
+	public int degree;
+
+	private Polynomial a;
+	private Polynomial b;
+	private Polynomial c;
+	private Polynomial d;
+	private PolyExpr expression;
+
+	//Setup
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+		a = generate(degree, random);
+		b = generate(degree, random);
+		c = generate(degree, random);
+		d = generate(FACTOR_DEGREE, random);
+		PolyExpr x = PolyExpr.of(a);
+		expression = x.add(b).subtract(c).add(x.multiply(d)).derivate().add(x.subtract(c).derivate().derivate());
+	}
+
+	private static Polynomial generate(int degree, Random random) {
+		Polynomial p = new Polynomial();
+		for(int i = 0; i <= degree; i++) p.addValue(new Monomial(BigDecimal.valueOf(random.nextInt(2001) - 1000), i));
+		return p;
+	}
+
+	//Benchmarks
+	@Benchmark
+	public Polynomial eager() {
+		return a.add(b).subtract(c).add(a.multiply(d)).derivate().add(a.subtract(c).derivate().derivate());
+	}
+
+	@Benchmark
+	public Polynomial lazy() {
+		return expression.evaluate();
+	}
+}
@@ -0,0 +1,47 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Polynomial;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinearBenchmark {
+	//Operations taking time linear in the number of terms
+
+	@Benchmark
+	public Polynomial add(PolynomialState state) {
+		return state.a.add(state.b);
+	}
+
+	@Benchmark
+	public Polynomial subtract(PolynomialState state) {
+		return state.a.subtract(state.b);
+	}
+
+	@Benchmark
+	public Polynomial multiplyMonomial(PolynomialState state) {
+		return state.a.multiply(state.monomial);
+	}
+
+	@Benchmark
+	public Polynomial derivate(PolynomialState state) {
+		return state.a.derivate();
+	}
+
+	@Benchmark
+	public Polynomial integrate(PolynomialState state) {
+		return state.a.integrate();
+	}
+}
@@ -0,0 +1,88 @@
+package benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.ModPolynomial;
+import model.Polynomial;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModularBenchmark {
+	//Arithmetic modulo a prime: ModPolynomial against Polynomial followed by a reduction of the result.
+	//1000000007 needs three transforms per product, 998244353 (an NTT prime) a single one
+
+	//Constants
+	private static final long SEED = 2018;
+
+	//Attributes
+	@Param({"1000", "100000"})
+	public int degree;
+
+	@Param({"1000000007", "998244353"})
+	public long modulus;
+
+	private ModPolynomial a;
+	private ModPolynomial b;
+	private ModPolynomial divisor;
+	private ModPolynomial dividend; //a * b, of twice the degree
+	private Polynomial liftedA;
+	private Polynomial liftedB;
+
+	//Setup
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+		a = generate(degree, random);
+		b = generate(degree, random);
+		divisor = generate(Math.max(degree / 2, 1), random);
+		dividend = a.multiply(b);
+		liftedA = a.lift();
+		liftedB = b.lift();
+	}
+
+	private ModPolynomial generate(int degree, Random random) {
+		long[] coeffs = new long[degree + 1];
+		for(int i = 0; i <= degree; i++) coeffs[i] = random.nextLong();
+		coeffs[degree] = 1 + random.nextInt(1000); //Never 0, so the degree is exact
+		return new ModPolynomial(modulus, coeffs);
+	}
+
+	//Benchmarks
+	@Benchmark
+	public ModPolynomial multiply() {
+		return a.multiply(b);
+	}
+
+	@Benchmark
+	public ModPolynomial multiplyThroughPolynomial() {
+		return ModPolynomial.reduce(liftedA.multiply(liftedB), modulus);
+	}
+
+	@Benchmark
+	public ModPolynomial[] divide() {
+		return dividend.divide(divisor);
+	}
+
+	@Benchmark
+	public ModPolynomial gcd() {
+		return dividend.gcd(b.multiply(divisor)); //b, after the whole remainder sequence
+	}
+}
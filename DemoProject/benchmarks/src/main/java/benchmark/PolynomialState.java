@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import model.Monomial;
+import model.Polynomial;
+
+@State(Scope.Benchmark)
+public class PolynomialState {
+	//Operands shared by all the benchmarks, built once per trial from a fixed seed so every run sees the same values
+	//Shapes:
+	//  DENSE   every power from 0 to the degree has a term
+	//  SPARSE  about one power in SPARSE_STRIDE has a term, at random positions (the degree itself always has one)
+	//  MIXED   dense runs of MIXED_RUN powers separated by gaps three times as long
+
+	//Constants
+	private static final int SPARSE_STRIDE = 64;
+	private static final int MIXED_RUN = 32;
+	private static final long SEED = 2018;
+
+	//Attributes
+	@Param({"10", "1000", "100000", "1000000"})
+	public int degree;
+
+	@Param({"DENSE", "SPARSE", "MIXED"})
+	public String shape;
+
+	@Param({"INTEGER", "DECIMAL"})
+	public String coefficients;
+
+	public Polynomial a; //First operand, of the given degree
+	public Polynomial b; //Second operand, of the same shape and degree
+	public Polynomial divisor; //Of about half the degree, for divide
+	public Monomial monomial;
+	public String text; //a in the format of Polynomial(String)
+
+	//Setup
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+		boolean decimal = "DECIMAL".equals(coefficients);
+
+		a = generate(degree, random, decimal);
+		b = generate(degree, random, decimal);
+		divisor = generate(Math.max(degree / 2, 1), random, decimal);
+		monomial = decimal ? new Monomial(new BigDecimal("-2.5"), 7) : new Monomial(-3, 7);
+
+		StringBuilder coeffs = new StringBuilder();
+		int next = 0;
+		for(Monomial m : a.getTerms()) {
+			for(; next < m.getPower(); next++) coeffs.append("0 ");
+			coeffs.append(m.getCoeff().toPlainString()).append(' ');
+			next++;
+		}
+		text = coeffs.toString();
+	}
+
+	//Auxiliary methods
+	private Polynomial generate(int degree, Random random, boolean decimal) {
+		Polynomial p = new Polynomial();
+		if("DENSE".equals(shape)) {
+			for(int i = 0; i <= degree; i++) p.addValue(new Monomial(coefficient(random, decimal), i));
+		}
+		else if("SPARSE".equals(shape)) {
+			int terms = Math.max(degree / SPARSE_STRIDE, 1);
+			for(int i = 0; i < terms; i++) p.addValue(new Monomial(coefficient(random, decimal), random.nextInt(degree)));
+		}
+		else {
+			for(int i = 0; i <= degree; i++) {
+				if(i % (4 * MIXED_RUN) < MIXED_RUN) p.addValue(new Monomial(coefficient(random, decimal), i));
+			}
+		}
+		p.addValue(new Monomial(coefficient(random, decimal), degree)); //Makes sure of the degree
+		return p;
+	}
+
+	private static BigDecimal coefficient(Random random, boolean decimal) {
+		//Non-zero values in [-1000, 1000], with 3 decimals if requested
+		int value = random.nextInt(2000) - 1000;
+		if(value >= 0) value++;
+		return decimal ? BigDecimal.valueOf(1000L * value + random.nextInt(1000), 3) : BigDecimal.valueOf(value);
+	}
+}
@@ -0,0 +1,33 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Polynomial;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ProductBenchmark {
+	//Multiplication and division, whose algorithms switch at the thresholds of MultiplicationEngine and DivisionEngine.
+	//The largest sizes take seconds per call for the sparse and decimal shapes; restrict them with -p degree=...
+
+	@Benchmark
+	public Polynomial multiply(PolynomialState state) {
+		return state.a.multiply(state.b);
+	}
+
+	@Benchmark
+	public Polynomial[] divide(PolynomialState state) {
+		return state.a.divide(state.divisor);
+	}
+}
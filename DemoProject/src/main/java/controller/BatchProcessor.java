@@ -0,0 +1,221 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ImmutablePolynomial;
+import model.PolynomialFormatter;
+import model.PolynomialParser;
+
+public class BatchProcessor {
+	//Headless batch mode: reads one operation per line, such as "multiply 1,2,3 0,1" (the operation, then P1 and,
+	//for the binary operations, P2, with their coefficients separated by commas), and writes one line per input
+	//line, in the same order: the result, the quotient and the remainder separated by a tab for divide,
+	//"error: " and the reason for a malformed line or a failed operation, and an empty line for an empty one.
+	//
+	//The work is pipelined in chunks of CHUNK_LINES lines: a reader thread cuts the input into chunks, worker
+	//threads parse, compute and format whole chunks, and the calling thread writes the formatted chunks in order.
+	//The chunks in flight are the futures in a bounded queue, so a reader that gets ahead of the writer blocks
+	//on it instead of filling the memory, and a slow output slows the whole pipeline down.
+	//
+	//Usage: java controller.BatchProcessor [-t threads] [file], reading standard input without a file.
+
+	//Constants
+	public static final int CHUNK_LINES = 256; //Lines parsed, computed and formatted together by a worker
+	private static final String ERROR_PREFIX = "error: ";
+
+	//Attributes
+	private final PolynomialEngine engine;
+	private final int threads;
+	private final int maxChunksInFlight;
+
+	//Types
+	private static final class Chunk {
+		private final String text; //The formatted output lines
+		private final int records; //Number of input lines
+
+		private Chunk(String text, int records) {
+			this.text = text;
+			this.records = records;
+		}
+	}
+
+	//Constructors
+	public BatchProcessor(PolynomialEngine engine, int threads) {
+		//Keeps up to four chunks per worker in flight, so that no worker waits for the reader
+		this(engine, threads, 4 * Math.max(threads, 1));
+	}
+
+	public BatchProcessor(PolynomialEngine engine, int threads, int maxChunksInFlight) {
+		this.engine = engine;
+		this.threads = Math.max(threads, 1);
+		this.maxChunksInFlight = Math.max(maxChunksInFlight, 1);
+	}
+
+	//Processing
+	public long process(BufferedReader in, Writer out) throws IOException, InterruptedException {
+		//Processes every line of in, writing the results to out, and returns the number of lines.
+		//out is flushed but not closed
+		BlockingQueue<Future<Chunk>> pending = new ArrayBlockingQueue<Future<Chunk>>(maxChunksInFlight);
+		ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "batch-worker");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Thread reader = new Thread(() -> read(in, workers, pending), "batch-reader");
+		reader.setDaemon(true);
+		reader.start();
+
+		long records = 0;
+		try {
+			while(true) {
+				Chunk chunk = await(pending.take());
+				if(null == chunk) break; //End of the input
+				out.write(chunk.text);
+				records += chunk.records;
+			}
+			out.flush();
+			return records;
+		}
+		finally {
+			reader.interrupt(); //Only needed if writing failed, as the reader may be blocked on a full queue
+			workers.shutdownNow();
+		}
+	}
+
+	public String processLine(String line) {
+		//Returns the output line for a single input line, without the line separator
+		StringBuilder out = new StringBuilder();
+		processLine(line, out);
+		return out.toString();
+	}
+
+	void processLine(String line, StringBuilder out) {
+		//Package-private: appends the output for a line, the result or the reason it has none, without the line separator
+		String[] fields = split(line);
+		if(0 == fields.length) return;
+		try {
+			Operation operation = Operation.forName(fields[0]);
+			int operands = operation.isBinary() ? 2 : 1;
+			if(fields.length != operands + 1) {
+				throw new IllegalArgumentException(fields[0] + " takes " + operands + ((1 == operands) ? " operand" : " operands"));
+			}
+			ImmutablePolynomial p1 = PolynomialParser.parse(fields[1]).toImmutable();
+			ImmutablePolynomial p2 = operation.isBinary() ? PolynomialParser.parse(fields[2]).toImmutable() : null;
+
+			ImmutablePolynomial[] results = engine.compute(operation, p1, p2);
+			for(int i = 0; i < results.length; i++) {
+				if(i > 0) out.append('\t');
+				PolynomialFormatter.format(results[i], out);
+			}
+		}
+		catch(RuntimeException e) {
+			//Malformed lines and failed operations (such as a division by 0) only affect their own output line
+			out.append(ERROR_PREFIX).append((null != e.getMessage()) ? e.getMessage() : e.toString());
+		}
+	}
+
+	//Auxiliary methods
+	private void read(BufferedReader in, ExecutorService workers, BlockingQueue<Future<Chunk>> pending) {
+		//Cuts the input into chunks for the workers; the last future in the queue is null for the end of the
+		//input, or fails with the IOException that ended it
+		try {
+			try {
+				List<String> lines = new ArrayList<String>(CHUNK_LINES);
+				for(String line = in.readLine(); null != line; line = in.readLine()) {
+					lines.add(line);
+					if(CHUNK_LINES == lines.size()) {
+						submit(lines, workers, pending);
+						lines = new ArrayList<String>(CHUNK_LINES);
+					}
+				}
+				if(!lines.isEmpty()) submit(lines, workers, pending);
+				pending.put(CompletableFuture.completedFuture(null));
+			}
+			catch(IOException e) {
+				CompletableFuture<Chunk> failure = new CompletableFuture<Chunk>();
+				failure.completeExceptionally(e);
+				pending.put(failure);
+			}
+		}
+		catch(InterruptedException e) {
+			//The writer gave up: nobody reads the queue anymore
+		}
+	}
+
+	private void submit(List<String> lines, ExecutorService workers, BlockingQueue<Future<Chunk>> pending) throws InterruptedException {
+		pending.put(workers.submit(() -> {
+			StringBuilder text = new StringBuilder(64 * lines.size());
+			for(String line : lines) {
+				processLine(line, text);
+				text.append(System.lineSeparator());
+			}
+			return new Chunk(text.toString(), lines.size());
+		}));
+	}
+
+	private static Chunk await(Future<Chunk> future) throws IOException, InterruptedException {
+		//The chunk of a future, rethrowing what went wrong while reading or processing it
+		try {
+			return future.get();
+		}
+		catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) throw (IOException) cause;
+			if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if(cause instanceof Error) throw (Error) cause;
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	private static String[] split(String line) {
+		//The fields of a line, separated by spaces or tabs
+		List<String> fields = new ArrayList<String>(3);
+		int start = -1;
+		for(int i = 0; i <= line.length(); i++) {
+			boolean separator = i == line.length() || ' ' == line.charAt(i) || '\t' == line.charAt(i);
+			if(separator && start >= 0) {
+				fields.add(line.substring(start, i));
+				start = -1;
+			}
+			else if(!separator && start < 0) start = i;
+		}
+		return fields.toArray(new String[fields.size()]);
+	}
+
+	//Command line
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String file = null;
+		for(int i = 0; i < args.length; i++) {
+			if("-t".equals(args[i]) && i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+			else if(null == file) file = args[i];
+			else {
+				System.err.println("Usage: java controller.BatchProcessor [-t threads] [file]");
+				System.exit(2);
+			}
+		}
+
+		InputStream input = (null == file) ? System.in : new FileInputStream(file);
+		try(BufferedReader in = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16)) {
+			Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+			new BatchProcessor(new PolynomialEngine(), threads).process(in, out);
+		}
+	}
+}
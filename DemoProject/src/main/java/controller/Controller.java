@@ -2,24 +2,37 @@ package controller;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
 
+import javax.swing.SwingWorker;
+
+import model.ImmutablePolynomial;
 import model.Polynomial;
+import model.Progress;
 import view.MainView;
 
 public class Controller {
+	//The window of the calculator: reads P1 and P2, and shows the results computed by a PolynomialEngine.
+	//The operands are passed as the immutable copies taken when P1 and P2 are set, so they can be cache keys.
+	//The operations run on a background thread, so the window stays responsive while they do: it shows the
+	//progress of long divisions, and the Cancel button interrupts the operation in progress
 	
 	private Polynomial p1;
 	private Polynomial p2;
-	private Polynomial result;
-	private Polynomial divisionRemainder; //Only used when we do division
+	private ImmutablePolynomial operand1;
+	private ImmutablePolynomial operand2;
+	
+	private PolynomialEngine engine;
+	private Computation running; //The operation in progress, if any; only accessed on the event dispatch thread
 	
 	private MainView view;
 	
 	public Controller(){
 		p1 = new Polynomial();
 		p2 = new Polynomial();
-		result = new Polynomial();
-		divisionRemainder = new Polynomial();
+		operand1 = p1.toImmutable();
+		operand2 = p2.toImmutable();
+		engine = new PolynomialEngine();
 		
 		view = new MainView();
 		//view.setVisible(true);
@@ -33,55 +46,125 @@ public class Controller {
 		view.addSetPoly1Listener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				p1.setValuesFromString(view.getInputField()); //Read p1
+				operand1 = p1.toImmutable(); //and keep a copy that can be a cache key
 				view.setPoly1Label("P1: " + p1.toString()); //Update p1 in view
 			}
 		});
 		view.addSetPoly2Listener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
 				p2.setValuesFromString(view.getInputField()); //Read p2
+				operand2 = p2.toImmutable();
 				view.setPoly2Label("P2: " + p2.toString()); //Update p2 in view
 			}
 		});
 		view.addAddListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				result.setValuesFromPolynomial( p1.add(p2) ); //Compute result
-				view.setResultLabel("Result: " + result.toString()); //Update result in view
+				showResult(Operation.ADD);
 			}
 		});
 		view.addSubtractListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				result.setValuesFromPolynomial( p1.subtract(p2) ); //Compute result
-				view.setResultLabel("Result: " + result.toString()); //Update result in view
+				showResult(Operation.SUBTRACT);
 			}
 		});
 		view.addDerivateListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				result.setValuesFromPolynomial( p1.derivate() ); //Compute result
-				view.setResultLabel("Result: " + result.toString()); //Update result in view
+				showResult(Operation.DERIVATE);
 			}
 		});
 		view.addIntegrateListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				result.setValuesFromPolynomial( p1.integrate() ); //Compute result
-				view.setResultLabel("Result: " + result.toString()); //Update result in view
+				showResult(Operation.INTEGRATE);
 			}
 		});
 		view.addMultiplyListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				result.setValuesFromPolynomial( p1.multiply(p2) ); //Compute result
-				view.setResultLabel("Result: " + result.toString()); //Update result in view
+				showResult(Operation.MULTIPLY);
 			}
 		});
 		view.addDivideListener(new ActionListener() {
 			public void actionPerformed(ActionEvent e) {
-				result.setValuesFromPolynomial( p1.divide(p2)[0] ); //Compute result
-				divisionRemainder.setValuesFromPolynomial( p1.divide(p2)[1] ); //and remainder
-				view.setResultLabel("Result: " + result.toString()
-								+ ", remainder: " + divisionRemainder.toString()); //Update results in view
+				showResult(Operation.DIVIDE);
+			}
+		});
+		view.addCancelListener(new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				if(null != running) running.cancel(true); //Its done() shows that it was cancelled
 			}
 		});
 	}
 	
+	private void showResult(Operation operation) {
+		//Starts computing the operation on p1 (and p2) in the background; the engine only computes it if it isn't in its cache.
+		//Repeated clicks are coalesced: clicking again while the same operation on the same operands is running
+		//does nothing, and any other operation cancels the one in progress, whose result would be replaced anyway
+		ImmutablePolynomial second = operation.isBinary() ? operand2 : null;
+		if(null != running) {
+			if(running.computes(operation, operand1, second)) return;
+			running.cancel(true);
+		}
+		running = new Computation(operation, operand1, second);
+		view.setResultLabel("Computing...");
+		view.setCancelEnabled(true);
+		running.execute();
+	}
+	
+	private final class Computation extends SwingWorker<String, Void> {
+		//An operation running on a SwingWorker thread, which formats its result there as well,
+		//and publishes it (or its progress) to the view on the event dispatch thread
+		private final Operation operation;
+		private final ImmutablePolynomial operand1;
+		private final ImmutablePolynomial operand2; //null for the unary operations
+	
+		private Computation(Operation operation, ImmutablePolynomial operand1, ImmutablePolynomial operand2) {
+			this.operation = operation;
+			this.operand1 = operand1;
+			this.operand2 = operand2;
+			addPropertyChangeListener(event -> {
+				//Progress changes are coalesced by the SwingWorker, and notified on the event dispatch thread
+				if("progress".equals(event.getPropertyName()) && this == running) view.setResultLabel("Computing... " + event.getNewValue() + "%");
+			});
+		}
+	
+		private boolean computes(Operation operation, ImmutablePolynomial operand1, ImmutablePolynomial operand2) {
+			//The operands are compared by identity: they are only replaced when P1 or P2 is set again
+			return this.operation == operation && this.operand1 == operand1 && this.operand2 == operand2;
+		}
+	
+		protected String doInBackground() {
+			ImmutablePolynomial[] results = Progress.run(this::setProgress, () -> engine.compute(operation, operand1, operand2));
+			if(Operation.DIVIDE == operation) {
+				return "Result: " + results[0].toString() + ", remainder: " + results[1].toString();
+			}
+			return "Result: " + results[0].toString();
+		}
+	
+		protected void done() {
+			if(this != running) return; //Replaced by a later operation, which owns the view now
+			running = null;
+			view.setCancelEnabled(false);
+			if(isCancelled()) {
+				view.setResultLabel("Cancelled");
+				return;
+			}
+			try {
+				view.setResultLabel(get()); //Update result in view
+			}
+			catch(ExecutionException e) {
+				//Failed operations, such as a division by 0
+				Throwable cause = e.getCause();
+				view.setResultLabel("Error: " + ((null != cause.getMessage()) ? cause.getMessage() : cause.toString()));
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt(); //Can't happen: the computation is done
+			}
+		}
+	}
+	
+	public PolynomialEngine getEngine() {
+		return engine;
+	}
+	
 	public void work() {
 		view.setVisible(true);
 	}
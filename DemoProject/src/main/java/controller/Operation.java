@@ -0,0 +1,29 @@
+package controller;
+
+import java.util.Locale;
+
+public enum Operation {
+	//The operations of the calculator, on P1 and, for the binary ones, P2
+	ADD(true), SUBTRACT(true), DERIVATE(false), INTEGRATE(false), MULTIPLY(true), DIVIDE(true);
+
+	//Attributes
+	private final boolean binary; //Whether the result depends on P2
+
+	//Constructors
+	private Operation(boolean binary) {
+		this.binary = binary;
+	}
+
+	//Getters
+	public boolean isBinary() { return this.binary; }
+
+	public static Operation forName(String name) {
+		//The operation with the given name, in any case, such as "multiply"
+		try {
+			return valueOf(name.toUpperCase(Locale.ROOT));
+		}
+		catch(IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown operation: " + name);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package controller;
+
+import model.ArithmeticContext;
+import model.ImmutablePolynomial;
+import model.Polynomial;
+
+public class PolynomialEngine {
+	//The calculator without its window: computes the operations of the Controller, caching their results by
+	//operation, operands and ArithmeticContext. The operands and results are ImmutablePolynomials, so one engine can serve
+	//any number of threads at once, and the cached results are shared without copies.
+	//Used by the Controller and by the headless BatchProcessor.
+
+	//Constants
+	public static final long DEFAULT_CACHE_BYTES = 64L << 20; //Estimated memory of the cached results
+	private static final long TERM_BYTES = 64; //Estimated memory of a term of a cached result (power, BigDecimal and array slots)
+	private static final long ENTRY_BYTES = 128; //Estimated memory of a cache entry besides its terms
+
+	//Attributes
+	private final ResultCache<Key, ImmutablePolynomial[]> cache;
+
+	//Constructors
+	public PolynomialEngine() {
+		this(DEFAULT_CACHE_BYTES);
+	}
+
+	public PolynomialEngine(long cacheBytes) {
+		//A cache of 0 bytes stores nothing
+		this.cache = new ResultCache<Key, ImmutablePolynomial[]>(cacheBytes, PolynomialEngine::weigh);
+	}
+
+	//Getters
+	public ResultCache<?, ImmutablePolynomial[]> getResultCache() {
+		//The cache of results, with its hit, miss and eviction counters
+		return cache;
+	}
+
+	//Computation
+	public ImmutablePolynomial[] compute(Operation operation, ImmutablePolynomial p1, ImmutablePolynomial p2) {
+		//Returns the result of operation on p1 (and p2, which may be null for the unary operations):
+		//a single polynomial, or the quotient and the remainder for DIVIDE. The array must not be modified,
+		//as it may be the cached one. The operation is done in the default ArithmeticContext of the moment
+		ArithmeticContext context = ArithmeticContext.getDefault();
+		Key key = new Key(operation, p1, operation.isBinary() ? p2 : null, context);
+		ImmutablePolynomial[] results = cache.get(key);
+		if(null == results) {
+			results = evaluate(operation, p1, p2, context);
+			cache.put(key, results);
+		}
+		return results;
+	}
+
+	//Auxiliary methods
+	private static ImmutablePolynomial[] evaluate(Operation operation, ImmutablePolynomial p1, ImmutablePolynomial p2, ArithmeticContext context) {
+		switch(operation) {
+		case ADD:
+			return new ImmutablePolynomial[] {p1.add(p2)};
+		case SUBTRACT:
+			return new ImmutablePolynomial[] {p1.subtract(p2)};
+		case DERIVATE:
+			return new ImmutablePolynomial[] {p1.derivate()};
+		case INTEGRATE:
+			return new ImmutablePolynomial[] {p1.toPolynomial().integrate(context).toImmutable()};
+		case MULTIPLY:
+			return new ImmutablePolynomial[] {p1.multiply(p2, context)};
+		default:
+			Polynomial[] division = p1.toPolynomial().divide(p2.toPolynomial(), context); //A single division gives both the quotient and the remainder
+			return new ImmutablePolynomial[] {division[0].toImmutable(), division[1].toImmutable()};
+		}
+	}
+
+	private static long weigh(ImmutablePolynomial[] results) {
+		//Estimated memory of a cache entry, in bytes
+		long bytes = ENTRY_BYTES;
+		for(ImmutablePolynomial p : results) bytes += TERM_BYTES * p.getTermCount();
+		return bytes;
+	}
+
+	//Types
+	private static final class Key {
+		//Cache key: the operation, its operands and the context it was done in, p2 being null for the unary operations.
+		//The operands must be identical, not only equal, as the scales of their coefficients decide those of
+		//some results (the integral of 1.00 has more decimals than that of 1); contexts are compared by identity
+		private final Operation operation;
+		private final ImmutablePolynomial p1;
+		private final ImmutablePolynomial p2;
+		private final ArithmeticContext context;
+
+		private Key(Operation operation, ImmutablePolynomial p1, ImmutablePolynomial p2, ArithmeticContext context) {
+			this.operation = operation;
+			this.p1 = p1;
+			this.p2 = p2;
+			this.context = context;
+		}
+
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) return false;
+			Key k = (Key) o;
+			return operation == k.operation && context == k.context && p1.isIdentical(k.p1)
+					&& ((null == p2) ? null == k.p2 : null != k.p2 && p2.isIdentical(k.p2));
+		}
+
+		public int hashCode() {
+			int h = 31 * (31 * operation.hashCode() + p1.hashCode()) + ((null == p2) ? 0 : p2.hashCode());
+			return 31 * h + System.identityHashCode(context);
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import model.Metrics;
+
+public class PolynomialServer {
+	//The calculator as a local HTTP/1.1 service, on the loopback interface only:
+	//  POST /compute  one operation per line in the body, in the format of BatchProcessor, which answers with one
+	//                 line per operation, the result or "error: " and the reason
+	//  GET  /stats    the request, load shedding and batching counters, those of the result cache, and the
+	//                 Metrics of the model when they are enabled (with -Dpolynomial.metrics=true)
+	//Every exchange is handled on a thread of its own: a virtual thread on Java 21 and later, found through
+	//reflection since the code is compiled for Java 8, and a thread from a cached pool before that.
+	//
+	//A limiter admits at most maxConcurrent requests at a time; the others are shed at once, with 503 Service
+	//Unavailable and Retry-After, instead of piling up behind the busy ones.
+	//Requests of a single short line are micro-batched: they wait in a queue for one of BATCHER_THREADS batchers,
+	//each of which computes all the queued lines in one go, reusing its output buffer, and hands every request
+	//its line back. A batch is whatever has queued up since the last one, so no request ever waits for a batch
+	//to fill. Longer requests are computed on their own thread, and so are short ones if the queue is full.
+	//
+	//Usage: java controller.PolynomialServer [-p port] [-c maxConcurrent]
+
+	//Constants
+	public static final int DEFAULT_PORT = 8018;
+	public static final int MAX_BODY_BYTES = 1 << 20; //Larger requests are refused with 413
+	private static final int SMALL_REQUEST_CHARS = 256; //Single-line requests up to this length are batched
+	private static final int MAX_BATCH = 64; //Requests computed together by a batcher
+	private static final int QUEUE_CAPACITY = 1024; //Small requests waiting for a batcher
+	private static final int BATCHER_THREADS = Math.max(Runtime.getRuntime().availableProcessors(), 1);
+
+	static {
+		//The JDK server writes the headers and the body of a response separately, so without TCP_NODELAY,
+		//Nagle's algorithm and delayed ACKs hold every keep-alive response back for about 40 ms.
+		//The property is read once, when the first server is created
+		if(null == System.getProperty("sun.net.httpserver.nodelay")) System.setProperty("sun.net.httpserver.nodelay", "true");
+	}
+
+	//Attributes
+	private final HttpServer server;
+	private final ExecutorService executor; //Runs the exchanges
+	private final BatchProcessor processor;
+	private final PolynomialEngine engine;
+	private final Semaphore limiter;
+	private final BlockingQueue<SmallRequest> queue = new ArrayBlockingQueue<SmallRequest>(QUEUE_CAPACITY);
+	private final List<Thread> batchers = new ArrayList<Thread>();
+	private boolean stopped; //Guarded by queue, so that no request is queued after stop() has emptied it
+
+	private final AtomicLong requests = new AtomicLong(); //Admitted /compute requests
+	private final AtomicLong shed = new AtomicLong(); //Requests refused by the limiter
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong batchedRequests = new AtomicLong();
+
+	//Types
+	private static final class SmallRequest {
+		private final String line;
+		private final CompletableFuture<String> output = new CompletableFuture<String>();
+
+		private SmallRequest(String line) {
+			this.line = line;
+		}
+	}
+
+	//Constructors
+	public PolynomialServer(int port, int maxConcurrent, PolynomialEngine engine) throws IOException {
+		//Binds to the given port of the loopback interface, or to a free one for port 0; start() starts serving
+		this.engine = engine;
+		this.processor = new BatchProcessor(engine, 1);
+		this.limiter = new Semaphore(Math.max(maxConcurrent, 0));
+		this.executor = newThreadPerTaskExecutor();
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.server.setExecutor(executor);
+		this.server.createContext("/compute", this::compute);
+		this.server.createContext("/stats", this::stats);
+	}
+
+	//Getters
+	public int getPort() { return server.getAddress().getPort(); }
+	public long getRequests() { return requests.get(); }
+	public long getShed() { return shed.get(); }
+	public long getBatches() { return batches.get(); }
+	public long getBatchedRequests() { return batchedRequests.get(); }
+
+	//Lifecycle
+	public void start() {
+		for(int i = 0; i < BATCHER_THREADS; i++) {
+			Thread batcher = new Thread(this::batch, "polynomial-batcher-" + i);
+			batcher.setDaemon(true);
+			batcher.start();
+			batchers.add(batcher);
+		}
+		server.start();
+	}
+
+	public void stop() {
+		//Stops accepting requests, and stops the threads once the exchanges in progress are over
+		server.stop(0);
+		for(Thread batcher : batchers) batcher.interrupt();
+		List<SmallRequest> abandoned = new ArrayList<SmallRequest>();
+		synchronized(queue) {
+			stopped = true;
+			queue.drainTo(abandoned);
+		}
+		for(SmallRequest request : abandoned) request.output.completeExceptionally(new IllegalStateException("The server stopped"));
+		executor.shutdown();
+	}
+
+	//Handlers
+	private void compute(HttpExchange exchange) throws IOException {
+		try {
+			if(!"POST".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "POST");
+				respond(exchange, 405, "POST one operation per line\n");
+				return;
+			}
+			if(!limiter.tryAcquire()) {
+				shed.incrementAndGet();
+				exchange.getResponseHeaders().set("Retry-After", "1");
+				respond(exchange, 503, "busy\n");
+				return;
+			}
+			try {
+				requests.incrementAndGet();
+				String body = readBody(exchange.getRequestBody());
+				if(null == body) respond(exchange, 413, "request larger than " + MAX_BODY_BYTES + " bytes\n");
+				else respond(exchange, 200, process(body));
+			}
+			finally {
+				limiter.release();
+			}
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	private void stats(HttpExchange exchange) throws IOException {
+		try {
+			respond(exchange, 200, "requests " + requests.get() + "\nshed " + shed.get() + "\nbatches " + batches.get()
+					+ "\nbatched " + batchedRequests.get() + "\ncache " + engine.getResultCache() + "\n"
+					+ (Metrics.isEnabled() ? Metrics.dump() : "")); //The operations of the model, if measured
+		}
+		finally {
+			exchange.close();
+		}
+	}
+
+	//Auxiliary methods
+	private String process(String body) throws IOException {
+		//The output for a request body, through a batcher if it is a single short line.
+		//Exchanges still in progress when the server stops compute their lines themselves, as nothing takes them from the queue anymore
+		int newline = body.indexOf('\n');
+		if(!body.isEmpty() && body.length() <= SMALL_REQUEST_CHARS && (newline < 0 || newline == body.length() - 1)) {
+			SmallRequest request = new SmallRequest(body.trim());
+			boolean queued;
+			synchronized(queue) {
+				queued = !stopped && queue.offer(request);
+			}
+			if(queued) {
+				try {
+					return request.output.get() + "\n";
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while waiting for the result", e);
+				}
+				catch(ExecutionException e) {
+					throw new IOException(e.getCause());
+				}
+			}
+		}
+
+		StringBuilder output = new StringBuilder(64);
+		int start = 0;
+		while(start < body.length()) {
+			int end = body.indexOf('\n', start);
+			if(end < 0) end = body.length();
+			processor.processLine(body.substring(start, (end > start && '\r' == body.charAt(end - 1)) ? end - 1 : end), output);
+			output.append('\n');
+			start = end + 1;
+		}
+		return output.toString();
+	}
+
+	private void batch() {
+		//Batcher thread: computes the queued small requests, as many as have queued up, in one go
+		List<SmallRequest> batch = new ArrayList<SmallRequest>(MAX_BATCH);
+		StringBuilder buffer = new StringBuilder(256);
+		try {
+			while(true) {
+				batch.add(queue.take());
+				queue.drainTo(batch, MAX_BATCH - 1);
+				for(SmallRequest request : batch) {
+					buffer.setLength(0);
+					try {
+						processor.processLine(request.line, buffer);
+						request.output.complete(buffer.toString());
+					}
+					catch(RuntimeException | Error e) {
+						request.output.completeExceptionally(e);
+					}
+				}
+				batches.incrementAndGet();
+				batchedRequests.addAndGet(batch.size());
+				batch.clear();
+			}
+		}
+		catch(InterruptedException e) {
+			//Stopped: stop() fails the requests still queued
+		}
+	}
+
+	private static String readBody(InputStream in) throws IOException {
+		//The body as UTF-8 text, or null if it is longer than MAX_BODY_BYTES
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		for(int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+			if(bytes.size() + n > MAX_BODY_BYTES) return null;
+			bytes.write(buffer, 0, n);
+		}
+		return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try(OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static ExecutorService newThreadPerTaskExecutor() {
+		//Executors.newVirtualThreadPerTaskExecutor() where it exists (Java 21 and later), otherwise a cached pool of daemon threads
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "polynomial-exchange");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	//Command line
+	public static void main(String[] args) throws IOException {
+		int port = DEFAULT_PORT;
+		int maxConcurrent = 4 * BATCHER_THREADS * MAX_BATCH;
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			if("-p".equals(args[i])) port = Integer.parseInt(args[i + 1]);
+			else if("-c".equals(args[i])) maxConcurrent = Integer.parseInt(args[i + 1]);
+		}
+
+		PolynomialServer server = new PolynomialServer(port, maxConcurrent, new PolynomialEngine());
+		server.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+		System.out.println("Serving on http://localhost:" + server.getPort() + "/compute, at most " + maxConcurrent + " requests at a time");
+	}
+}
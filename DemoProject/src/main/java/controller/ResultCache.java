@@ -0,0 +1,91 @@
+package controller;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+public class ResultCache<K, V> {
+	//Bounded cache of computed results, evicting the least recently used entries.
+	//Every entry weighs what the weigher says (an estimate of its size in bytes, for instance), and entries are
+	//evicted, least recently used first, until the total weight is back within the limit; a single value
+	//heavier than the whole limit is never stored.
+	//Keys must not change while they are in the cache, and values are handed out to every caller that looks
+	//them up, so both should be immutable.
+	//All methods are synchronized, so that a cache can be shared between threads.
+
+	//Attributes
+	private final long maxWeight;
+	private final ToLongFunction<? super V> weigher;
+	private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true); //In access order
+	private long weight; //Sum of the weights of the entries
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	//Constructors
+	public ResultCache(long maxWeight, ToLongFunction<? super V> weigher) {
+		if(maxWeight < 0) throw new IllegalArgumentException("Negative maximum weight: " + maxWeight);
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+	}
+
+	//Getters
+	public synchronized long getHits() { return this.hits; }
+	public synchronized long getMisses() { return this.misses; }
+	public synchronized long getEvictions() { return this.evictions; }
+	public synchronized long getWeight() { return this.weight; }
+	public synchronized int size() { return this.entries.size(); }
+	public long getMaxWeight() { return this.maxWeight; }
+
+	//Cache methods
+	public synchronized V get(K key) {
+		//Returns the value stored for key, making it the most recently used entry, or null if there is none
+		Entry<V> entry = entries.get(key);
+		if(null == entry) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+
+	public synchronized void put(K key, V value) {
+		//Stores value for key, replacing any previous value, then evicts entries until the weight fits
+		long w = weigher.applyAsLong(value);
+		Entry<V> previous = entries.remove(key);
+		if(null != previous) weight -= previous.weight;
+		if(w > maxWeight) return;
+
+		entries.put(key, new Entry<V>(value, w));
+		weight += w;
+		for(Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator(); weight > maxWeight; ) {
+			weight -= it.next().getValue().weight;
+			it.remove();
+			evictions++;
+		}
+	}
+
+	public synchronized void clear() {
+		//Removes every entry; the counters are kept
+		entries.clear();
+		weight = 0;
+	}
+
+	//toString
+	public synchronized String toString() {
+		return "ResultCache[" + entries.size() + " entries, " + weight + "/" + maxWeight + ", hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+	//Types
+	private static final class Entry<V> {
+		private final V value;
+		private final long weight;
+
+		private Entry(V value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+public class ArithmeticContext {
+	//Precision settings for the Polynomial operations, replacing the fixed 6 decimals they used to round quotients to.
+	//A context works in one of three modes:
+	//  DECIMAL         BigDecimal coefficients. Quotients that don't terminate (in integrate and divide) get
+	//                  max(quotientDecimals, decimals of the dividend) decimals; every result is then rounded to
+	//                  the precision of the MathContext and to at most maxScale decimals, using the rounding mode
+	//  EXACT           No rounding at all. Polynomial and Monomial keep quotients with no finite decimal expansion
+	//                  as exact fractions (see Rational); the operations on BigDecimals alone, such as divide() below
+	//                  and the DensePolynomial ones, throw an ArithmeticException for them instead
+	//  FLOATING_POINT  Quotients and dense products are computed in double precision, and every result coefficient is
+	//                  rounded to the nearest double. Much faster, for callers that accept floating-point error
+	//
+	//maxScale is what keeps chains of operations fast: products add up the decimals of their factors, so without
+	//a cap the BigDecimals (and the cost of every later operation) keep growing.
+	//Polynomial division rounds its quotient coefficients with a rounding mode of its own, which is the rounding mode
+	//of the context except in DEFAULT.
+	//The default context (DECIMAL, 6 decimals for quotients, no cap) gives the same results as the DivisionEngine
+	//defaults, rounding the quotients of Polynomial.divide DOWN, while integrate() and Monomial.divide() keep
+	//rounding HALF_EVEN; sums, differences, products and derivatives are left exact.
+	//Contexts are immutable, so one can be shared between threads.
+
+	//Constants
+	public static final int UNLIMITED_SCALE = Integer.MAX_VALUE;
+	public static final int DEFAULT_QUOTIENT_DECIMALS = DivisionEngine.DEFAULT_QUOTIENT_DECIMALS;
+	private static final int DOUBLE_DIGITS = 16; //Significant digits kept from a double
+	private static final int MAX_EXACT_POWER = 22; //Highest power of ten that is an exact double
+	private static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for(int i = 1; i <= MAX_EXACT_POWER; i++) POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+	}
+
+	public static final ArithmeticContext DEFAULT = new ArithmeticContext(Mode.DECIMAL, MathContext.UNLIMITED, RoundingMode.HALF_EVEN, RoundingMode.DOWN, DEFAULT_QUOTIENT_DECIMALS, UNLIMITED_SCALE);
+	public static final ArithmeticContext EXACT = new ArithmeticContext(Mode.EXACT, MathContext.UNLIMITED, RoundingMode.UNNECESSARY, RoundingMode.UNNECESSARY, 0, UNLIMITED_SCALE);
+	public static final ArithmeticContext FLOATING_POINT = new ArithmeticContext(Mode.FLOATING_POINT, MathContext.DECIMAL64, RoundingMode.HALF_EVEN, RoundingMode.HALF_EVEN, 0, UNLIMITED_SCALE);
+
+	//The context used by the Polynomial operations that don't take one
+	private static volatile ArithmeticContext defaultContext = DEFAULT;
+
+	//Types
+	public enum Mode { DECIMAL, EXACT, FLOATING_POINT }
+
+	//Attributes
+	private final Mode mode;
+	private final MathContext mathContext; //Significant digits kept in every result; MathContext.UNLIMITED keeps them all
+	private final RoundingMode roundingMode;
+	private final RoundingMode quotientRoundingMode; //Rounding of the quotient coefficients of Polynomial.divide
+	private final int quotientDecimals; //Minimum decimals of a quotient that doesn't terminate
+	private final int maxScale; //Maximum decimals of any result, or UNLIMITED_SCALE
+
+	//Constructors
+	public ArithmeticContext(int quotientDecimals, int maxScale, RoundingMode roundingMode) {
+		//A DECIMAL context without a limit on significant digits
+		this(Mode.DECIMAL, MathContext.UNLIMITED, roundingMode, roundingMode, quotientDecimals, maxScale);
+	}
+
+	public ArithmeticContext(MathContext mathContext, int quotientDecimals, int maxScale) {
+		//A DECIMAL context rounding to the given significant digits, with the rounding mode of mathContext
+		this(Mode.DECIMAL, mathContext, mathContext.getRoundingMode(), mathContext.getRoundingMode(), quotientDecimals, maxScale);
+	}
+
+	private ArithmeticContext(Mode mode, MathContext mathContext, RoundingMode roundingMode, RoundingMode quotientRoundingMode, int quotientDecimals, int maxScale) {
+		if(quotientDecimals < 0 || maxScale < 0) throw new IllegalArgumentException("Negative number of decimals");
+		this.mode = mode;
+		this.mathContext = mathContext;
+		this.roundingMode = roundingMode;
+		this.quotientRoundingMode = quotientRoundingMode;
+		this.quotientDecimals = Math.min(quotientDecimals, maxScale);
+		this.maxScale = maxScale;
+	}
+
+	//Getters & setters
+	public static ArithmeticContext getDefault() { return defaultContext; }
+	public static void setDefault(ArithmeticContext context) { defaultContext = context; }
+
+	public Mode getMode() { return this.mode; }
+	public MathContext getMathContext() { return this.mathContext; }
+	public RoundingMode getRoundingMode() { return this.roundingMode; }
+	public RoundingMode getQuotientRoundingMode() { return this.quotientRoundingMode; }
+	public int getQuotientDecimals() { return this.quotientDecimals; }
+	public int getMaxScale() { return this.maxScale; }
+
+	public boolean isRounding() {
+		//Returns true if round() can change a value, so the results of exact operations have to go through it
+		if(Mode.EXACT == mode) return false;
+		return Mode.FLOATING_POINT == mode || mathContext.getPrecision() > 0 || maxScale != UNLIMITED_SCALE;
+	}
+
+	//Coefficient operations
+	public BigDecimal round(BigDecimal value) {
+		//Rounds the result of an exact operation according to this context
+		switch(mode) {
+			case EXACT:
+				return value;
+			case FLOATING_POINT:
+				return toDecimal(toDouble(value));
+			default:
+				if(mathContext.getPrecision() > 0 && value.precision() > mathContext.getPrecision()) value = value.round(mathContext);
+				if(value.scale() > maxScale) value = value.setScale(maxScale, roundingMode);
+				return value;
+		}
+	}
+
+	public BigDecimal divide(BigDecimal dividend, BigDecimal divisor) {
+		//Returns dividend / divisor according to this context; throws an ArithmeticException when dividing by 0,
+		//and in EXACT mode when the quotient doesn't terminate
+		if(0 == divisor.signum()) throw new ArithmeticException("Division by 0");
+		switch(mode) {
+			case EXACT:
+				try {
+					return dividend.divide(divisor);
+				}
+				catch(ArithmeticException e) {
+					throw new ArithmeticException(dividend + " / " + divisor + " has no exact decimal value");
+				}
+			case FLOATING_POINT:
+				return toDecimal(toDouble(dividend) / toDouble(divisor));
+			default:
+				int scale = Math.min(Math.max(quotientDecimals, dividend.scale()), maxScale);
+				return round(dividend.divide(divisor, scale, roundingMode));
+		}
+	}
+
+	//Conversions for FLOATING_POINT mode
+	//Both directions take a few nanoseconds, instead of the microsecond of BigDecimal.valueOf(double) and
+	//BigDecimal.doubleValue(), which go through decimal strings; they may be off by an ulp, which this mode accepts
+	static double toDouble(BigDecimal value) {
+		int scale = value.scale();
+		if(value.precision() <= 18 && scale >= -MAX_EXACT_POWER && scale <= MAX_EXACT_POWER) {
+			double unscaled = value.unscaledValue().longValue();
+			return (scale >= 0) ? unscaled / POWERS_OF_TEN[scale] : unscaled * POWERS_OF_TEN[-scale];
+		}
+		return value.doubleValue();
+	}
+
+	static BigDecimal toDecimal(double value) {
+		//Rounds value to the 16 significant digits of MathContext.DECIMAL64; integers below 10^15 stay exact
+		if(Double.isNaN(value) || Double.isInfinite(value)) throw new ArithmeticException("The result overflows a double");
+		if(0 == value) return BigDecimal.ZERO;
+		if(value == Math.rint(value) && Math.abs(value) < 1e15) return BigDecimal.valueOf((long) value);
+
+		int scale = DOUBLE_DIGITS - 1 - (int) Math.floor(Math.log10(Math.abs(value)));
+		if(scale > MAX_EXACT_POWER || scale < -MAX_EXACT_POWER) return BigDecimal.valueOf(value).round(MathContext.DECIMAL64);
+		double scaled = (scale >= 0) ? value * POWERS_OF_TEN[scale] : value / POWERS_OF_TEN[-scale];
+		return BigDecimal.valueOf(Math.round(scaled), scale);
+	}
+}
@@ -0,0 +1,534 @@
+package model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DensePolynomial {
+	//Polynomial implemented as a dense array of coefficients, indexed by exponent
+	//Coefficients are kept in a primitive long[] for as long as they are all integers that fit in a long.
+	//As soon as a value overflows or stops being an integer, the whole array is promoted to BigDecimal.
+	//For instance, the coefficients {5, -17, 0, 1} correspond to x^3 - 17x + 5
+	//The arithmetic methods return new objects, except for the in-place ones, which reuse this object's arrays
+	//(only growing them when needed), so that steady-state loops on compact coefficients allocate nothing.
+
+	//Attributes
+	private long[] smallCoeffs; //Used while every coefficient is an integer that fits in a long; null otherwise
+	private BigDecimal[] bigCoeffs; //Fallback storage; null while smallCoeffs is in use
+	private int size; //Number of used slots, so the highest stored power is size - 1. Slots past it hold 0
+
+	//Constructors
+	public DensePolynomial() {
+		//Creates the 0 polynomial
+		this.smallCoeffs = new long[0];
+		this.size = 0;
+	}
+
+	public DensePolynomial(long[] coeffs) {
+		//Creates a polynomial from the given coefficients, lowest power first. The array is copied.
+		this.smallCoeffs = coeffs.clone();
+		this.size = coeffs.length;
+	}
+
+	public DensePolynomial(BigDecimal[] coeffs) {
+		//Creates a polynomial from the given coefficients, lowest power first. The array is copied.
+		//If every coefficient is an integer that fits in a long, the compact representation is used instead.
+		//null entries are treated as 0.
+		this.size = coeffs.length;
+		this.smallCoeffs = toLongsIfPossible(coeffs, coeffs.length);
+		if(null == this.smallCoeffs) {
+			this.bigCoeffs = new BigDecimal[coeffs.length];
+			for(int i = 0; i < coeffs.length; i++) {
+				this.bigCoeffs[i] = (null == coeffs[i]) ? BigDecimal.ZERO : coeffs[i];
+			}
+		}
+	}
+
+	private DensePolynomial(long[] smallCoeffs, BigDecimal[] bigCoeffs, int size) {
+		//Takes ownership of the given arrays; exactly one of them must be non-null
+		this.smallCoeffs = smallCoeffs;
+		this.bigCoeffs = bigCoeffs;
+		this.size = size;
+	}
+
+	//Getters
+	public boolean isCompact() {
+		//Returns true while the coefficients are stored as primitive longs
+		return null != smallCoeffs;
+	}
+
+	public int getDegree() {
+		//Returns the highest power with a non-zero coefficient, or -1 for the 0 polynomial
+		for(int i = size - 1; i >= 0; i--) {
+			if(!isZeroAt(i)) return i;
+		}
+		return -1;
+	}
+
+	public BigDecimal getCoeff(int power) {
+		//Returns the coefficient of x^power; powers outside the stored range have coefficient 0
+		if(power < 0 || power >= size) return BigDecimal.ZERO;
+		if(isCompact()) return BigDecimal.valueOf(smallCoeffs[power]);
+		return bigCoeffs[power];
+	}
+
+	public BigDecimal[] toBigDecimalArray() {
+		//Returns a fresh copy of the coefficients as BigDecimals, lowest power first
+		BigDecimal[] result = new BigDecimal[size];
+		for(int i = 0; i < size; i++) result[i] = getCoeff(i);
+		return result;
+	}
+
+	private boolean isZeroAt(int i) {
+		if(isCompact()) return 0 == smallCoeffs[i];
+		return 0 == bigCoeffs[i].signum();
+	}
+
+	//Conversions
+	public Polynomial toPolynomial() {
+		//Returns the equivalent list-based Polynomial. 0-coefficient terms are left out.
+		List<Monomial> values = new ArrayList<Monomial>();
+		for(int i = 0; i < size; i++) {
+			if(!isZeroAt(i)) values.add(new Monomial(getCoeff(i), i));
+		}
+		return new Polynomial(values);
+	}
+
+	//Binary serialization
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		//Writes this polynomial to the channel in the binary format of PolynomialCodec; the channel is not closed
+		PolynomialCodec.write(this, channel);
+	}
+
+	public static DensePolynomial readFrom(ReadableByteChannel channel) throws IOException {
+		//Reads a polynomial written by writeTo (or Polynomial.writeTo), consuming exactly its bytes from the channel
+		return new PolynomialReader(channel).readDense();
+	}
+
+	//toString
+	public String toString() {
+		//Same format as Polynomial.toString, such as x^3 - 3x^2 + 15
+		return PolynomialFormatter.format(this);
+	}
+
+	//Arithmetic methods
+	//Every coefficient loop below is split across the default ParallelExecution when the polynomial is long enough
+	public DensePolynomial add(DensePolynomial p) {
+		//Returns a DensePolynomial representing the sum of this DensePolynomial and p, in a single pass
+		return addOrSubtract(p, false);
+	}
+
+	public DensePolynomial subtract(DensePolynomial p) {
+		//Returns a DensePolynomial representing the difference of this DensePolynomial and p, in a single pass
+		return addOrSubtract(p, true);
+	}
+
+	public DensePolynomial negate() {
+		//Returns a DensePolynomial with every coefficient negated
+		ParallelExecution parallel = ParallelExecution.getDefault();
+
+		if(isCompact()) {
+			long[] result = new long[size];
+			try {
+				parallel.forEachRange(0, size, size, (from, to) -> {
+					for(int i = from; i < to; i++) result[i] = Math.negateExact(smallCoeffs[i]); //Only Long.MIN_VALUE overflows
+				});
+				return new DensePolynomial(result, null, size);
+			}
+			catch(ArithmeticException overflow) {
+				//Fall through to the BigDecimal path below
+			}
+		}
+
+		BigDecimal[] result = new BigDecimal[size];
+		parallel.forEachRange(0, size, size, (from, to) -> {
+			for(int i = from; i < to; i++) result[i] = getCoeff(i).negate();
+		});
+		return new DensePolynomial(null, result, size);
+	}
+
+	public DensePolynomial derivate() {
+		//Returns the derivative of this DensePolynomial, in a single pass
+		int resultSize = Math.max(size - 1, 0);
+		ParallelExecution parallel = ParallelExecution.getDefault();
+
+		if(isCompact()) {
+			long[] result = new long[resultSize];
+			try {
+				parallel.forEachRange(0, resultSize, resultSize, (from, to) -> {
+					for(int i = from; i < to; i++) result[i] = Math.multiplyExact(smallCoeffs[i + 1], (long) (i + 1));
+				});
+				return new DensePolynomial(result, null, resultSize);
+			}
+			catch(ArithmeticException overflow) {
+				//Fall through to the BigDecimal path below
+			}
+		}
+
+		BigDecimal[] result = new BigDecimal[resultSize];
+		parallel.forEachRange(0, resultSize, resultSize, (from, to) -> {
+			for(int i = from; i < to; i++) result[i] = getCoeff(i + 1).multiply(BigDecimal.valueOf(i + 1));
+		});
+		return new DensePolynomial(null, result, resultSize);
+	}
+
+	public DensePolynomial integrate() {
+		//Returns the primitive (integral) of this DensePolynomial, dividing as the default ArithmeticContext does
+		return integrate(ArithmeticContext.getDefault());
+	}
+
+	public DensePolynomial integrate(ArithmeticContext context) {
+		//Returns the primitive (integral) of this DensePolynomial, in a single pass
+		//As long as every coefficient divides evenly, the result stays compact (and exact, whatever the context)
+		int resultSize = size + 1;
+		ParallelExecution parallel = ParallelExecution.getDefault();
+
+		if(isCompact()) {
+			long[] result = new long[resultSize];
+			try {
+				parallel.forEachRange(0, size, size, (from, to) -> {
+					for(int i = from; i < to; i++) {
+						long c = smallCoeffs[i];
+						if(0 != c % (i + 1)) throw new ArithmeticException("Inexact integral coefficient");
+						result[i + 1] = c / (i + 1);
+					}
+				});
+				return new DensePolynomial(result, null, resultSize);
+			}
+			catch(ArithmeticException inexact) {
+				//Fall through to the BigDecimal path below
+			}
+		}
+
+		BigDecimal[] result = new BigDecimal[resultSize];
+		result[0] = BigDecimal.ZERO;
+		parallel.forEachRange(0, size, size, (from, to) -> {
+			for(int i = from; i < to; i++) {
+				BigDecimal c = getCoeff(i);
+				result[i + 1] = context.divide(c, BigDecimal.valueOf(i + 1));
+			}
+		});
+		return new DensePolynomial(null, result, resultSize);
+	}
+
+	public DensePolynomial multiply(DensePolynomial p) {
+		//Returns the product of this DensePolynomial and p, using the default MultiplicationEngine
+		return multiply(p, MultiplicationEngine.getDefault());
+	}
+
+	public DensePolynomial multiply(DensePolynomial p, MultiplicationEngine engine) {
+		//Returns the product of this DensePolynomial and p
+		//Compact operands are multiplied directly on the longs when the product is known to fit; everything
+		//else is scaled to integers and multiplied as BigIntegers, so the result stays exact for decimals too
+		if(0 == this.size || 0 == p.size) return new DensePolynomial();
+		int resultSize = this.size + p.size - 1;
+
+		if(this.isCompact() && p.isCompact()) {
+			long[] result = engine.multiply(this.compactCoeffs(), p.compactCoeffs());
+			if(null != result) return new DensePolynomial(result, null, resultSize);
+			//Otherwise the product might overflow; use the exact path below
+		}
+
+		int thisScale = this.getCommonScale();
+		int pScale = p.getCommonScale();
+		BigInteger[] unscaled = this.toUnscaled(thisScale);
+		BigInteger[] product = engine.multiply(unscaled, (this == p) ? unscaled : p.toUnscaled(pScale)); //The same array lets the engine square
+
+		BigDecimal[] result = new BigDecimal[resultSize];
+		for(int i = 0; i < resultSize; i++) result[i] = new BigDecimal(product[i], thisScale + pScale);
+		return new DensePolynomial(result);
+	}
+
+	private DensePolynomial addOrSubtract(DensePolynomial p, boolean negate) {
+		//Shared single pass of add and subtract; exact on longs, promoted to BigDecimal if any coefficient overflows
+		int resultSize = Math.max(this.size, p.size);
+		ParallelExecution parallel = ParallelExecution.getDefault();
+
+		if(this.isCompact() && p.isCompact()) {
+			long[] result = new long[resultSize];
+			try {
+				parallel.forEachRange(0, resultSize, resultSize, (from, to) -> {
+					for(int i = from; i < to; i++) {
+						result[i] = negate ? Math.subtractExact(this.smallAt(i), p.smallAt(i)) : Math.addExact(this.smallAt(i), p.smallAt(i));
+					}
+				});
+				return new DensePolynomial(result, null, resultSize);
+			}
+			catch(ArithmeticException overflow) {
+				//Fall through to the BigDecimal path below
+			}
+		}
+
+		BigDecimal[] result = new BigDecimal[resultSize];
+		parallel.forEachRange(0, resultSize, resultSize, (from, to) -> {
+			for(int i = from; i < to; i++) result[i] = negate ? this.getCoeff(i).subtract(p.getCoeff(i)) : this.getCoeff(i).add(p.getCoeff(i));
+		});
+		return new DensePolynomial(null, result, resultSize);
+	}
+
+	int getCommonScale() {
+		//Returns the smallest scale at which every coefficient is an integer multiple of 10^-scale
+		if(isCompact()) return 0;
+		int scale = 0;
+		for(int i = 0; i < size; i++) scale = Math.max(scale, bigCoeffs[i].scale());
+		return scale;
+	}
+
+	BigInteger[] toUnscaled(int scale) {
+		//Returns the coefficients multiplied by 10^scale, as integers. scale must be at least getCommonScale()
+		BigInteger[] result = new BigInteger[size];
+		for(int i = 0; i < size; i++) {
+			if(isCompact()) result[i] = BigInteger.valueOf(smallCoeffs[i]);
+			else result[i] = bigCoeffs[i].setScale(scale).unscaledValue();
+		}
+		return result;
+	}
+
+	//In-place arithmetic methods
+	public void setFrom(DensePolynomial p) {
+		//Makes this DensePolynomial equal to p, reusing the current arrays when they are large enough
+		if(this == p) return;
+		if(p.isCompact()) {
+			if(!this.isCompact() || this.smallCoeffs.length < p.size) {
+				this.smallCoeffs = new long[p.size];
+				this.bigCoeffs = null;
+			}
+			System.arraycopy(p.smallCoeffs, 0, this.smallCoeffs, 0, p.size);
+			Arrays.fill(this.smallCoeffs, p.size, this.smallCoeffs.length, 0);
+		}
+		else {
+			if(this.isCompact() || this.bigCoeffs.length < p.size) {
+				this.bigCoeffs = new BigDecimal[p.size];
+				this.smallCoeffs = null;
+			}
+			System.arraycopy(p.bigCoeffs, 0, this.bigCoeffs, 0, p.size);
+			Arrays.fill(this.bigCoeffs, p.size, this.bigCoeffs.length, BigDecimal.ZERO);
+		}
+		this.size = p.size;
+	}
+
+	public void addInPlace(DensePolynomial p) {
+		//Adds p to this DensePolynomial
+		accumulate(p, false);
+	}
+
+	public void subtractInPlace(DensePolynomial p) {
+		//Subtracts p from this DensePolynomial
+		accumulate(p, true);
+	}
+
+	public void negateInPlace() {
+		//Negates every coefficient of this DensePolynomial
+		scaleInPlace(-1);
+	}
+
+	public void scaleInPlace(long factor) {
+		//Multiplies every coefficient of this DensePolynomial by factor
+		int i = 0;
+		if(isCompact()) {
+			try {
+				for(; i < size; i++) smallCoeffs[i] = Math.multiplyExact(smallCoeffs[i], factor);
+				return;
+			}
+			catch(ArithmeticException overflow) {
+				promote(); //Slot i wasn't written yet, so the BigDecimal loop below picks up from there
+			}
+		}
+		BigDecimal bigFactor = BigDecimal.valueOf(factor);
+		for(; i < size; i++) bigCoeffs[i] = bigCoeffs[i].multiply(bigFactor);
+	}
+
+	public void scaleInPlace(BigDecimal factor) {
+		//Multiplies every coefficient of this DensePolynomial by factor
+		if(factor.scale() <= 0 && factor.precision() - factor.scale() <= 18) {
+			scaleInPlace(factor.longValue()); //Integer factors keep the coefficients compact
+			return;
+		}
+		promote();
+		for(int i = 0; i < size; i++) bigCoeffs[i] = bigCoeffs[i].multiply(factor);
+	}
+
+	public void derivateInPlace() {
+		//Replaces this DensePolynomial with its derivative, shifting the coefficients down by one slot
+		if(0 == size) return;
+		int i = 0;
+		if(isCompact()) {
+			try {
+				for(; i < size - 1; i++) smallCoeffs[i] = Math.multiplyExact(smallCoeffs[i + 1], (long) (i + 1));
+				smallCoeffs[--size] = 0;
+				return;
+			}
+			catch(ArithmeticException overflow) {
+				promote();
+			}
+		}
+		for(; i < size - 1; i++) bigCoeffs[i] = bigCoeffs[i + 1].multiply(BigDecimal.valueOf(i + 1));
+		bigCoeffs[--size] = BigDecimal.ZERO;
+	}
+
+	public void fma(DensePolynomial a, DensePolynomial b) {
+		//Fused multiply-add: adds the product a * b to this DensePolynomial
+		//Short compact operands are accumulated straight into this object's array, when the magnitudes
+		//guarantee that no coefficient can overflow; longer ones go through the MultiplicationEngine
+		if(0 == a.size || 0 == b.size) return;
+		int productSize = a.size + b.size - 1;
+
+		if(this != a && this != b && this.isCompact() && a.isCompact() && b.isCompact()
+				&& Math.min(a.size, b.size) < MultiplicationEngine.getDefault().getKaratsubaThreshold()) {
+			int productBits = magnitudeBits(a.smallCoeffs, a.size) + magnitudeBits(b.smallCoeffs, b.size)
+					+ (32 - Integer.numberOfLeadingZeros(Math.min(a.size, b.size)));
+			if(productBits <= 62 && magnitudeBits(this.smallCoeffs, this.size) <= 62) {
+				ensureSize(productSize);
+				MultiplicationEngine.schoolbook(a.smallCoeffs, 0, a.size, b.smallCoeffs, 0, b.size, this.smallCoeffs, 0);
+				return;
+			}
+		}
+
+		addInPlace(a.multiply(b));
+	}
+
+	private void accumulate(DensePolynomial p, boolean negate) {
+		//Adds (or subtracts) p into this DensePolynomial's own arrays
+		ensureSize(p.size);
+		int i = 0;
+		if(this.isCompact() && p.isCompact()) {
+			try {
+				for(; i < p.size; i++) {
+					smallCoeffs[i] = negate ? Math.subtractExact(smallCoeffs[i], p.smallCoeffs[i]) : Math.addExact(smallCoeffs[i], p.smallCoeffs[i]);
+				}
+				return;
+			}
+			catch(ArithmeticException overflow) {
+				//Fall through to the BigDecimal loop, from slot i on
+			}
+		}
+		promote();
+		for(; i < p.size; i++) {
+			BigDecimal c = p.getCoeff(i);
+			bigCoeffs[i] = negate ? bigCoeffs[i].subtract(c) : bigCoeffs[i].add(c);
+		}
+	}
+
+	private void ensureSize(int newSize) {
+		//Makes room for at least newSize coefficients; new slots are 0
+		if(newSize <= size) return;
+		int capacity = isCompact() ? smallCoeffs.length : bigCoeffs.length;
+		if(newSize > capacity) {
+			int newCapacity = Math.max(newSize, capacity + (capacity >> 1));
+			if(isCompact()) smallCoeffs = Arrays.copyOf(smallCoeffs, newCapacity);
+			else {
+				bigCoeffs = Arrays.copyOf(bigCoeffs, newCapacity);
+				Arrays.fill(bigCoeffs, capacity, newCapacity, BigDecimal.ZERO);
+			}
+		}
+		size = newSize;
+	}
+
+	private void promote() {
+		//Switches this DensePolynomial to BigDecimal storage, keeping the same capacity
+		if(!isCompact()) return;
+		BigDecimal[] big = new BigDecimal[smallCoeffs.length];
+		for(int i = 0; i < big.length; i++) big[i] = BigDecimal.valueOf(smallCoeffs[i]);
+		bigCoeffs = big;
+		smallCoeffs = null;
+	}
+
+	//Helpers for the division and evaluation algorithms
+	boolean isIntegral() {
+		//Returns true if every coefficient is an integer
+		if(isCompact()) return true;
+		for(int i = 0; i < size; i++) {
+			if(bigCoeffs[i].scale() > 0 && bigCoeffs[i].stripTrailingZeros().scale() > 0) return false;
+		}
+		return true;
+	}
+
+	double[] toDoubleArray(int length) {
+		//Returns the first length coefficients, rounded to doubles
+		double[] result = new double[length];
+		int count = Math.min(length, size);
+		for(int i = 0; i < count; i++) result[i] = isCompact() ? smallCoeffs[i] : ArithmeticContext.toDouble(bigCoeffs[i]);
+		return result;
+	}
+
+	BigDecimal maxAbs() {
+		//Returns the largest absolute value among the coefficients
+		BigDecimal max = BigDecimal.ZERO;
+		for(int i = 0; i < size; i++) max = max.max(getCoeff(i).abs());
+		return max;
+	}
+
+	DensePolynomial truncate(int length) {
+		//Returns this DensePolynomial modulo x^length, i.e. only the terms of power below length
+		int resultSize = Math.min(Math.max(length, 0), size);
+		if(isCompact()) return new DensePolynomial(Arrays.copyOf(smallCoeffs, resultSize), null, resultSize);
+		return new DensePolynomial(null, Arrays.copyOf(bigCoeffs, resultSize), resultSize);
+	}
+
+	DensePolynomial reverse(int length) {
+		//Returns x^(length - 1) * this(1/x), the coefficients of powers 0 to length - 1 in reverse order
+		if(isCompact()) {
+			long[] result = new long[length];
+			for(int i = 0; i < length; i++) result[length - 1 - i] = smallAt(i);
+			return new DensePolynomial(result, null, length);
+		}
+		BigDecimal[] result = new BigDecimal[length];
+		for(int i = 0; i < length; i++) result[length - 1 - i] = getCoeff(i);
+		return new DensePolynomial(null, result, length);
+	}
+
+	DensePolynomial round(int scale, RoundingMode roundingMode) {
+		//Returns this DensePolynomial with every coefficient rounded to the given number of decimals (this same object, when nothing needs rounding)
+		if(isCompact() && scale >= 0) return this;
+		BigDecimal[] result = new BigDecimal[size];
+		for(int i = 0; i < size; i++) result[i] = getCoeff(i).setScale(scale, roundingMode);
+		return new DensePolynomial(result);
+	}
+
+	static DensePolynomial constant(BigDecimal value) {
+		//Returns the DensePolynomial equal to the given constant
+		return new DensePolynomial(new BigDecimal[] {value});
+	}
+
+	//Auxiliary methods
+	private long[] compactCoeffs() {
+		//Returns the used part of the long storage, without copying when it is already the right length
+		return (smallCoeffs.length == size) ? smallCoeffs : Arrays.copyOf(smallCoeffs, size);
+	}
+
+	long getLong(int power) {
+		//Coefficient of the given power, only valid while compact
+		return smallAt(power);
+	}
+
+	private long smallAt(int i) {
+		//Only valid while compact; powers outside the stored range have coefficient 0
+		return (i < size) ? smallCoeffs[i] : 0;
+	}
+
+	private static int magnitudeBits(long[] a, int count) {
+		//Returns the number of bits needed for the largest absolute value among the first count entries
+		long max = 0;
+		for(int i = 0; i < count; i++) max = Math.max(max, (Long.MIN_VALUE == a[i]) ? Long.MAX_VALUE : Math.abs(a[i]));
+		return 64 - Long.numberOfLeadingZeros(max);
+	}
+
+	static long[] toLongsIfPossible(BigDecimal[] coeffs, int count) {
+		//Returns the coefficients as longs, or null if any of them is not an integer that fits in a long
+		long[] result = new long[count];
+		for(int i = 0; i < count; i++) {
+			BigDecimal c = coeffs[i];
+			if(null == c || 0 == c.signum()) continue;
+			if(c.scale() > 0 && c.stripTrailingZeros().scale() > 0) return null; //Has a fractional part
+			if(c.precision() - c.scale() > 18) return null; //Too many integer digits for a long
+			result[i] = c.longValue();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,344 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DivisionEngine {
+	//Polynomial division with remainder through Newton iteration on the reversed divisor.
+	//If a = q * b + r with deg(r) < deg(b) = m and deg(a) = n, then reversing the coefficients gives
+	//rev(q) = rev(a) / rev(b) mod x^(n - m + 1), and 1 / rev(b) is a power series computed by Newton's method.
+	//Each iteration doubles the number of correct terms, so the whole division costs a few multiplications.
+	//
+	//When the divisor has integer coefficients and a leading coefficient of 1 or -1, the quotient is exact.
+	//Its coefficients are then computed modulo a few NTT primes (where the reciprocal series can't blow up
+	//the way it does over the integers), reconstructed through the Chinese remainder theorem, and verified;
+	//more primes are used if the verification fails.
+	//Otherwise the reciprocal is computed with a fixed number of decimals (plus guard digits), and the
+	//quotient rounded to the nearest value with the requested number of decimals is kept if it is exact, that is,
+	//if a - q * b has degree below deg(b); the remainder is then the rest of a - q * b.
+	//An approximate quotient can't tell which side of a rounding boundary its coefficients are on, so the
+	//quotients that do need rounding, and the (ill-conditioned) inputs where neither iteration works, go
+	//through classical long division, which rounds every coefficient from the exact remainder. The leading
+	//quotient coefficients are worked out exactly beforehand, so quotients that visibly need rounding skip
+	//the Newton attempt instead of paying for both.
+	//The products go through DensePolynomial, so they use the default ParallelExecution like any other product;
+	//the independent modular computations and the long division updates are split across it as well.
+	//Every step of the long divisions and of the Newton iterations reports its Progress, and stops the division
+	//with a CancellationException if its thread was interrupted. Their iterations are counted by Metrics, for DIVIDE.
+
+	//Constants
+	public static final int DEFAULT_QUOTIENT_DECIMALS = 6;
+	private static final int GUARD_DIGITS = 10; //Extra decimals kept by the reciprocal, to absorb rounding in the iteration
+	private static final int EXACT_QUOTIENT = -1; //Quotient scale of divisions that must not round
+	private static final long NEWTON_THRESHOLD = 1 << 12; //Quotient terms times divisor terms below which the long division is cheaper than trying Newton's
+	private static final int PROBE_TERMS = 8; //Leading quotient terms worked out exactly before trying Newton's iteration
+
+	//The engine used by Polynomial.divide
+	private static volatile DivisionEngine defaultEngine = new DivisionEngine();
+
+	//Attributes
+	private MultiplicationEngine multiplier; //null means the current default MultiplicationEngine
+	private int quotientDecimals; //Decimals kept in the quotient when the division is not exact
+	private RoundingMode roundingMode;
+
+	//Constructors
+	public DivisionEngine() {
+		this(null, DEFAULT_QUOTIENT_DECIMALS, RoundingMode.DOWN);
+	}
+
+	public DivisionEngine(MultiplicationEngine multiplier, int quotientDecimals, RoundingMode roundingMode) {
+		this.multiplier = multiplier;
+		this.quotientDecimals = quotientDecimals;
+		this.roundingMode = roundingMode;
+	}
+
+	//Getters & setters
+	public static DivisionEngine getDefault() { return defaultEngine; }
+	public static void setDefault(DivisionEngine engine) { defaultEngine = engine; }
+
+	public int getQuotientDecimals() { return this.quotientDecimals; }
+	public void setQuotientDecimals(int quotientDecimals) { this.quotientDecimals = quotientDecimals; }
+	public RoundingMode getRoundingMode() { return this.roundingMode; }
+	public void setRoundingMode(RoundingMode roundingMode) { this.roundingMode = roundingMode; }
+
+	private MultiplicationEngine multiplier() {
+		return (null == multiplier) ? MultiplicationEngine.getDefault() : multiplier;
+	}
+
+	//Division
+	public boolean isExact(DensePolynomial b) {
+		//Returns true if dividing by b needs no rounding at all
+		int m = b.getDegree();
+		return m >= 0 && b.isIntegral() && 0 == b.getCoeff(m).abs().compareTo(BigDecimal.ONE);
+	}
+
+	public DensePolynomial[] divide(DensePolynomial a, DensePolynomial b) {
+		//Returns {quotient, remainder} of dividing a by b, with this engine's quotient decimals and rounding mode
+		//Throws an ArithmeticException when dividing by the 0 polynomial
+		return divide(a, b, quotientDecimals, roundingMode);
+	}
+
+	public DensePolynomial[] divide(DensePolynomial a, DensePolynomial b, ArithmeticContext context) {
+		//Returns {quotient, remainder} of dividing a by b, with the quotient decimals and quotient rounding mode of the context.
+		//EXACT contexts never round: the division throws an ArithmeticException if a quotient coefficient has no
+		//exact decimal value. FLOATING_POINT ones run a long division on doubles instead.
+		//Only the quotient is rounded here; the caller rounds both results to the rest of the context
+		switch(context.getMode()) {
+			case EXACT:
+				return divide(a, b, EXACT_QUOTIENT, null);
+			case FLOATING_POINT:
+				return floatingDivision(a, b);
+			default:
+				return divide(a, b, context.getQuotientDecimals(), context.getQuotientRoundingMode());
+		}
+	}
+
+	private DensePolynomial[] divide(DensePolynomial a, DensePolynomial b, int decimals, RoundingMode rounding) {
+		//decimals is EXACT_QUOTIENT for divisions that must not round
+		int m = b.getDegree();
+		if(m < 0) throw new ArithmeticException("Division by the 0 polynomial");
+
+		int n = a.getDegree();
+		if(n < m) return new DensePolynomial[] {new DensePolynomial(), a.truncate(n + 1)}; //b doesn't "fit" into a at all
+
+		if(isExact(b)) {
+			DensePolynomial[] result = exactDivision(a, b, n, m);
+			return (null != result) ? result : longDivision(a, b, n, m, 0, rounding);
+		}
+		if(EXACT_QUOTIENT == decimals) return longDivision(a, b, n, m, EXACT_QUOTIENT, null);
+
+		int length = n - m + 1; //Number of quotient terms
+		int quotientScale = Math.max(decimals, a.getCommonScale());
+		if((long) length * (m + 1) >= NEWTON_THRESHOLD && leadingTermsTerminate(a, b, n, m, length, quotientScale)) {
+			//The Newton quotient is only an approximation, so it can't be rounded coefficient by coefficient:
+			//a coefficient of 1 may come out as 0.99999..., and go down to 0.999999. It is only kept if, rounded
+			//to the nearest value with quotientScale decimals, it is the exact quotient, which a - q * b proves by
+			//having no terms of power m or more; then no coefficient needs rounding at all
+			DensePolynomial inverse = reciprocal(b.reverse(m + 1), length, quotientScale + GUARD_DIGITS);
+			if(null != inverse) {
+				DensePolynomial quotient = a.reverse(n + 1).truncate(length).multiply(inverse, multiplier()).truncate(length).reverse(length);
+				quotient = quotient.round(quotientScale, RoundingMode.HALF_EVEN);
+				DensePolynomial remainder = a.subtract(quotient.multiply(b, multiplier()));
+				if(remainder.getDegree() < m) return new DensePolynomial[] {quotient, remainder.truncate(m)};
+			}
+		}
+		//Quotients that need rounding (and short divisions) go through the long division, which rounds every
+		//coefficient from the exact remainder, like dividing by hand
+		return longDivision(a, b, n, m, quotientScale, rounding);
+	}
+
+	private static boolean leadingTermsTerminate(DensePolynomial a, DensePolynomial b, int n, int m, int length, int quotientScale) {
+		//The Newton quotient is only kept if every quotient coefficient has at most quotientScale decimals. Dividing
+		//by a leading coefficient with prime factors other than 2 and 5 (such as 3) almost never gives such a quotient,
+		//unless the dividend was built as a multiple of b, so the first PROBE_TERMS coefficients of the long division
+		//are worked out exactly first; if any of them needs rounding, Newton's iteration would be wasted work.
+		//Only the top PROBE_TERMS coefficients of the remainder are updated, which costs nothing next to the division
+		int probe = Math.min(length, PROBE_TERMS);
+		BigDecimal lead = b.getCoeff(m);
+		BigDecimal[] top = new BigDecimal[probe]; //top[i] is the coefficient of x^(n - i)
+		for(int i = 0; i < probe; i++) top[i] = a.getCoeff(n - i);
+
+		for(int i = 0; i < probe; i++) {
+			BigDecimal q = top[i].divide(lead, quotientScale, RoundingMode.DOWN);
+			if(0 != q.multiply(lead).compareTo(top[i])) return false;
+			for(int j = i + 1; j < probe; j++) top[j] = top[j].subtract(q.multiply(b.getCoeff(m - (j - i))));
+		}
+		return true;
+	}
+
+	private DensePolynomial[] exactDivision(DensePolynomial a, DensePolynomial b, int n, int m) {
+		//Multi-modular Newton division for a divisor with integer coefficients and unit leading coefficient.
+		//Decimal dividends are scaled to integers first, since division is linear.
+		//Returns null if the available primes aren't enough to represent the quotient.
+		int length = n - m + 1;
+		int scale = a.getCommonScale();
+		BigInteger[] reversedA = a.reverse(n + 1).truncate(length).toUnscaled(scale);
+		BigInteger[] reversedB = b.reverse(m + 1).truncate(length).toUnscaled(0);
+
+		long[][] residues = new long[NttMultiplier.primeCount()][];
+		int bits = NttMultiplier.maxBits(reversedA) + 2;
+		int primeCount = Math.max(2, NttMultiplier.primesFor(bits));
+		int computed = 0;
+
+		while(primeCount <= NttMultiplier.primeCount()) {
+			Progress.checkCancelled();
+			//The primes are independent of each other, so they are computed in parallel when allowed
+			boolean[] failed = new boolean[1];
+			ParallelExecution.getDefault().forEachRange(computed, primeCount, (long) length * (primeCount - computed), (from, to) -> {
+				for(int k = from; k < to; k++) {
+					long p = NttMultiplier.prime(k);
+					long[] inverse = reciprocalMod(NttMultiplier.reduce(reversedB, p), length, k);
+					long[] product = (null == inverse) ? null : NttMultiplier.multiplyMod(NttMultiplier.reduce(reversedA, p), inverse, k);
+					if(null == product) failed[0] = true;
+					residues[k] = product;
+				}
+			});
+			if(failed[0]) return null;
+			computed = primeCount;
+
+			BigInteger[] reversedQuotient = NttMultiplier.reconstruct(residues, primeCount, length);
+			BigDecimal[] coeffs = new BigDecimal[length];
+			for(int i = 0; i < length; i++) coeffs[length - 1 - i] = new BigDecimal(reversedQuotient[i], scale);
+			DensePolynomial quotient = new DensePolynomial(coeffs);
+
+			//The quotient is right iff a - q * b has no terms of power m or more
+			DensePolynomial remainder = a.subtract(quotient.multiply(b, multiplier()));
+			Metrics.addIterations(1);
+			if(remainder.getDegree() < m) return new DensePolynomial[] {quotient, remainder.truncate(m)};
+			primeCount++;
+		}
+		return null;
+	}
+
+	private DensePolynomial[] longDivision(DensePolynomial a, DensePolynomial b, int n, int m, int quotientScale, RoundingMode rounding) {
+		//Classical long division, for the cases the Newton iteration can't handle well: quotients too large
+		//for the modular path, quotients that need rounding, and divisors whose reciprocal series grows too fast
+		//for a fixed scale. Each quotient coefficient is rounded to quotientScale (not at all, for unit leading
+		//coefficients or an EXACT_QUOTIENT scale), and the remainder is updated exactly
+		BigDecimal[] remainder = a.toBigDecimalArray();
+		BigDecimal[] quotient = new BigDecimal[n - m + 1];
+		BigDecimal lead = b.getCoeff(m);
+		boolean unit = isExact(b);
+		ParallelExecution parallel = ParallelExecution.getDefault();
+
+		for(int k = n - m; k >= 0; k--) {
+			Progress.step(n - m - k, n - m + 1);
+			BigDecimal top = remainder[k + m];
+			BigDecimal q;
+			if(unit) q = (1 == lead.signum()) ? top : top.negate();
+			else if(EXACT_QUOTIENT == quotientScale) q = ArithmeticContext.EXACT.divide(top, lead);
+			else q = top.divide(lead, quotientScale, rounding);
+			quotient[k] = q;
+			if(0 == q.signum()) continue;
+
+			//The update of the remainder is independent for every j, so long divisors split it across threads
+			int shift = k;
+			parallel.forEachRange(0, m + 1, m + 1, (from, to) -> {
+				for(int j = from; j < to; j++) remainder[shift + j] = remainder[shift + j].subtract(q.multiply(b.getCoeff(j)));
+			});
+		}
+		Metrics.addIterations(n - m + 1);
+
+		return new DensePolynomial[] {new DensePolynomial(quotient), new DensePolynomial(remainder).truncate(m)};
+	}
+
+	static Rational[][] fractionDivision(DensePolynomial a, DensePolynomial b) {
+		//Exact long division of integer polynomials, returning {quotient, remainder} as fractions, which are not reduced.
+		//Every quotient coefficient divides by the leading coefficient L of b once more, so every value is kept as
+		//an integer over a power of L, whose exponent is tracked separately: the whole division runs on integers,
+		//without a single gcd. The remainder is updated in parallel for long divisors, like in longDivision
+		int m = b.getDegree();
+		if(m < 0) throw new ArithmeticException("Division by the 0 polynomial");
+		int n = a.getDegree();
+		BigInteger[] divisor = b.toUnscaled(0);
+		BigInteger lead = divisor[m];
+		BigInteger[] remainder = a.toUnscaled(0); //Numerators of the remainder...
+		int[] exponents = new int[Math.max(n + 1, 0)]; //...over lead^exponents[i]
+		Rational[] quotient = new Rational[Math.max(n - m + 1, 0)];
+
+		List<BigInteger> powers = new ArrayList<BigInteger>(); //powers.get(e) = lead^e, computed as needed
+		powers.add(BigInteger.ONE);
+		ParallelExecution parallel = ParallelExecution.getDefault();
+
+		for(int k = n - m; k >= 0; k--) {
+			Progress.step(n - m - k, n - m + 1);
+			BigInteger top = remainder[k + m];
+			int exponent = exponents[k + m] + 1; //q = top / lead^(exponents[k + m] + 1)
+			while(powers.size() <= exponent) powers.add(powers.get(powers.size() - 1).multiply(lead));
+			quotient[k] = Rational.valueOf(top, powers.get(exponent));
+			if(0 == top.signum()) continue;
+
+			//remainder[k + j] -= q * divisor[j], over the larger of the two powers of lead
+			int shift = k;
+			parallel.forEachRange(0, m, m, (from, to) -> {
+				for(int j = from; j < to; j++) {
+					int i = shift + j;
+					int common = Math.max(exponents[i], exponent);
+					BigInteger value = remainder[i].multiply(powers.get(common - exponents[i]));
+					remainder[i] = value.subtract(top.multiply(divisor[j]).multiply(powers.get(common - exponent)));
+					exponents[i] = common;
+				}
+			});
+		}
+
+		Metrics.addIterations(quotient.length);
+
+		Rational[] rest = new Rational[Math.min(m, n + 1)];
+		for(int i = 0; i < rest.length; i++) rest[i] = Rational.valueOf(remainder[i], powers.get(exponents[i]));
+		return new Rational[][] {quotient, rest};
+	}
+
+	private static DensePolynomial[] floatingDivision(DensePolynomial a, DensePolynomial b) {
+		//Long division in double precision, for FLOATING_POINT contexts
+		int m = b.getDegree();
+		if(m < 0) throw new ArithmeticException("Division by the 0 polynomial");
+		int n = a.getDegree();
+		if(n < m) return new DensePolynomial[] {new DensePolynomial(), a.truncate(n + 1)};
+
+		double[] remainder = a.toDoubleArray(n + 1);
+		double[] divisor = b.toDoubleArray(m + 1);
+		BigDecimal[] quotient = new BigDecimal[n - m + 1];
+		for(int k = n - m; k >= 0; k--) {
+			Progress.step(n - m - k, n - m + 1);
+			double q = remainder[k + m] / divisor[m];
+			quotient[k] = ArithmeticContext.toDecimal(q);
+			for(int j = 0; j <= m; j++) remainder[k + j] -= q * divisor[j];
+		}
+		Metrics.addIterations(n - m + 1);
+
+		BigDecimal[] rest = new BigDecimal[m];
+		for(int j = 0; j < m; j++) rest[j] = ArithmeticContext.toDecimal(remainder[j]);
+		return new DensePolynomial[] {new DensePolynomial(quotient), new DensePolynomial(rest)};
+	}
+
+	private static long[] reciprocalMod(long[] f, int length, int primeIndex) {
+		//Returns g with f * g = 1 mod (x^length, p), through the Newton iteration g <- g * (2 - f * g)
+		long p = NttMultiplier.prime(primeIndex);
+		long[] g = {NttMultiplier.modInverse(f[0], p)};
+
+		for(int correct = 1; correct < length; ) {
+			correct = Math.min(2 * correct, length);
+
+			long[] error = NttMultiplier.multiplyMod(Arrays.copyOf(f, Math.min(correct, f.length)), g, primeIndex);
+			if(null == error) return null;
+			long[] twoMinusError = new long[correct];
+			for(int i = 0; i < correct; i++) {
+				long e = (i < error.length) ? error[i] : 0;
+				twoMinusError[i] = Math.floorMod(((0 == i) ? 2 : 0) - e, p);
+			}
+
+			long[] next = NttMultiplier.multiplyMod(g, twoMinusError, primeIndex);
+			if(null == next) return null;
+			g = Arrays.copyOf(next, correct);
+		}
+		return g;
+	}
+
+	DensePolynomial reciprocal(DensePolynomial f, int length, int scale) {
+		//Returns g with f * g = 1 mod x^length, through the Newton iteration g <- g * (2 - f * g)
+		//Every iterate is rounded to the given scale. Rounding errors get amplified by the magnitude of g, so
+		//this returns null as soon as g grows past what the guard digits can absorb.
+		BigDecimal f0 = f.getCoeff(0);
+		BigDecimal g0 = BigDecimal.ONE.divide(f0, scale, RoundingMode.HALF_EVEN);
+		DensePolynomial g = DensePolynomial.constant(g0);
+		DensePolynomial two = DensePolynomial.constant(BigDecimal.valueOf(2));
+		BigDecimal limit = g0.abs().max(BigDecimal.ONE).scaleByPowerOfTen(GUARD_DIGITS);
+
+		for(int correct = 1; correct < length; ) {
+			Progress.step(correct, length);
+			correct = Math.min(2 * correct, length);
+
+			DensePolynomial error = f.truncate(correct).multiply(g, multiplier()).truncate(correct);
+			g = g.multiply(two.subtract(error), multiplier()).truncate(correct);
+			g = g.round(scale, RoundingMode.HALF_EVEN);
+			Metrics.addIterations(1);
+			if(g.maxAbs().compareTo(limit) > 0) return null;
+		}
+
+		return g;
+	}
+}
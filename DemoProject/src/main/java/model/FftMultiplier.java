@@ -0,0 +1,137 @@
+package model;
+
+import java.util.Arrays;
+
+final class FftMultiplier {
+	//Floating-point O(n log n) multiplication of integer coefficient arrays through a complex FFT.
+	//Faster than the exact NttMultiplier, but each product coefficient carries a rounding error,
+	//so it is only used when the caller has accepted an error bound that the estimate below satisfies,
+	//or (for double coefficients) when the ArithmeticContext is FLOATING_POINT.
+
+	//Constants
+	private static final double EPSILON = Math.ulp(1.0); //2^-52
+	private static final int DIRECT_LENGTH = 64; //Below this many coefficients in the shorter operand, multiply(double[]) multiplies directly
+
+	private FftMultiplier() {
+		//Static helper class; never instantiated
+	}
+
+	static double errorBound(long[] a, long[] b) {
+		//Conservative a-priori estimate of the absolute error of any product coefficient,
+		//before the final rounding to the nearest integer.
+		//convolve() squares the packed signal a + ib, so the error follows the magnitude of (a + ib)^2, which
+		//grows with (max|a| + max|b|)^2 and not with max|a| * max|b|: unbalanced operands get a much larger bound
+		int n = transformLength(a.length + b.length - 1);
+		int logN = Integer.numberOfTrailingZeros(n);
+		double magnitude = maxAbs(a) + maxAbs(b);
+		return magnitude * magnitude * Math.max(a.length, b.length) * (3 * logN + 3) * EPSILON;
+	}
+
+	static long[] multiply(long[] a, long[] b) {
+		//Returns the product of a and b, each coefficient rounded to the nearest long.
+		int resultLength = a.length + b.length - 1;
+		int n = transformLength(resultLength);
+
+		double[] re = new double[n];
+		double[] im = new double[n];
+		for(int i = 0; i < a.length; i++) re[i] = a[i];
+		for(int i = 0; i < b.length; i++) im[i] = b[i];
+		convolve(re, im);
+
+		long[] result = new long[resultLength];
+		for(int i = 0; i < resultLength; i++) result[i] = Math.round(im[i] / 2);
+		return result;
+	}
+
+	static double[] multiply(double[] a, double[] b) {
+		//Returns the product of a and b, for floating-point coefficients; the error grows with the largest coefficients.
+		//Short operands are multiplied directly, which is both faster and exact up to the double rounding
+		int resultLength = a.length + b.length - 1;
+		if(Math.min(a.length, b.length) < DIRECT_LENGTH) {
+			double[] result = new double[resultLength];
+			for(int i = 0; i < a.length; i++) {
+				for(int j = 0; j < b.length; j++) result[i + j] += a[i] * b[j];
+			}
+			return result;
+		}
+
+		int n = transformLength(resultLength);
+		double[] re = Arrays.copyOf(a, n);
+		double[] im = Arrays.copyOf(b, n);
+		convolve(re, im);
+
+		double[] result = new double[resultLength];
+		for(int i = 0; i < resultLength; i++) result[i] = im[i] / 2;
+		return result;
+	}
+
+	private static void convolve(double[] re, double[] im) {
+		//Both operands are packed into a single complex sequence (a + ib), whose square holds 2iab
+		int n = re.length;
+		transform(re, im, false);
+		for(int i = 0; i < n; i++) { //(x + iy)^2 = x^2 - y^2 + 2ixy
+			double x = re[i], y = im[i];
+			re[i] = x * x - y * y;
+			im[i] = 2 * x * y;
+		}
+		transform(re, im, true);
+	}
+
+	//Transforms
+	private static void transform(double[] re, double[] im, boolean invert) {
+		//In-place iterative radix-2 transform; the inverse also divides by n
+		int n = re.length;
+
+		for(int i = 1, j = 0; i < n; i++) { //Bit-reversal permutation
+			int bit = n >> 1;
+			for(; 0 != (j & bit); bit >>= 1) j ^= bit;
+			j ^= bit;
+			if(i < j) {
+				double t = re[i]; re[i] = re[j]; re[j] = t;
+				t = im[i]; im[i] = im[j]; im[j] = t;
+			}
+		}
+
+		//Twiddle factors for the full length; level "length" uses every (n / length)-th of them.
+		//Each one is computed directly rather than by repeated multiplication, to keep the error low
+		double[] cos = new double[n / 2 + 1];
+		double[] sin = new double[n / 2 + 1];
+		for(int k = 0; k < n / 2; k++) {
+			double angle = 2 * Math.PI * k / n * (invert ? 1 : -1);
+			cos[k] = Math.cos(angle);
+			sin[k] = Math.sin(angle);
+		}
+
+		for(int length = 2; length <= n; length <<= 1) {
+			int halfLength = length / 2;
+			int step = n / length;
+			for(int start = 0; start < n; start += length) {
+				for(int k = 0; k < halfLength; k++) {
+					double wr = cos[k * step], wi = sin[k * step];
+					int u = start + k, v = u + halfLength;
+					double vr = re[v] * wr - im[v] * wi;
+					double vi = re[v] * wi + im[v] * wr;
+					re[v] = re[u] - vr;
+					im[v] = im[u] - vi;
+					re[u] += vr;
+					im[u] += vi;
+				}
+			}
+		}
+
+		if(invert) {
+			for(int i = 0; i < n; i++) { re[i] /= n; im[i] /= n; }
+		}
+	}
+
+	//Auxiliary methods
+	private static int transformLength(int resultLength) {
+		return (1 == resultLength) ? 1 : Integer.highestOneBit(resultLength - 1) << 1;
+	}
+
+	private static double maxAbs(long[] a) {
+		double max = 0;
+		for(long x : a) max = Math.max(max, Math.abs((double) x));
+		return max;
+	}
+}
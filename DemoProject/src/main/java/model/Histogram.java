@@ -0,0 +1,93 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Histogram {
+	//Log-linear histogram of non-negative values, in the style of HdrHistogram: every power of 2 is split into
+	//SUB_BUCKETS buckets of equal width, so every value is known to within 1/SUB_BUCKETS of itself (12.5%),
+	//over the whole range of long, with a fixed array of BUCKETS counters and no allocation while recording.
+	//Recording is a few atomic additions, without locks, so any number of threads can record at once;
+	//the statistics read while they do are a consistent enough approximation.
+
+	//Constants
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS; //Up to Long.MAX_VALUE
+
+	//Attributes
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	//Recording
+	public void record(long value) {
+		//Negative values count as 0
+		value = Math.max(value, 0);
+		counts.incrementAndGet(index(value));
+		count.increment();
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	public void reset() {
+		//Not atomic: values recorded during a reset may be partially kept
+		for(int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+		count.reset();
+		sum.reset();
+		max.reset();
+	}
+
+	//Getters
+	public long getCount() { return count.sum(); }
+	public long getMax() { return max.get(); }
+
+	public double getMean() {
+		long n = count.sum();
+		return (0 == n) ? 0 : (double) sum.sum() / n;
+	}
+
+	public long getValueAtPercentile(double percentile) {
+		//The highest value of the bucket holding the given percentile (0 to 100), at most getMax(); 0 if empty
+		long[] snapshot = new long[BUCKETS];
+		long total = 0;
+		for(int i = 0; i < BUCKETS; i++) total += snapshot[i] = counts.get(i);
+		if(0 == total) return 0;
+
+		long rank = Math.max((long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * total), 1);
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if(seen >= rank) return Math.min(highestValue(i), getMax());
+		}
+		return getMax();
+	}
+
+	public String toString() {
+		return "count " + getCount() + ", mean " + Math.round(getMean()) + ", p50 " + getValueAtPercentile(50)
+				+ ", p99 " + getValueAtPercentile(99) + ", max " + getMax();
+	}
+
+	//Auxiliary methods
+	static int index(long value) {
+		//Package-private: the bucket of a non-negative value. Values below SUB_BUCKETS have a bucket each;
+		//above, the exponent picks the power of 2, and the SUB_BITS bits below the leading one the bucket within it
+		if(value < SUB_BUCKETS) return (int) value;
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + (int) ((value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1));
+	}
+
+	static long lowestValue(int index) {
+		//Package-private: the lowest value of a bucket
+		if(index < SUB_BUCKETS) return index;
+		int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+		return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BITS);
+	}
+
+	static long highestValue(int index) {
+		//Package-private: the highest value of a bucket
+		return (BUCKETS - 1 == index) ? Long.MAX_VALUE : lowestValue(index + 1) - 1;
+	}
+}
@@ -0,0 +1,315 @@
+package model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class ImmutablePolynomial {
+	//Polynomial that never changes after construction, so that it can be shared between threads without copies.
+	//The terms are parallel arrays sorted by power, without 0 coefficients, which never leave the object.
+	//Every field that makes up the value is final, so an instance is safely published to any thread that gets
+	//a reference to it, even through a data race. The hash code is cached in a plain field, like String does:
+	//two threads computing it at the same time both store the same value.
+	//Coefficients are BigDecimals, which are immutable, with the exact Rational alongside when they have no
+	//finite decimal expansion, as in Monomial. Operations that keep the powers, such as negate() and scale(),
+	//share the powers array with their operand instead of copying it.
+
+	//Constants
+	public static final ImmutablePolynomial ZERO = new ImmutablePolynomial(new int[0], new BigDecimal[0], null);
+
+	//Attributes
+	private final int[] powers; //Strictly increasing
+	private final BigDecimal[] coeffs; //Non-zero; only an approximation where fractions has an entry
+	private final Rational[] fractions; //Exact coefficients without a finite decimal expansion, null elsewhere; null if there are none
+	private final int degree; //-1 for the 0 polynomial
+	private int hash; //Cached hashCode(), 0 until computed
+
+	//Constructors
+	public ImmutablePolynomial(String coefficients) {
+		//Same format as the Polynomial(String) constructor, such as "0 17 -3 0 5" for 5x^4 - 3x^2 + 17x
+		this(new Polynomial(coefficients));
+	}
+
+	public ImmutablePolynomial(Polynomial p) {
+		//Copies the terms of p, which may keep changing afterwards
+		this(copyTerms(p.getTerms()));
+	}
+
+	private ImmutablePolynomial(Builder terms) {
+		//The arrays are only trimmed if some terms added up to 0
+		this((terms.size == terms.powers.length) ? terms.powers : Arrays.copyOf(terms.powers, terms.size),
+				(terms.size == terms.coeffs.length) ? terms.coeffs : Arrays.copyOf(terms.coeffs, terms.size),
+				(null == terms.fractions || terms.size == terms.fractions.length) ? terms.fractions : Arrays.copyOf(terms.fractions, terms.size));
+	}
+
+	private ImmutablePolynomial(int[] powers, BigDecimal[] coeffs, Rational[] fractions) {
+		//Takes ownership of the arrays, which must hold the terms as described above and have the same length
+		this.powers = powers;
+		this.coeffs = coeffs;
+		this.fractions = fractions;
+		this.degree = (0 == powers.length) ? -1 : powers[powers.length - 1];
+	}
+
+	//Getters
+	public int getDegree() {
+		//Returns the highest power with a non-zero coefficient, or -1 for the 0 polynomial
+		return this.degree;
+	}
+
+	public int getTermCount() { return this.powers.length; }
+
+	public int getPowerAt(int index) {
+		//Power of the index-th term, counting from the lowest power
+		return this.powers[index];
+	}
+
+	public BigDecimal getCoeffAt(int index) {
+		//Coefficient of the index-th term, rounded like Monomial.getCoeff() if it is a fraction
+		return this.coeffs[index];
+	}
+
+	public Rational getRationalAt(int index) {
+		//Exact coefficient of the index-th term
+		Rational fraction = fractionAt(index);
+		return (null != fraction) ? fraction : Rational.valueOf(this.coeffs[index]);
+	}
+
+	public BigDecimal getCoeff(int power) {
+		//Returns the coefficient of x^power, which is 0 for powers without a term
+		int index = Arrays.binarySearch(this.powers, power);
+		return (index < 0) ? BigDecimal.ZERO : this.coeffs[index];
+	}
+
+	Rational fractionAt(int index) {
+		//Package-private: the exact coefficient of the index-th term if it is a fraction, otherwise null
+		return (null == this.fractions) ? null : this.fractions[index];
+	}
+
+	//Conversions
+	public Polynomial toPolynomial() {
+		//Returns a mutable copy
+		List<Monomial> values = new ArrayList<Monomial>(this.powers.length);
+		for(int i = 0; i < this.powers.length; i++) {
+			Rational fraction = fractionAt(i);
+			values.add((null != fraction) ? new Monomial(fraction, this.powers[i]) : new Monomial(this.coeffs[i], this.powers[i]));
+		}
+		return new Polynomial(values);
+	}
+
+	//Evaluation
+	public double evaluate(double x) {
+		//Horner's method from the highest power down, raising x to the gap between consecutive powers
+		double result = 0;
+		for(int i = this.powers.length - 1; i >= 0; i--) {
+			int gap = this.powers[i] - ((i > 0) ? this.powers[i - 1] : 0);
+			result = (result + this.coeffs[i].doubleValue()) * ((1 == gap) ? x : Math.pow(x, gap));
+		}
+		return result;
+	}
+
+	//equals, hashCode & toString
+	public boolean equals(Object o) {
+		//Equal terms, comparing coefficients by value, so 2.0 equals 2
+		if(this == o) return true;
+		if(!(o instanceof ImmutablePolynomial)) return false;
+		ImmutablePolynomial p = (ImmutablePolynomial) o;
+		if(this.degree != p.degree || !Arrays.equals(this.powers, p.powers)) return false;
+		for(int i = 0; i < this.powers.length; i++) {
+			Rational fraction = fractionAt(i);
+			if(null != fraction ? !fraction.equals(p.fractionAt(i)) : null != p.fractionAt(i) || 0 != this.coeffs[i].compareTo(p.coeffs[i])) return false;
+		}
+		return true;
+	}
+
+	public boolean isIdentical(ImmutablePolynomial p) {
+		//Stricter than equals: the decimal coefficients must also have the same scales, so 2.0 isn't identical to 2.
+		//Where the scale of an operand decides the scale of a result, such as when dividing, only identical
+		//operands give the same result. Identical polynomials are equal, so they have the same hashCode
+		if(this == p) return true;
+		if(!Arrays.equals(this.powers, p.powers)) return false;
+		for(int i = 0; i < this.powers.length; i++) {
+			Rational fraction = fractionAt(i);
+			if(null != fraction ? !fraction.equals(p.fractionAt(i)) : null != p.fractionAt(i) || !this.coeffs[i].equals(p.coeffs[i])) return false;
+		}
+		return true;
+	}
+
+	public int hashCode() {
+		int h = this.hash;
+		if(0 == h) {
+			for(int i = 0; i < this.powers.length; i++) {
+				Rational fraction = fractionAt(i);
+				h = 31 * h + this.powers[i];
+				h = 31 * h + ((null != fraction) ? fraction.hashCode() : this.coeffs[i].stripTrailingZeros().hashCode());
+			}
+			this.hash = h;
+		}
+		return h;
+	}
+
+	public String toString() {
+		//Same format as Polynomial.toString
+		return PolynomialFormatter.format(this);
+	}
+
+	//Arithmetic methods
+	public ImmutablePolynomial add(ImmutablePolynomial p) {
+		long start = Metrics.start();
+		ImmutablePolynomial result = merge(this, p, false);
+		Metrics.record(Metrics.Operation.ADD, start, result, this, p);
+		return result;
+	}
+
+	public ImmutablePolynomial subtract(ImmutablePolynomial p) {
+		long start = Metrics.start();
+		ImmutablePolynomial result = merge(this, p, true);
+		Metrics.record(Metrics.Operation.SUBTRACT, start, result, this, p);
+		return result;
+	}
+
+	public ImmutablePolynomial negate() {
+		//Shares the powers array with this polynomial
+		BigDecimal[] result = new BigDecimal[this.coeffs.length];
+		for(int i = 0; i < result.length; i++) result[i] = this.coeffs[i].negate();
+		Rational[] negatedFractions = null;
+		if(null != this.fractions) {
+			negatedFractions = new Rational[this.fractions.length];
+			for(int i = 0; i < negatedFractions.length; i++) {
+				if(null != this.fractions[i]) negatedFractions[i] = this.fractions[i].negate();
+			}
+		}
+		return new ImmutablePolynomial(this.powers, result, negatedFractions);
+	}
+
+	public ImmutablePolynomial scale(BigDecimal factor) {
+		//Multiplies every coefficient by factor, sharing the powers array with this polynomial.
+		//Scaling by 1 returns this polynomial itself, and scaling by 0 returns ZERO
+		if(0 == factor.signum()) return ZERO;
+		if(0 == factor.compareTo(BigDecimal.ONE)) return this;
+		Builder result = new Builder(this.powers.length);
+		for(int i = 0; i < this.powers.length; i++) {
+			Rational fraction = fractionAt(i);
+			if(null != fraction) result.add(this.powers[i], fraction.multiply(Rational.valueOf(factor)));
+			else result.add(this.powers[i], this.coeffs[i].multiply(factor));
+		}
+		return new ImmutablePolynomial(this.powers, result.coeffs, result.fractions);
+	}
+
+	public ImmutablePolynomial multiply(ImmutablePolynomial p) {
+		return multiply(p, ArithmeticContext.getDefault());
+	}
+
+	public ImmutablePolynomial multiply(ImmutablePolynomial p, ArithmeticContext context) {
+		//Products go through the multiplication algorithms of Polynomial, on copies of both operands
+		return new ImmutablePolynomial(this.toPolynomial().multiply(p.toPolynomial(), context));
+	}
+
+	public ImmutablePolynomial derivate() {
+		//The constant term, if any, is dropped
+		long start = Metrics.start();
+		int first = (this.powers.length > 0 && 0 == this.powers[0]) ? 1 : 0;
+		Builder result = new Builder(this.powers.length - first);
+		for(int i = first; i < this.powers.length; i++) {
+			Rational fraction = fractionAt(i);
+			if(null != fraction) result.add(this.powers[i] - 1, fraction.multiply(Rational.valueOf(this.powers[i])));
+			else result.add(this.powers[i] - 1, this.coeffs[i].multiply(BigDecimal.valueOf(this.powers[i])));
+		}
+		ImmutablePolynomial derivative = result.build();
+		Metrics.record(Metrics.Operation.DERIVATE, start, derivative, this, null);
+		return derivative;
+	}
+
+	//Auxiliary methods
+	private static Builder copyTerms(List<Monomial> terms) {
+		Builder result = new Builder(terms.size());
+		for(Monomial mon : terms) {
+			if(mon.isFraction()) result.add(mon.getPower(), mon.getRational());
+			else result.add(mon.getPower(), mon.getCoeff());
+		}
+		return result;
+	}
+
+	private static ImmutablePolynomial merge(ImmutablePolynomial a, ImmutablePolynomial b, boolean negateB) {
+		//Merges the two sorted term arrays, adding (or subtracting) the coefficients of equal powers.
+		//A sum with the 0 polynomial is the other operand itself
+		if(0 == b.powers.length) return a;
+		if(0 == a.powers.length) return negateB ? b.negate() : b;
+
+		Builder result = new Builder(a.powers.length + b.powers.length);
+		int i = 0;
+		int j = 0;
+		while(i < a.powers.length || j < b.powers.length) {
+			if(j >= b.powers.length || (i < a.powers.length && a.powers[i] < b.powers[j])) {
+				result.add(a.powers[i], a, i);
+				i++;
+			}
+			else if(i >= a.powers.length || b.powers[j] < a.powers[i]) {
+				if(negateB) {
+					Rational fraction = b.fractionAt(j);
+					if(null != fraction) result.add(b.powers[j], fraction.negate());
+					else result.add(b.powers[j], b.coeffs[j].negate());
+				}
+				else result.add(b.powers[j], b, j);
+				j++;
+			}
+			else {
+				if(null != a.fractionAt(i) || null != b.fractionAt(j)) {
+					result.add(a.powers[i], negateB ? a.getRationalAt(i).subtract(b.getRationalAt(j)) : a.getRationalAt(i).add(b.getRationalAt(j)));
+				}
+				else result.add(a.powers[i], negateB ? a.coeffs[i].subtract(b.coeffs[j]) : a.coeffs[i].add(b.coeffs[j]));
+				i++;
+				j++;
+			}
+		}
+		return result.build();
+	}
+
+	private static final class Builder {
+		//Terms appended in increasing order of power, skipping 0 coefficients; fractions is only allocated for the first one
+		private final int[] powers;
+		private final BigDecimal[] coeffs;
+		private Rational[] fractions;
+		private int size;
+
+		private Builder(int capacity) {
+			this.powers = new int[capacity];
+			this.coeffs = new BigDecimal[capacity];
+		}
+
+		private void add(int power, BigDecimal coeff) {
+			if(0 == coeff.signum()) return;
+			powers[size] = power;
+			coeffs[size++] = coeff;
+		}
+
+		private void add(int power, Rational coeff) {
+			//Stored as a BigDecimal if it has a finite decimal expansion, and as a reduced fraction otherwise
+			BigDecimal exact = coeff.toExactDecimal();
+			if(null != exact) {
+				add(power, exact);
+				return;
+			}
+			if(null == fractions) fractions = new Rational[powers.length];
+			Monomial approximation = new Monomial(coeff, power); //Reduces and rounds the fraction like every Monomial
+			fractions[size] = approximation.getRational();
+			powers[size] = power;
+			coeffs[size++] = approximation.getCoeff();
+		}
+
+		private void add(int power, ImmutablePolynomial p, int index) {
+			//Copies a term of p, whose coefficient is already in its final form
+			Rational fraction = p.fractionAt(index);
+			if(null != fraction) {
+				if(null == fractions) fractions = new Rational[powers.length];
+				fractions[size] = fraction;
+			}
+			powers[size] = power;
+			coeffs[size++] = p.coeffs[index];
+		}
+
+		private ImmutablePolynomial build() {
+			return (0 == size) ? ZERO : new ImmutablePolynomial(this);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package model;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public final class Metrics {
+	//Instrumentation of the main Polynomial operations: parsing, formatting, and the arithmetic methods that return
+	//a new Polynomial or ImmutablePolynomial (the in-place ones, which are the inner loops of PolyExpr, are left alone).
+	//Every operation
+	//records its latency and the size of its result in the OperationMetrics of its kind, with lock-free counters
+	//and histograms, so instrumented threads never wait for each other.
+	//The metrics are off by default, or on if the polynomial.metrics system property is true; they can be
+	//switched at any time with setEnabled. Off, an operation costs a single read of the flag more.
+	//On, they are also registered as JMX MBeans (see OperationMetricsMXBean), and dump() describes them as text.
+	//
+	//An instrumented operation looks like:
+	//  long start = Metrics.start();
+	//  ... compute result ...
+	//  Metrics.record(Metrics.Operation.ADD, start, result, this.values, p.values);
+
+	//Constants
+	public static final String PROPERTY = "polynomial.metrics";
+	public static final String DOMAIN = "model";
+
+	//Types
+	public enum Operation { PARSE, FORMAT, ADD, SUBTRACT, MULTIPLY, DIVIDE, DERIVATE, INTEGRATE }
+
+	//Attributes
+	private static final OperationMetrics[] METRICS = new OperationMetrics[Operation.values().length];
+	private static volatile boolean enabled;
+	private static boolean registered; //Whether the MBeans were registered; guarded by the class
+
+	static {
+		for(Operation operation : Operation.values()) METRICS[operation.ordinal()] = new OperationMetrics(operation.name().toLowerCase(Locale.ROOT));
+		if(Boolean.getBoolean(PROPERTY)) setEnabled(true);
+	}
+
+	//Constructors
+	private Metrics() {}
+
+	//Getters & setters
+	public static boolean isEnabled() { return enabled; }
+
+	public static synchronized void setEnabled(boolean enabled) {
+		//Enabling the metrics for the first time registers their MBeans with the platform MBeanServer
+		if(enabled && !registered) {
+			registerMBeans();
+			registered = true;
+		}
+		Metrics.enabled = enabled;
+	}
+
+	public static OperationMetrics get(Operation operation) {
+		return METRICS[operation.ordinal()];
+	}
+
+	public static void reset() {
+		for(OperationMetrics metrics : METRICS) metrics.reset();
+	}
+
+	public static String dump() {
+		//One line per operation that was recorded, such as
+		//multiply: count 12, mean 48210, p50 40959, p99 262143, max 250108 ns; terms mean 201, max 401; max degree 400, max scale 2 (+0)
+		StringBuilder out = new StringBuilder(256);
+		for(OperationMetrics metrics : METRICS) {
+			if(metrics.getCount() > 0) out.append(metrics).append('\n');
+		}
+		return out.toString();
+	}
+
+	//Recording
+	static long start() {
+		//Package-private: the start time of an operation, or 0 if the metrics are off
+		return enabled ? System.nanoTime() : 0;
+	}
+
+	static void record(Operation operation, long start, List<Monomial> result, List<Monomial> operand1, List<Monomial> operand2) {
+		//Package-private: records an operation started at start (if it isn't 0); the operands are null where missing
+		if(0 == start) return;
+		long nanos = System.nanoTime() - start;
+		int operandScale = Math.max(scale(operand1), scale(operand2));
+		int scale = scale(result);
+		int degree = result.isEmpty() ? -1 : result.get(result.size() - 1).getPower();
+		get(operation).record(nanos, result.size(), degree, scale, scale - operandScale);
+	}
+
+	static void record(Operation operation, long start, ImmutablePolynomial result, ImmutablePolynomial operand1, ImmutablePolynomial operand2) {
+		//Package-private: the same for an operation on ImmutablePolynomials; formatting one has no operands
+		if(0 == start) return;
+		long nanos = System.nanoTime() - start;
+		int operandScale = Math.max(scale(operand1), scale(operand2));
+		int scale = scale(result);
+		get(operation).record(nanos, result.getTermCount(), result.getDegree(), scale, scale - operandScale);
+	}
+
+	static void addIterations(long count) {
+		//Package-private: iterations of the division loops, counted for DIVIDE
+		if(enabled) METRICS[Operation.DIVIDE.ordinal()].addIterations(count);
+	}
+
+	//Auxiliary methods
+	private static int scale(List<Monomial> terms) {
+		//The largest decimal scale among the terms, leaving out fractions, whose decimal value is only an approximation
+		if(null == terms) return 0;
+		int scale = 0;
+		for(int i = 0; i < terms.size(); i++) {
+			Monomial m = terms.get(i);
+			if(!m.isFraction()) scale = Math.max(scale, m.getCoeff().scale());
+		}
+		return scale;
+	}
+
+	private static int scale(ImmutablePolynomial p) {
+		if(null == p) return 0;
+		int scale = 0;
+		for(int i = 0; i < p.getTermCount(); i++) {
+			if(null == p.fractionAt(i)) scale = Math.max(scale, p.getCoeffAt(i).scale());
+		}
+		return scale;
+	}
+
+	private static void registerMBeans() {
+		//A failure to register (such as a name already taken by another class loader) only leaves the MBeans out
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for(OperationMetrics metrics : METRICS) {
+			try {
+				ObjectName name = new ObjectName(DOMAIN + ":type=Metrics,operation=" + metrics.getOperation());
+				if(!server.isRegistered(name)) server.registerMBean(metrics, name);
+			}
+			catch(JMException e) {
+				//Left out of JMX; dump() still has it
+			}
+		}
+	}
+}
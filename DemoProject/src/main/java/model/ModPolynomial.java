@@ -0,0 +1,453 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ModPolynomial {
+	//Immutable polynomial over GF(p), the integers modulo a prime p below 2^31, with the coefficients
+	//(lowest power first, each in [0, p)) stored in a long[] without trailing zeros.
+	//Products of two coefficients are below 2^62, so they fit in a long, and are reduced through Barrett reduction:
+	//the quotient by p is estimated with a precomputed 1 / p in double precision, which is off by at most 1
+	//for values below p^2, and then corrected with one comparison. That avoids the long division of %.
+	//Long products go through NttMultiplier, three transforms combined modulo p (one, if p is an NTT prime),
+	//and long divisions through Newton iteration on the reversed divisor, like in DivisionEngine.
+	//Polynomials with different moduli can't be mixed: their operations throw an IllegalArgumentException.
+	//reduce() and lift() convert from and to Polynomial.
+
+	//Constants
+	private static final int SCHOOLBOOK_THRESHOLD = 64; //Shorter operands multiply without transforms
+	private static final int NEWTON_THRESHOLD = 128; //Divisions with shorter divisors or quotients use long division
+	private static final int CHUNK = 1 << 21; //Operand slice length for products too long for a single transform
+	private static final int HALF_GCD_THRESHOLD = 4096; //Shorter remainder sequences run the plain Euclidean algorithm
+
+	//Attributes
+	private final long modulus;
+	private final double reciprocal; //1.0 / modulus, for the Barrett quotient estimates
+	private final long[] coeffs;
+
+	//Constructors
+	public ModPolynomial(long modulus, long... coeffs) {
+		//Creates the polynomial with the given coefficients, from the lowest power up, reduced modulo modulus.
+		//Throws an IllegalArgumentException if modulus is not a prime below 2^31
+		if(modulus < 2 || modulus > Integer.MAX_VALUE || !BigInteger.valueOf(modulus).isProbablePrime(40)) {
+			throw new IllegalArgumentException(modulus + " is not a prime below 2^31");
+		}
+		this.modulus = modulus;
+		this.reciprocal = 1.0 / modulus;
+		long[] reduced = new long[coeffs.length];
+		for(int i = 0; i < coeffs.length; i++) reduced[i] = Math.floorMod(coeffs[i], modulus);
+		this.coeffs = trim(reduced);
+	}
+
+	private ModPolynomial(ModPolynomial field, long[] coeffs) {
+		//Takes ownership of coeffs, which must be reduced modulo the modulus of field
+		this.modulus = field.modulus;
+		this.reciprocal = field.reciprocal;
+		this.coeffs = trim(coeffs);
+	}
+
+	public static ModPolynomial reduce(Polynomial p, long modulus) {
+		//Returns p modulo modulus. Decimal and fraction coefficients a / b become a * b^-1;
+		//throws an ArithmeticException if some denominator is a multiple of modulus
+		ModPolynomial field = new ModPolynomial(modulus);
+		List<Monomial> terms = p.getTerms();
+		long[] coeffs = new long[terms.isEmpty() ? 0 : terms.get(terms.size() - 1).getPower() + 1];
+		BigInteger m = BigInteger.valueOf(modulus);
+
+		for(Monomial mon : terms) {
+			Rational c = mon.getRational();
+			long numerator = c.getNumerator().mod(m).longValue();
+			long denominator = c.getDenominator().mod(m).longValue();
+			if(0 == denominator) throw new ArithmeticException(c + " has no value modulo " + modulus);
+			coeffs[mon.getPower()] = field.multiplyMod(numerator, field.inverse(denominator));
+		}
+		return new ModPolynomial(field, coeffs);
+	}
+
+	public Polynomial lift() {
+		//Returns this polynomial with integer coefficients, each in [0, p)
+		return lift(false);
+	}
+
+	public Polynomial liftSymmetric() {
+		//Returns this polynomial with integer coefficients, each in (-p/2, p/2]
+		return lift(true);
+	}
+
+	private Polynomial lift(boolean symmetric) {
+		List<Monomial> values = new ArrayList<Monomial>();
+		for(int i = 0; i < coeffs.length; i++) {
+			long c = coeffs[i];
+			if(0 == c) continue;
+			if(symmetric && c > modulus / 2) c -= modulus;
+			values.add(new Monomial(BigDecimal.valueOf(c), i));
+		}
+		return new Polynomial(values);
+	}
+
+	//Getters & setters
+	public long getModulus() { return this.modulus; }
+	public int getDegree() { return this.coeffs.length - 1; } //-1 for the 0 polynomial
+
+	public long getCoeff(int power) {
+		//Coefficient of the given power, in [0, p)
+		return (power < coeffs.length) ? coeffs[power] : 0;
+	}
+
+	public long getLeadingCoeff() {
+		return (0 == coeffs.length) ? 0 : coeffs[coeffs.length - 1];
+	}
+
+	//toString
+	public String toString() {
+		return PolynomialFormatter.format(this);
+	}
+
+	//Arithmetic methods
+	public ModPolynomial add(ModPolynomial p) {
+		return addOrSubtract(p, false);
+	}
+
+	public ModPolynomial subtract(ModPolynomial p) {
+		return addOrSubtract(p, true);
+	}
+
+	public ModPolynomial negate() {
+		long[] result = new long[coeffs.length];
+		for(int i = 0; i < coeffs.length; i++) result[i] = (0 == coeffs[i]) ? 0 : modulus - coeffs[i];
+		return new ModPolynomial(this, result);
+	}
+
+	public ModPolynomial multiply(long scalar) {
+		long factor = Math.floorMod(scalar, modulus);
+		long[] result = new long[coeffs.length];
+		for(int i = 0; i < coeffs.length; i++) result[i] = multiplyMod(coeffs[i], factor);
+		return new ModPolynomial(this, result);
+	}
+
+	public ModPolynomial multiply(ModPolynomial p) {
+		checkModulus(p);
+		return new ModPolynomial(this, multiply(this.coeffs, p.coeffs));
+	}
+
+	public ModPolynomial derivate() {
+		//Note that x^p derivates to p x^(p - 1) = 0
+		if(coeffs.length <= 1) return new ModPolynomial(this, new long[0]);
+		long[] result = new long[coeffs.length - 1];
+		for(int i = 1; i < coeffs.length; i++) result[i - 1] = multiplyMod(coeffs[i], i % modulus);
+		return new ModPolynomial(this, result);
+	}
+
+	public ModPolynomial[] divide(ModPolynomial p) {
+		//Returns {quotient, remainder}; the division is always exact, since every non-zero coefficient is invertible.
+		//Throws an ArithmeticException when dividing by the 0 polynomial
+		checkModulus(p);
+		int m = p.getDegree();
+		if(m < 0) throw new ArithmeticException("Division by the 0 polynomial");
+		int n = this.getDegree();
+		if(n < m) return new ModPolynomial[] {new ModPolynomial(this, new long[0]), this};
+
+		int length = n - m + 1; //Number of quotient terms
+		if(Math.min(m, length) < NEWTON_THRESHOLD) return longDivision(p);
+
+		//rev(q) = rev(this) / rev(p) mod x^length
+		long[] inverse = inverseSeries(reverse(p.coeffs, m + 1), length);
+		long[] reversed = multiply(Arrays.copyOf(reverse(this.coeffs, n + 1), length), inverse);
+		long[] quotient = reverse(Arrays.copyOf(reversed, length), length);
+
+		long[] product = multiply(quotient, p.coeffs);
+		long[] remainder = new long[m];
+		for(int i = 0; i < m; i++) remainder[i] = subtractMod(coeffs[i], product[i]);
+		return new ModPolynomial[] {new ModPolynomial(this, quotient), new ModPolynomial(this, remainder)};
+	}
+
+	public ModPolynomial inverseSeries(int length) {
+		//Returns the g with this * g = 1 mod x^length, through Newton iteration.
+		//Throws an ArithmeticException if the constant term is 0
+		return new ModPolynomial(this, inverseSeries(this.coeffs, length));
+	}
+
+	public ModPolynomial inverse(ModPolynomial m) {
+		//Returns the g of degree below deg(m) with this * g = 1 mod m, through the extended Euclidean algorithm.
+		//Throws an ArithmeticException if this and m have a common factor
+		checkModulus(m);
+		if(m.getDegree() < 1) throw new ArithmeticException("The modulus must have a positive degree");
+		ModPolynomial[] euclid = extendedGcd(this.divide(m)[1], m);
+		if(0 != euclid[0].getDegree()) throw new ArithmeticException(this + " is not invertible modulo " + m);
+		return euclid[1];
+	}
+
+	public ModPolynomial gcd(ModPolynomial p) {
+		//Returns the monic greatest common divisor of this and p, or 0 if both are 0.
+		//Short remainder sequences run the Euclidean algorithm in place; long ones are cut down through
+		//half-GCD steps, each of which computes the matrix of the first half of the remaining quotients
+		//from the top halves of the operands alone, in O(M(n) log n) instead of O(n^2)
+		checkModulus(p);
+		ModPolynomial a = this, b = p;
+		if(a.getDegree() < b.getDegree()) {
+			a = p;
+			b = this;
+		}
+		if(b.getDegree() >= 0 && a.getDegree() == b.getDegree()) {
+			ModPolynomial r = a.divide(b)[1];
+			a = b;
+			b = r;
+		}
+		while(b.getDegree() >= 0 && a.getDegree() >= HALF_GCD_THRESHOLD) {
+			ModPolynomial[] pair = apply(halfGcd(a, b), a, b);
+			a = pair[0];
+			b = pair[1];
+			if(b.getDegree() < 0) break;
+			ModPolynomial r = a.divide(b)[1];
+			a = b;
+			b = r;
+		}
+		long[] g = euclid(a.coeffs, b.coeffs);
+		if(0 == g.length) return new ModPolynomial(this, g);
+		return new ModPolynomial(this, g).multiply(inverse(g[g.length - 1]));
+	}
+
+	//Auxiliary methods
+	private long[] euclid(long[] a, long[] b) {
+		//Last non-zero remainder of the Euclidean algorithm, computed in place on copies of a and b
+		a = a.clone();
+		b = b.clone();
+		int degreeA = a.length - 1, degreeB = b.length - 1;
+		if(degreeA < degreeB) {
+			long[] t = a;
+			a = b;
+			b = t;
+			int d = degreeA;
+			degreeA = degreeB;
+			degreeB = d;
+		}
+
+		while(degreeB >= 0) {
+			//a <- a mod b
+			long leadInverse = inverse(b[degreeB]);
+			for(int k = degreeA; k >= degreeB; k--) {
+				long q = multiplyMod(a[k], leadInverse);
+				if(0 == q) continue;
+				for(int j = 0, offset = k - degreeB; j < degreeB; j++) a[offset + j] = subtractMod(a[offset + j], multiplyMod(q, b[j]));
+				a[k] = 0;
+			}
+			degreeA = degreeB - 1;
+			while(degreeA >= 0 && 0 == a[degreeA]) degreeA--;
+
+			long[] t = a;
+			a = b;
+			b = t;
+			int d = degreeA;
+			degreeA = degreeB;
+			degreeB = d;
+		}
+		return Arrays.copyOf(a, degreeA + 1);
+	}
+
+	private ModPolynomial[] halfGcd(ModPolynomial a, ModPolynomial b) {
+		//For deg a > deg b, returns the matrix {m00, m01, m10, m11} of the Euclidean steps from (a, b) to the
+		//first pair of remainders (c, d) with deg d < m = ceil(deg a / 2) <= deg c, that is,
+		//c = m00 a + m01 b and d = m10 a + m11 b. Those steps only depend on the coefficients of the powers from m up,
+		//so the first half of them comes from a recursive call on a / x^m and b / x^m, and the rest from another
+		//on the shifted pair left after one more division
+		int m = (a.getDegree() + 1) / 2;
+		if(b.getDegree() < m) return identity();
+		if(a.getDegree() < HALF_GCD_THRESHOLD) return euclidSteps(a, b, m);
+
+		ModPolynomial[] matrix = halfGcd(a.shiftDown(m), b.shiftDown(m));
+		ModPolynomial[] pair = apply(matrix, a, b);
+		if(pair[1].getDegree() < m) return matrix;
+
+		ModPolynomial[] division = pair[0].divide(pair[1]);
+		matrix = step(division[0], matrix);
+		a = pair[1];
+		b = division[1];
+		if(b.getDegree() < m) return matrix;
+
+		int k = 2 * m - a.getDegree();
+		ModPolynomial[] rest = halfGcd(a.shiftDown(k), b.shiftDown(k));
+		return new ModPolynomial[] {
+				rest[0].multiply(matrix[0]).add(rest[1].multiply(matrix[2])), rest[0].multiply(matrix[1]).add(rest[1].multiply(matrix[3])),
+				rest[2].multiply(matrix[0]).add(rest[3].multiply(matrix[2])), rest[2].multiply(matrix[1]).add(rest[3].multiply(matrix[3]))};
+	}
+
+	private ModPolynomial[] euclidSteps(ModPolynomial a, ModPolynomial b, int m) {
+		//halfGcd for short operands, one division at a time
+		ModPolynomial[] matrix = identity();
+		while(b.getDegree() >= m) {
+			ModPolynomial[] division = a.divide(b);
+			matrix = step(division[0], matrix);
+			a = b;
+			b = division[1];
+		}
+		return matrix;
+	}
+
+	private ModPolynomial[] identity() {
+		ModPolynomial zero = new ModPolynomial(this, new long[0]);
+		ModPolynomial one = new ModPolynomial(this, new long[] {1});
+		return new ModPolynomial[] {one, zero, zero, one};
+	}
+
+	private static ModPolynomial[] step(ModPolynomial q, ModPolynomial[] matrix) {
+		//{{0, 1}, {1, -q}} * matrix, the matrix after one more division with quotient q
+		return new ModPolynomial[] {matrix[2], matrix[3], matrix[0].subtract(q.multiply(matrix[2])), matrix[1].subtract(q.multiply(matrix[3]))};
+	}
+
+	private static ModPolynomial[] apply(ModPolynomial[] matrix, ModPolynomial a, ModPolynomial b) {
+		return new ModPolynomial[] {matrix[0].multiply(a).add(matrix[1].multiply(b)), matrix[2].multiply(a).add(matrix[3].multiply(b))};
+	}
+
+	private ModPolynomial shiftDown(int k) {
+		//this / x^k, dropping the powers below k
+		return new ModPolynomial(this, (k >= coeffs.length) ? new long[0] : Arrays.copyOfRange(coeffs, k, coeffs.length));
+	}
+
+	private ModPolynomial[] extendedGcd(ModPolynomial a, ModPolynomial b) {
+		//Returns {g, s}, with g the monic gcd of a and b and s * a = g mod b
+		ModPolynomial zero = new ModPolynomial(this, new long[0]);
+		ModPolynomial r0 = a, r1 = b;
+		ModPolynomial s0 = new ModPolynomial(this, new long[] {1}), s1 = zero;
+		while(r1.getDegree() >= 0) {
+			ModPolynomial[] division = r0.divide(r1);
+			ModPolynomial s = s0.subtract(division[0].multiply(s1));
+			r0 = r1;
+			r1 = division[1];
+			s0 = s1;
+			s1 = s;
+		}
+		if(r0.getDegree() < 0) return new ModPolynomial[] {zero, zero};
+		long scale = inverse(r0.getLeadingCoeff());
+		return new ModPolynomial[] {r0.multiply(scale), s0.multiply(scale)};
+	}
+
+	private ModPolynomial addOrSubtract(ModPolynomial p, boolean negate) {
+		checkModulus(p);
+		long[] result = Arrays.copyOf(coeffs, Math.max(coeffs.length, p.coeffs.length));
+		for(int i = 0; i < p.coeffs.length; i++) {
+			result[i] = negate ? subtractMod(result[i], p.coeffs[i]) : addMod(result[i], p.coeffs[i]);
+		}
+		return new ModPolynomial(this, result);
+	}
+
+	private long[] multiply(long[] a, long[] b) {
+		//Product of reduced coefficient arrays, reduced
+		if(0 == a.length || 0 == b.length) return new long[0];
+		if(Math.min(a.length, b.length) < SCHOOLBOOK_THRESHOLD) return schoolbook(a, b);
+
+		long[] result = NttMultiplier.multiplyMod(a, b, modulus);
+		if(null != result) return result;
+
+		//Too long for a single transform: the sum of the products of CHUNK-long slices
+		result = new long[a.length + b.length - 1];
+		for(int i = 0; i < a.length; i += CHUNK) {
+			long[] sliceA = Arrays.copyOfRange(a, i, Math.min(i + CHUNK, a.length));
+			for(int j = 0; j < b.length; j += CHUNK) {
+				long[] product = NttMultiplier.multiplyMod(sliceA, Arrays.copyOfRange(b, j, Math.min(j + CHUNK, b.length)), modulus);
+				for(int k = 0; k < product.length; k++) result[i + j + k] = addMod(result[i + j + k], product[k]);
+			}
+		}
+		return result;
+	}
+
+	private long[] schoolbook(long[] a, long[] b) {
+		//Every product is below p^2 < 2^62, so sums are accumulated without reduction, subtracting p^2
+		//whenever they pass it, and reduced once per coefficient
+		long square = modulus * modulus;
+		long[] result = new long[a.length + b.length - 1];
+		for(int k = 0; k < result.length; k++) {
+			long sum = 0;
+			for(int i = Math.max(0, k - b.length + 1), last = Math.min(k, a.length - 1); i <= last; i++) {
+				sum += a[i] * b[k - i];
+				if(sum >= square) sum -= square;
+			}
+			result[k] = reduceMod(sum);
+		}
+		return result;
+	}
+
+	private ModPolynomial[] longDivision(ModPolynomial p) {
+		//Classical long division, for short divisors or quotients
+		int m = p.getDegree();
+		int n = this.getDegree();
+		long[] remainder = coeffs.clone();
+		long[] quotient = new long[n - m + 1];
+		long leadInverse = inverse(p.getLeadingCoeff());
+
+		for(int k = n - m; k >= 0; k--) {
+			long q = multiplyMod(remainder[k + m], leadInverse);
+			quotient[k] = q;
+			if(0 == q) continue;
+			for(int j = 0; j < m; j++) remainder[k + j] = subtractMod(remainder[k + j], multiplyMod(q, p.coeffs[j]));
+		}
+		return new ModPolynomial[] {new ModPolynomial(this, quotient), new ModPolynomial(this, Arrays.copyOf(remainder, m))};
+	}
+
+	private long[] inverseSeries(long[] f, int length) {
+		//g with f * g = 1 mod x^length, through the Newton iteration g <- g * (2 - f * g)
+		if(0 == f.length || 0 == f[0]) throw new ArithmeticException("The constant term is 0, so there is no inverse series");
+		long[] g = {inverse(f[0])};
+
+		for(int correct = 1; correct < length; ) {
+			correct = Math.min(2 * correct, length);
+			long[] error = multiply(Arrays.copyOf(f, Math.min(correct, f.length)), g);
+			long[] twoMinusError = new long[correct];
+			for(int i = 0; i < correct; i++) {
+				long e = (i < error.length) ? error[i] : 0;
+				twoMinusError[i] = subtractMod((0 == i) ? 2 % modulus : 0, e);
+			}
+			g = Arrays.copyOf(multiply(g, twoMinusError), correct);
+		}
+		return Arrays.copyOf(g, length);
+	}
+
+	private static long[] reverse(long[] a, int length) {
+		//The first length coefficients of x^(length - 1) * a(1/x)
+		long[] result = new long[length];
+		for(int i = 0; i < length && i < a.length; i++) result[length - 1 - i] = a[i];
+		return result;
+	}
+
+	private static long[] trim(long[] a) {
+		int length = a.length;
+		while(length > 0 && 0 == a[length - 1]) length--;
+		return (length == a.length) ? a : Arrays.copyOf(a, length);
+	}
+
+	private void checkModulus(ModPolynomial p) {
+		if(p.modulus != this.modulus) throw new IllegalArgumentException("Different moduli: " + this.modulus + " and " + p.modulus);
+	}
+
+	//Coefficient arithmetic, for values in [0, p)
+	private long addMod(long a, long b) {
+		long sum = a + b;
+		return (sum >= modulus) ? sum - modulus : sum;
+	}
+
+	private long subtractMod(long a, long b) {
+		long difference = a - b;
+		return (difference < 0) ? difference + modulus : difference;
+	}
+
+	private long multiplyMod(long a, long b) {
+		return reduceMod(a * b);
+	}
+
+	private long reduceMod(long x) {
+		//x in [0, p^2)
+		return NttMultiplier.reduce(x, modulus, reciprocal);
+	}
+
+	private long inverse(long a) {
+		//a^(p - 2) = a^-1 by Fermat's little theorem; a must not be 0
+		long result = 1;
+		for(long exponent = modulus - 2; exponent > 0; exponent >>= 1) {
+			if(1 == (exponent & 1)) result = multiplyMod(result, a);
+			a = multiplyMod(a, a);
+		}
+		return result;
+	}
+}
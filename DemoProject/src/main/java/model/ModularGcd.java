@@ -0,0 +1,194 @@
+package model;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class ModularGcd {
+	//Greatest common divisors of polynomials with integer coefficients (BigInteger arrays, lowest power first,
+	//without trailing zeros), through the small-primes modular algorithm: the gcd is computed modulo primes
+	//below 2^31 by ModPolynomial, scaled so that its leading coefficient is gcd(lc(a), lc(b)), and the images
+	//are combined through the Chinese remainder theorem until the combination stops changing and its
+	//primitive part divides both operands. The images only need as many primes as the coefficients of the
+	//result have digits, while the remainders of the Euclidean algorithm over the integers or the rationals
+	//grow exponentially with the degree.
+	//A prime whose image has a larger degree than the others is unlucky and skipped; a smaller degree means
+	//that all the previous primes were, so the combination starts over. An image of degree 0 proves that the
+	//operands are coprime, which is the usual answer and takes a single prime.
+
+	//Constants
+	private static final BigInteger[] ONE = {BigInteger.ONE};
+
+	private ModularGcd() {
+		//Static helper class; never instantiated
+	}
+
+	static BigInteger[] gcd(BigInteger[] a, BigInteger[] b) {
+		//Returns the gcd of the primitive parts of a and b, primitive and with a positive leading coefficient,
+		//or the 0 polynomial if both are 0
+		if(0 == a.length) return normalize(b);
+		if(0 == b.length) return normalize(a);
+		a = primitivePart(a);
+		b = primitivePart(b);
+		if(1 == a.length || 1 == b.length) return ONE;
+
+		BigInteger leading = a[a.length - 1].gcd(b[b.length - 1]);
+		int bound = Math.min(a.length, b.length) - 1; //Degree of the images kept so far, or above any possible one
+		BigInteger modulus = BigInteger.ONE; //Product of the primes combined in the image
+		BigInteger[] image = null; //gcd * leading / lc(gcd), modulo modulus, in the symmetric range
+
+		for(long p = Integer.MAX_VALUE; ; p = previousPrime(p)) {
+			long scale = leading.mod(BigInteger.valueOf(p)).longValue();
+			if(0 == scale) continue; //lc(gcd) divides leading, so it could vanish modulo p
+
+			ModPolynomial g = new ModPolynomial(p, reduce(a, p)).gcd(new ModPolynomial(p, reduce(b, p)));
+			int degree = g.getDegree();
+			if(0 == degree) return ONE;
+			if(degree > bound) continue;
+			g = g.multiply(scale);
+
+			if(degree < bound || null == image) {
+				bound = degree;
+				modulus = BigInteger.valueOf(p);
+				image = new BigInteger[degree + 1];
+				for(int i = 0; i <= degree; i++) image[i] = BigInteger.valueOf(symmetric(g.getCoeff(i), p));
+				continue;
+			}
+
+			if(!combine(image, modulus, g)) {
+				BigInteger[] candidate = normalize(image);
+				if(null != divide(a, candidate) && null != divide(b, candidate)) return candidate;
+			}
+			modulus = modulus.multiply(BigInteger.valueOf(p));
+		}
+	}
+
+	static List<BigInteger[]> squareFree(BigInteger[] f) {
+		//Yun's algorithm: for f primitive, with a positive leading coefficient and a positive degree,
+		//returns f1, ..., fk, square-free, pairwise coprime and normalized like gcd(), with f = f1 * f2^2 * ... * fk^k.
+		//With bi the product of the factors of multiplicity at least i, gcd(f, f') leaves b1 = f1 * ... * fk
+		//and c1 = f' / gcd(f, f'); then every fi = gcd(bi, ci - bi'), and b(i+1) = bi / fi, c(i+1) = (ci - bi') / fi.
+		//Every division is exact over the integers, since the divisors are primitive
+		List<BigInteger[]> factors = new ArrayList<BigInteger[]>();
+		BigInteger[] derivative = derivate(f);
+		BigInteger[] g = gcd(f, derivative);
+		BigInteger[] b = divide(f, g);
+		BigInteger[] d = subtract(divide(derivative, g), derivate(b));
+		while(b.length > 1) {
+			BigInteger[] factor = gcd(b, d);
+			factors.add(factor);
+			b = divide(b, factor);
+			d = subtract(divide(d, factor), derivate(b));
+		}
+		return factors;
+	}
+
+	static BigInteger[] divide(BigInteger[] a, BigInteger[] b) {
+		//Returns a / b if b divides a over the integers, otherwise null. b must not be 0
+		int m = b.length - 1;
+		if(0 == a.length) return a;
+		if(a.length < b.length) return null;
+		BigInteger lead = b[m];
+		if(0 != b[0].signum() && 0 != a[0].mod(b[0].abs()).signum()) return null; //Cheap test first: b(0) divides a(0)
+
+		BigInteger[] remainder = a.clone();
+		BigInteger[] quotient = new BigInteger[a.length - m];
+		for(int k = quotient.length - 1; k >= 0; k--) {
+			BigInteger[] division = remainder[k + m].divideAndRemainder(lead);
+			if(0 != division[1].signum()) return null;
+			BigInteger q = division[0];
+			quotient[k] = q;
+			if(0 == q.signum()) continue;
+			for(int j = 0; j < m; j++) remainder[k + j] = remainder[k + j].subtract(q.multiply(b[j]));
+		}
+		for(int j = 0; j < m; j++) {
+			if(0 != remainder[j].signum()) return null;
+		}
+		return quotient;
+	}
+
+	static BigInteger content(BigInteger[] a) {
+		//Returns the gcd of the coefficients, 0 for the 0 polynomial
+		BigInteger result = BigInteger.ZERO;
+		for(int i = a.length - 1; i >= 0 && !BigInteger.ONE.equals(result); i--) result = result.gcd(a[i]);
+		return result;
+	}
+
+	static BigInteger[] primitivePart(BigInteger[] a) {
+		//Returns a divided by its content, with the sign of a
+		BigInteger content = content(a);
+		if(0 == a.length || BigInteger.ONE.equals(content)) return a;
+		BigInteger[] result = new BigInteger[a.length];
+		for(int i = 0; i < a.length; i++) result[i] = a[i].divide(content);
+		return result;
+	}
+
+	static BigInteger[] derivate(BigInteger[] a) {
+		if(a.length <= 1) return new BigInteger[0];
+		BigInteger[] result = new BigInteger[a.length - 1];
+		for(int i = 1; i < a.length; i++) result[i - 1] = a[i].multiply(BigInteger.valueOf(i));
+		return result;
+	}
+
+	static BigInteger[] subtract(BigInteger[] a, BigInteger[] b) {
+		BigInteger[] result = Arrays.copyOf(a, Math.max(a.length, b.length));
+		for(int i = 0; i < result.length; i++) {
+			BigInteger x = (i < a.length) ? a[i] : BigInteger.ZERO;
+			result[i] = (i < b.length) ? x.subtract(b[i]) : x;
+		}
+		int length = result.length;
+		while(length > 0 && 0 == result[length - 1].signum()) length--;
+		return Arrays.copyOf(result, length);
+	}
+
+	static BigInteger[] normalize(BigInteger[] a) {
+		//Primitive part with a positive leading coefficient
+		a = primitivePart(a);
+		if(0 == a.length || a[a.length - 1].signum() > 0) return a;
+		BigInteger[] result = new BigInteger[a.length];
+		for(int i = 0; i < a.length; i++) result[i] = a[i].negate();
+		return result;
+	}
+
+	//Auxiliary methods
+	private static boolean combine(BigInteger[] image, BigInteger modulus, ModPolynomial g) {
+		//Updates image (modulo modulus) in place to the value modulo modulus * p that is g modulo p,
+		//keeping it in the symmetric range. Returns false if no coefficient changed
+		long p = g.getModulus();
+		long inverse = modulus.modInverse(BigInteger.valueOf(p)).longValue();
+		boolean changed = false;
+		for(int i = 0; i < image.length; i++) {
+			//image + modulus * t, with t = (g - image) / modulus modulo p
+			long t = (g.getCoeff(i) - mod(image[i], p) + p) % p * inverse % p;
+			if(0 == t) continue;
+			changed = true;
+			image[i] = image[i].add(modulus.multiply(BigInteger.valueOf(symmetric(t, p))));
+		}
+		return changed;
+	}
+
+	private static long[] reduce(BigInteger[] a, long p) {
+		long[] result = new long[a.length];
+		for(int i = 0; i < a.length; i++) result[i] = mod(a[i], p);
+		return result;
+	}
+
+	private static long mod(BigInteger x, long p) {
+		if(x.bitLength() < 64) return Math.floorMod(x.longValue(), p);
+		return x.mod(BigInteger.valueOf(p)).longValue();
+	}
+
+	private static long symmetric(long x, long p) {
+		//x in [0, p) as a value in (-p/2, p/2]
+		return (x > p / 2) ? x - p : x;
+	}
+
+	private static long previousPrime(long p) {
+		//The largest prime below the odd number p
+		do {
+			p -= 2;
+		} while(!BigInteger.valueOf(p).isProbablePrime(40));
+		return p;
+	}
+}
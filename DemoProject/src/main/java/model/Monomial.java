@@ -1,17 +1,21 @@
 package model;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.math.MathContext;
 
 public class Monomial implements Comparable<Monomial> {
 	//Monomial implemented using BigDecimal coefficients, for highly customisable precision
 	//Stores a coefficient and a power; corresponds to  coeff * x ^ power
+	//Exact operations (see ArithmeticContext.EXACT) can produce coefficients with no finite decimal expansion,
+	//such as 1/3. Those are kept as a reduced Rational, and getCoeff() then returns them rounded to APPROXIMATION.
+	//The arithmetic methods work on the Rational whenever either operand has one, so they stay exact
 	
 	//Constants
-	public final int TOP_DECIMALS_USED = 6; //Maximum number of decimals to be stored in case of integration or division, which can muck up the coefficients
+	private static final MathContext APPROXIMATION = MathContext.DECIMAL128; //Precision of getCoeff() for fractions
 	
 	//Attributes
 	private BigDecimal coeff;
+	private Rational fraction; //The exact coefficient when it has no finite decimal expansion, otherwise null
 	private int power;
 	
 	//Constructors
@@ -29,14 +33,53 @@ public class Monomial implements Comparable<Monomial> {
 		this.coeff = new BigDecimal(coeff);
 		this.power = power;
 	}
+	public Monomial(Rational coeff, int power) {
+		setCoeff(coeff);
+		this.power = power;
+	}
 	
 	//Getters & setters
 	public BigDecimal getCoeff() { return this.coeff; }
 	public int getPower() { return this.power; }
 	public void setPower(int power) { this.power = power; }
-	public void setCoeff(BigDecimal coeff) { this.coeff = coeff; }
-	public void setCoeff(double coeff) { this.coeff = BigDecimal.valueOf(coeff); }
-	public void setCoeff(int coeff) { this.coeff = new BigDecimal(coeff); }
+	public void setCoeff(BigDecimal coeff) { this.coeff = coeff; this.fraction = null; }
+	public void setCoeff(double coeff) { this.coeff = BigDecimal.valueOf(coeff); this.fraction = null; }
+	public void setCoeff(int coeff) { this.coeff = new BigDecimal(coeff); this.fraction = null; }
+	
+	public void setCoeff(Rational coeff) {
+		//Stores coeff as a BigDecimal if it has a finite decimal expansion, and as a reduced fraction otherwise
+		BigDecimal exact = coeff.toExactDecimal();
+		if(null != exact) {
+			setCoeff(exact);
+		}
+		else {
+			this.fraction = coeff.reduce();
+			this.coeff = this.fraction.toBigDecimal(APPROXIMATION);
+		}
+	}
+	
+	public boolean isFraction() {
+		//Returns true if the coefficient has no finite decimal expansion, so that getCoeff() only approximates it
+		return null != this.fraction;
+	}
+	
+	public Rational getRational() {
+		//Returns the exact coefficient
+		return (null != this.fraction) ? this.fraction : Rational.valueOf(this.coeff);
+	}
+	
+	Monomial copy() {
+		Monomial result = new Monomial(this.coeff, this.power);
+		result.fraction = this.fraction;
+		return result;
+	}
+	
+	void assign(Monomial m) {
+		//Makes this Monomial equal to m
+		this.coeff = m.coeff;
+		this.fraction = m.fraction;
+		this.power = m.power;
+	}
 	
 	//toString
 	public String toString() {
@@ -45,6 +88,9 @@ public class Monomial implements Comparable<Monomial> {
 		if( 0 == this.coeff.compareTo(BigDecimal.ZERO) ) {
 			output = ""; //Return an empty string in the case we have a 0-coefficient Monomial, for good integration into the Polynomial class.
 		}
+		else if(null != this.fraction) {
+			output = (0 == this.power) ? this.fraction.toString() : "(" + this.fraction + ")x" + ((1 == this.power) ? "" : "^" + power);
+		}
 		else if(0 == this.power) {
 			output = coeff.stripTrailingZeros().toPlainString();
 		}
@@ -61,11 +107,16 @@ public class Monomial implements Comparable<Monomial> {
 	}
 	public String toAbsoluteString() {
 		//Works like toString, but omits the sign, essentially outputting an absolute-value of the Monomial
-		return new Monomial(this.coeff.abs(), this.power).toString();
+		return (this.coeff.signum() < 0) ? this.negate().toString() : this.toString();
 	}
 	
 	//compareTo
 	public int compareTo(Monomial m) {
+		if(null != this.fraction || null != m.fraction) {
+			//Fractions are compared exactly, since their approximations may be equal
+			if(this.power != m.power) return (this.power > m.power) ? 1 : -1;
+			return this.getRational().compareTo(m.getRational());
+		}
 		if( this.power == m.power && 0 == (this.coeff.compareTo(m.coeff)) ) return 0; //Total equality
 		else {
 			if( this.power == m.power ) return this.coeff.compareTo(m.coeff); //If same power, compare the coefficients
@@ -81,7 +132,10 @@ public class Monomial implements Comparable<Monomial> {
 		//Returns a Monomial object whose coefficient is the sum of this element and the parameter m
 		//If called in a case where the powers of the two Monomials are of different powers, it will simply return a copy of this Monomial
 		if(this.power != m.power) {
-			return new Monomial(this.coeff.doubleValue(), this.power); //Return a copy, not this actual object, just in case
+			return this.copy(); //Return a copy, not this actual object, just in case
+		}
+		else if(null != this.fraction || null != m.fraction) {
+			return new Monomial(this.getRational().add(m.getRational()), this.power);
 		}
 		else {
 			return new Monomial(this.coeff.add(m.coeff), this.power);
@@ -93,7 +147,10 @@ public class Monomial implements Comparable<Monomial> {
 		//If called in a case where the powers of the two Monomials are of different powers, it will simply return a copy of this Monomial
 		//Note that this function DOES NOT check whether the result is zero! Should that be relevant, a separate check must be made.
 		if(this.power != m.power) {
-			return new Monomial(this.coeff.doubleValue(), this.power); //Return a copy, not this actual object, just in case
+			return this.copy(); //Return a copy, not this actual object, just in case
+		}
+		else if(null != this.fraction || null != m.fraction) {
+			return new Monomial(this.getRational().subtract(m.getRational()), this.power);
 		}
 		else {
 			return new Monomial(this.coeff.subtract(m.coeff), this.power);
@@ -103,7 +160,9 @@ public class Monomial implements Comparable<Monomial> {
 	public Monomial negate() {
 		//Returns a Monomial that is equal to the negated value of this Monomial.
 		//For instance, the negated value of -x^3 is +x^3
-		return new Monomial(this.coeff.negate(), this.power);
+		Monomial result = new Monomial(this.coeff.negate(), this.power);
+		if(null != this.fraction) result.fraction = this.fraction.negate();
+		return result;
 	}
 	
 	public Monomial derivate() {
@@ -112,6 +171,9 @@ public class Monomial implements Comparable<Monomial> {
 		if(0 == this.power) {
 			return new Monomial(0, 0); //0x^0 = 0
 		}
+		else if(null != this.fraction) {
+			return new Monomial(this.fraction.multiply(Rational.valueOf(this.power)), this.power - 1);
+		}
 		else {
 			BigDecimal newCoeff = this.coeff.multiply(new BigDecimal(this.power));
 			int newPower = this.power - 1;
@@ -122,22 +184,39 @@ public class Monomial implements Comparable<Monomial> {
 	
 	public Monomial integrate() {
 		//Returns a Monomial object that is obtained through integration from this one.
+		//The coefficient is divided as the default ArithmeticContext says
+		return integrate(ArithmeticContext.getDefault());
+	}
+	
+	public Monomial integrate(ArithmeticContext context) {
+		//Same as integrate(), with the division of the coefficient done according to the given context.
+		//In an EXACT context, the result may be a fraction
 		int newPower = this.power + 1;
-		BigDecimal newCoeff = this.coeff.divide(new BigDecimal(newPower), Math.max(this.coeff.scale(), TOP_DECIMALS_USED), RoundingMode.HALF_EVEN); //Make sure we have enough decimals
+		if(ArithmeticContext.Mode.EXACT == context.getMode()) return new Monomial(this.getRational().divide(Rational.valueOf(newPower)), newPower);
+		BigDecimal newCoeff = context.divide(this.coeff, new BigDecimal(newPower));
 		
 		return new Monomial(newCoeff, newPower);
 	}
 	
 	public Monomial multiply(Monomial m) {
 		//Returns a Monomial corresponding to the product of this Monomial and m
+		if(null != this.fraction || null != m.fraction) return new Monomial(this.getRational().multiply(m.getRational()), this.power + m.power);
 		return new Monomial(this.coeff.multiply(m.coeff), this.power + m.power);
 	}
 	
 	public Monomial divide(Monomial m) {
 		//Returns a Monomial corresponding to the quotient of dividing this Monomial by m
-		//Note that dividing by 0 or by a Monomial of power higher than this one's may produce incorrect results!
+		//Note that dividing by a Monomial of power higher than this one's may produce incorrect results!
+		//Throws an ArithmeticException when dividing by 0
+		return divide(m, ArithmeticContext.getDefault());
+	}
+	
+	public Monomial divide(Monomial m, ArithmeticContext context) {
+		//Same as divide(m), with the division of the coefficients done according to the given context.
+		//In an EXACT context, the result may be a fraction
 		int newPower = this.power - m.power;
-		BigDecimal newCoeff = this.coeff.divide(m.coeff, Math.max(this.coeff.scale(), TOP_DECIMALS_USED), RoundingMode.HALF_EVEN);
+		if(ArithmeticContext.Mode.EXACT == context.getMode()) return new Monomial(this.getRational().divide(m.getRational()), newPower);
+		BigDecimal newCoeff = context.divide(this.coeff, m.coeff);
 		
 		return new Monomial(newCoeff, newPower);
 	}
@@ -0,0 +1,395 @@
+package model;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class MultiplicationEngine {
+	//Exact multiplication of dense integer coefficient arrays (lowest power first).
+	//Picks schoolbook, Karatsuba, Toom-3 or a number-theoretic transform depending on the operand sizes;
+	//the thresholds are expressed in number of coefficients and can be tuned per engine.
+	//A floating-point FFT can also be allowed, by accepting a maximum absolute error per coefficient.
+	//Coefficients too large for the transforms can go through Kronecker substitution instead: both operands are
+	//packed into single huge integers, whose product (by BigInteger's own Karatsuba and Toom-Cook) holds the
+	//product's coefficients in fixed-width slots. That avoids the per-coefficient overhead of the array algorithms.
+	//Decimal coefficients are handled by the callers, by scaling both operands to integers first.
+
+	//Constants
+	public static final int DEFAULT_KARATSUBA_THRESHOLD = 32;
+	public static final int DEFAULT_TOOM_THRESHOLD = 256;
+	public static final int DEFAULT_TRANSFORM_THRESHOLD = 1024;
+	public static final int DEFAULT_KRONECKER_THRESHOLD = 32;
+
+	//The engine used by DensePolynomial and Polynomial when none is given explicitly
+	private static volatile MultiplicationEngine defaultEngine = new MultiplicationEngine();
+
+	//Attributes
+	private int karatsubaThreshold; //Operands shorter than this use schoolbook multiplication
+	private int toomThreshold; //Operands at least this long use Toom-3; in between, Karatsuba
+	private int transformThreshold; //Operands at least this long use NTT (or FFT, if allowed)
+	private double acceptedFftError; //Maximum absolute error per coefficient accepted from the FFT; 0 disables it
+	private int kroneckerThreshold; //BigInteger operands at least this long (and not using transforms) use Kronecker substitution
+
+	//Constructors
+	public MultiplicationEngine() {
+		this(DEFAULT_KARATSUBA_THRESHOLD, DEFAULT_TOOM_THRESHOLD, DEFAULT_TRANSFORM_THRESHOLD);
+		setKroneckerThreshold(DEFAULT_KRONECKER_THRESHOLD);
+	}
+
+	public MultiplicationEngine(int karatsubaThreshold, int toomThreshold) {
+		this(karatsubaThreshold, toomThreshold, Integer.MAX_VALUE);
+	}
+
+	public MultiplicationEngine(int karatsubaThreshold, int toomThreshold, int transformThreshold) {
+		//The thresholds are clamped so that the recursion always makes progress
+		setKaratsubaThreshold(karatsubaThreshold);
+		setToomThreshold(toomThreshold);
+		setTransformThreshold(transformThreshold);
+		setKroneckerThreshold(Integer.MAX_VALUE); //Explicit thresholds select the array algorithms only, unless enabled with the setter
+	}
+
+	//Getters & setters
+	public static MultiplicationEngine getDefault() { return defaultEngine; }
+	public static void setDefault(MultiplicationEngine engine) { defaultEngine = engine; }
+
+	public int getKaratsubaThreshold() { return this.karatsubaThreshold; }
+	public int getToomThreshold() { return this.toomThreshold; }
+	public void setKaratsubaThreshold(int karatsubaThreshold) { this.karatsubaThreshold = Math.max(karatsubaThreshold, 2); }
+	public void setToomThreshold(int toomThreshold) { this.toomThreshold = Math.max(toomThreshold, 3); }
+	public int getTransformThreshold() { return this.transformThreshold; }
+	public void setTransformThreshold(int transformThreshold) { this.transformThreshold = Math.max(transformThreshold, 1); }
+	public double getAcceptedFftError() { return this.acceptedFftError; }
+	public void setAcceptedFftError(double acceptedFftError) { this.acceptedFftError = Math.max(acceptedFftError, 0); }
+	public int getKroneckerThreshold() { return this.kroneckerThreshold; }
+	public void setKroneckerThreshold(int kroneckerThreshold) { this.kroneckerThreshold = Math.max(kroneckerThreshold, 1); }
+
+	//Multiplication
+	public long[] multiply(long[] a, long[] b) {
+		//Returns the coefficients of the product of a and b, or null if some coefficient of the product
+		//might not fit in a long (in which case the caller should use the BigInteger version).
+		//Only ring operations are used, so intermediate overflows wrap around harmlessly as long as the
+		//final coefficients fit; this is checked up front from the operand magnitudes.
+		if(0 == a.length || 0 == b.length) return new long[0];
+		if(a.length < b.length) { long[] t = a; a = b; b = t; }
+		
+		int bits = magnitudeBits(a) + magnitudeBits(b) + (32 - Integer.numberOfLeadingZeros(b.length));
+		if(bits > 62) return null;
+
+		if(b.length >= transformThreshold) {
+			if(acceptedFftError > 0 && FftMultiplier.errorBound(a, b) <= acceptedFftError) {
+				return FftMultiplier.multiply(a, b);
+			}
+			long[] result = NttMultiplier.multiply(a, b);
+			if(null != result) return result;
+		}
+
+		//Large products are split into blocks of the longer operand, multiplied on the default ParallelExecution
+		ParallelExecution parallel = ParallelExecution.getDefault();
+		long work = (long) a.length * b.length;
+		if(!parallel.isParallel(work)) return multiplyUnbalanced(a, b);
+
+		final long[] longer = a, shorter = b;
+		long[] result = new long[a.length + b.length - 1];
+		for(Block<long[]> block : parallel.mapRanges(0, a.length, work, (from, to) -> new Block<long[]>(from, multiplyUnbalanced(Arrays.copyOfRange(longer, from, to), shorter)))) {
+			for(int i = 0; i < block.product.length; i++) result[block.offset + i] += block.product[i];
+		}
+		return result;
+	}
+
+	private long[] multiplyUnbalanced(long[] a, long[] b) {
+		//Serial product of operands of any lengths, below the transform threshold
+		if(a.length < b.length) { long[] t = a; a = b; b = t; }
+		long[] result = new long[a.length + b.length - 1];
+		if(b.length < karatsubaThreshold) {
+			schoolbook(a, 0, a.length, b, 0, b.length, result, 0);
+			return result;
+		}
+
+		for(int offset = 0; offset < a.length; offset += b.length) {
+			long[] block = new long[b.length];
+			System.arraycopy(a, offset, block, 0, Math.min(b.length, a.length - offset));
+
+			long[] partial = karatsuba(block, b);
+			int count = Math.min(partial.length, result.length - offset);
+			for(int i = 0; i < count; i++) result[offset + i] += partial[i];
+		}
+		return result;
+	}
+
+	public BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+		//Returns the coefficients of the product of a and b; the result has a.length + b.length - 1 entries
+		//(or none, if either operand is empty). null entries are not allowed.
+		if(0 == a.length || 0 == b.length) return new BigInteger[0];
+		if(a.length < b.length) { BigInteger[] t = a; a = b; b = t; } //a is the longer operand from here on
+
+		if(b.length >= transformThreshold) {
+			BigInteger[] result = NttMultiplier.multiply(a, b);
+			if(null != result) return result; //Otherwise the coefficients are too large for the NTT primes
+		}
+
+		//Large products are split into blocks of the longer operand, multiplied on the default ParallelExecution
+		ParallelExecution parallel = ParallelExecution.getDefault();
+		long work = (long) a.length * b.length;
+		if(!parallel.isParallel(work)) return multiplyUnbalanced(a, b);
+
+		final BigInteger[] longer = a, shorter = b;
+		BigInteger[] result = zeros(a.length + b.length - 1);
+		for(Block<BigInteger[]> block : parallel.mapRanges(0, a.length, work, (from, to) -> new Block<BigInteger[]>(from, multiplyUnbalanced(Arrays.copyOfRange(longer, from, to), shorter)))) {
+			addInto(result, block.offset, block.product, block.product.length);
+		}
+		return result;
+	}
+
+	private BigInteger[] multiplyUnbalanced(BigInteger[] a, BigInteger[] b) {
+		//Serial product of operands of any lengths, below the transform threshold
+		if(a.length < b.length) { BigInteger[] t = a; a = b; b = t; }
+		if(b.length >= kroneckerThreshold) return kronecker(a, b);
+
+		BigInteger[] result = zeros(a.length + b.length - 1);
+		if(b.length < karatsubaThreshold) {
+			schoolbook(a, 0, a.length, b, 0, b.length, result, 0);
+			return result;
+		}
+
+		//Unbalanced operands: cut the longer one into blocks as long as the shorter one, and multiply those
+		for(int offset = 0; offset < a.length; offset += b.length) {
+			BigInteger[] block = zeros(b.length);
+			System.arraycopy(a, offset, block, 0, Math.min(b.length, a.length - offset));
+
+			BigInteger[] partial = multiplyBalanced(block, b);
+			addInto(result, offset, partial, Math.min(partial.length, result.length - offset));
+		}
+		return result;
+	}
+
+	private BigInteger[] multiplyBalanced(BigInteger[] a, BigInteger[] b) {
+		//Both operands have the same length n; returns 2n - 1 coefficients
+		int n = a.length;
+		if(n < karatsubaThreshold) {
+			BigInteger[] result = zeros(2 * n - 1);
+			schoolbook(a, 0, n, b, 0, n, result, 0);
+			return result;
+		}
+		if(n >= toomThreshold) return toom3(a, b);
+		return karatsuba(a, b);
+	}
+
+	private BigInteger[] karatsuba(BigInteger[] a, BigInteger[] b) {
+		//(a0 + a1 x^h)(b0 + b1 x^h) = z0 + ((a0 + a1)(b0 + b1) - z0 - z2) x^h + z2 x^2h
+		int n = a.length;
+		int h = n / 2;
+		int m = n - h; //Length of the high halves; the low halves are padded up to it
+
+		BigInteger[] a0 = slice(a, 0, h, m);
+		BigInteger[] a1 = slice(a, h, m, m);
+		BigInteger[] b0 = slice(b, 0, h, m);
+		BigInteger[] b1 = slice(b, h, m, m);
+
+		BigInteger[] z0 = multiplyBalanced(a0, b0);
+		BigInteger[] z2 = multiplyBalanced(a1, b1);
+		BigInteger[] z1 = multiplyBalanced(sum(a0, a1), sum(b0, b1));
+		for(int i = 0; i < z1.length; i++) z1[i] = z1[i].subtract(z0[i]).subtract(z2[i]);
+
+		BigInteger[] result = zeros(2 * n - 1);
+		addInto(result, 0, z0, Math.min(z0.length, result.length));
+		addInto(result, h, z1, z1.length);
+		addInto(result, 2 * h, z2, z2.length);
+		return result;
+	}
+
+	private BigInteger[] toom3(BigInteger[] a, BigInteger[] b) {
+		//Splits both operands in three parts of length k, evaluates them at 0, 1, -1, -2 and infinity,
+		//multiplies pointwise (recursively) and interpolates back, following Bodrato's sequence
+		int n = a.length;
+		int k = (n + 2) / 3;
+
+		BigInteger[] a0 = slice(a, 0, k, k), a1 = slice(a, k, k, k), a2 = slice(a, 2 * k, k, k);
+		BigInteger[] b0 = slice(b, 0, k, k), b1 = slice(b, k, k, k), b2 = slice(b, 2 * k, k, k);
+
+		BigInteger[] r0 = multiplyBalanced(a0, b0);
+		BigInteger[] r1 = multiplyBalanced(evaluate(a0, a1, a2, 1), evaluate(b0, b1, b2, 1));
+		BigInteger[] rm1 = multiplyBalanced(evaluate(a0, a1, a2, -1), evaluate(b0, b1, b2, -1));
+		BigInteger[] rm2 = multiplyBalanced(evaluate(a0, a1, a2, -2), evaluate(b0, b1, b2, -2));
+		BigInteger[] rInf = multiplyBalanced(a2, b2);
+
+		BigInteger three = BigInteger.valueOf(3);
+		BigInteger[] result = zeros(6 * k - 1);
+		for(int i = 0; i < r0.length; i++) {
+			BigInteger c3 = rm2[i].subtract(r1[i]).divide(three);
+			BigInteger c1 = r1[i].subtract(rm1[i]).shiftRight(1);
+			BigInteger c2 = rm1[i].subtract(r0[i]);
+			c3 = c2.subtract(c3).shiftRight(1).add(rInf[i].shiftLeft(1));
+			c2 = c2.add(c1).subtract(rInf[i]);
+			c1 = c1.subtract(c3);
+
+			result[i] = result[i].add(r0[i]);
+			result[i + k] = result[i + k].add(c1);
+			result[i + 2 * k] = result[i + 2 * k].add(c2);
+			result[i + 3 * k] = result[i + 3 * k].add(c3);
+			result[i + 4 * k] = result[i + 4 * k].add(rInf[i]);
+		}
+
+		//Anything past 2n - 1 comes from the zero padding, so it is 0
+		BigInteger[] trimmed = new BigInteger[2 * n - 1];
+		System.arraycopy(result, 0, trimmed, 0, trimmed.length);
+		return trimmed;
+	}
+
+	static BigInteger[] kronecker(BigInteger[] a, BigInteger[] b) {
+		//Evaluates both operands at x = 2^w, multiplies the two integers and reads the coefficients back.
+		//w is a whole number of bytes, large enough for any product coefficient and its sign, so that
+		//packing and unpacking are plain byte copies. Every slot of the product is biased by 2^(w-1)
+		//before unpacking, which makes all of them non-negative and free of borrows between slots
+		int bits = NttMultiplier.maxBits(a) + NttMultiplier.maxBits(b) + (32 - Integer.numberOfLeadingZeros(Math.min(a.length, b.length))) + 2;
+		int slot = (bits + 7) / 8;
+		int resultLength = a.length + b.length - 1;
+
+		BigInteger packedA = pack(a, slot);
+		BigInteger product = packedA.multiply((a == b) ? packedA : pack(b, slot));
+
+		byte[] bias = new byte[resultLength * slot];
+		for(int i = 0; i < resultLength; i++) bias[bias.length - (i + 1) * slot] = (byte) 0x80;
+		byte[] packed = product.add(new BigInteger(1, bias)).toByteArray();
+
+		byte[] bytes = new byte[resultLength * slot]; //Big-endian, slot i ending i * slot bytes before the end
+		int count = Math.min(packed.length, bytes.length);
+		System.arraycopy(packed, packed.length - count, bytes, bytes.length - count, count);
+
+		BigInteger half = BigInteger.ONE.shiftLeft(8 * slot - 1);
+		BigInteger[] result = new BigInteger[resultLength];
+		for(int i = 0; i < resultLength; i++) {
+			int end = bytes.length - i * slot;
+			result[i] = new BigInteger(1, Arrays.copyOfRange(bytes, end - slot, end)).subtract(half);
+		}
+		return result;
+	}
+
+	private static BigInteger pack(BigInteger[] a, int slot) {
+		//Returns the sum of a[i] * 2^(8 * slot * i); the positive and negative coefficients are packed separately
+		byte[] positive = new byte[a.length * slot];
+		byte[] negative = null;
+		for(int i = 0; i < a.length; i++) {
+			int sign = a[i].signum();
+			if(0 == sign) continue;
+			if(sign < 0 && null == negative) negative = new byte[a.length * slot];
+
+			byte[] magnitude = a[i].abs().toByteArray();
+			int skip = (0 == magnitude[0]) ? 1 : 0; //toByteArray adds a leading zero byte when the top bit is set
+			byte[] target = (sign > 0) ? positive : negative;
+			System.arraycopy(magnitude, skip, target, target.length - i * slot - (magnitude.length - skip), magnitude.length - skip);
+		}
+		BigInteger result = new BigInteger(1, positive);
+		return (null == negative) ? result : result.subtract(new BigInteger(1, negative));
+	}
+
+	private long[] karatsuba(long[] a, long[] b) {
+		//Same as the BigInteger version, computed modulo 2^64; both operands have the same length n
+		int n = a.length;
+		long[] result = new long[2 * n - 1];
+		if(n < karatsubaThreshold) {
+			schoolbook(a, 0, n, b, 0, n, result, 0);
+			return result;
+		}
+
+		int h = n / 2;
+		int m = n - h;
+		long[] a0 = new long[m], a1 = new long[m], b0 = new long[m], b1 = new long[m];
+		System.arraycopy(a, 0, a0, 0, h);
+		System.arraycopy(a, h, a1, 0, m);
+		System.arraycopy(b, 0, b0, 0, h);
+		System.arraycopy(b, h, b1, 0, m);
+
+		long[] z0 = karatsuba(a0, b0);
+		long[] z2 = karatsuba(a1, b1);
+		for(int i = 0; i < m; i++) { a0[i] += a1[i]; b0[i] += b1[i]; }
+		long[] z1 = karatsuba(a0, b0);
+
+		for(int i = 0; i < z1.length; i++) {
+			if(i < result.length) result[i] += z0[i];
+			result[i + h] += z1[i] - z0[i] - z2[i];
+			result[i + 2 * h] += z2[i];
+		}
+		return result;
+	}
+
+	//Auxiliary methods
+	static void schoolbook(long[] a, int aOffset, int aLength, long[] b, int bOffset, int bLength, long[] result, int resultOffset) {
+		//Adds the product of the two given ranges into result, starting at resultOffset (wrapping on overflow)
+		for(int i = 0; i < aLength; i++) {
+			long x = a[aOffset + i];
+			if(0 == x) continue;
+			for(int j = 0; j < bLength; j++) {
+				result[resultOffset + i + j] += x * b[bOffset + j];
+			}
+		}
+	}
+
+	private static int magnitudeBits(long[] a) {
+		//Returns the number of bits needed for the largest absolute value in a
+		long max = 0;
+		for(long x : a) max = Math.max(max, (Long.MIN_VALUE == x) ? Long.MAX_VALUE : Math.abs(x));
+		return 64 - Long.numberOfLeadingZeros(max) + ((max == Long.MAX_VALUE) ? 1 : 0);
+	}
+
+	static void schoolbook(BigInteger[] a, int aOffset, int aLength, BigInteger[] b, int bOffset, int bLength, BigInteger[] result, int resultOffset) {
+		//Adds the product of the two given ranges into result, starting at resultOffset
+		for(int i = 0; i < aLength; i++) {
+			BigInteger x = a[aOffset + i];
+			if(0 == x.signum()) continue;
+			for(int j = 0; j < bLength; j++) {
+				BigInteger y = b[bOffset + j];
+				if(0 == y.signum()) continue;
+				result[resultOffset + i + j] = result[resultOffset + i + j].add(x.multiply(y));
+			}
+		}
+	}
+
+	private static BigInteger[] evaluate(BigInteger[] p0, BigInteger[] p1, BigInteger[] p2, int point) {
+		//Returns p0 + p1 * point + p2 * point^2, coefficient-wise
+		BigInteger[] result = new BigInteger[p0.length];
+		for(int i = 0; i < p0.length; i++) {
+			switch(point) {
+				case 1: result[i] = p0[i].add(p1[i]).add(p2[i]); break;
+				case -1: result[i] = p0[i].subtract(p1[i]).add(p2[i]); break;
+				default: result[i] = p0[i].subtract(p1[i].shiftLeft(1)).add(p2[i].shiftLeft(2)); break; //-2
+			}
+		}
+		return result;
+	}
+
+	private static BigInteger[] slice(BigInteger[] source, int from, int count, int length) {
+		//Copies up to count entries starting at from into a zero-padded array of the given length
+		BigInteger[] result = zeros(length);
+		int available = Math.max(0, Math.min(count, source.length - from));
+		System.arraycopy(source, from, result, 0, available);
+		return result;
+	}
+
+	private static BigInteger[] sum(BigInteger[] a, BigInteger[] b) {
+		BigInteger[] result = new BigInteger[a.length];
+		for(int i = 0; i < a.length; i++) result[i] = a[i].add(b[i]);
+		return result;
+	}
+
+	private static void addInto(BigInteger[] target, int offset, BigInteger[] source, int count) {
+		for(int i = 0; i < count; i++) {
+			if(0 != source[i].signum()) target[offset + i] = target[offset + i].add(source[i]);
+		}
+	}
+
+	private static final class Block<T> {
+		//Partial product of a block of the longer operand, starting at the given power
+		private final int offset;
+		private final T product;
+
+		private Block(int offset, T product) {
+			this.offset = offset;
+			this.product = product;
+		}
+	}
+
+	static BigInteger[] zeros(int length) {
+		BigInteger[] result = new BigInteger[length];
+		for(int i = 0; i < length; i++) result[i] = BigInteger.ZERO;
+		return result;
+	}
+}
@@ -0,0 +1,308 @@
+package model;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+final class NttMultiplier {
+	//Exact O(n log n) multiplication of integer coefficient arrays through number-theoretic transforms.
+	//The product is computed modulo several NTT-friendly primes and reconstructed with the Chinese
+	//remainder theorem (Garner's algorithm), using as many primes as the coefficient sizes require.
+	//All primes are below 2^30, so products of two residues always fit in a long; the transforms reduce them
+	//through Barrett reduction (see reduce), which is about twice as fast as %.
+
+	//Constants
+	//Each prime is c * 2^k + 1, allowing transforms of any power-of-two length up to 2^k
+	private static final long[] PRIMES = {998244353L, 167772161L, 469762049L, 754974721L, 1004535809L};
+	private static final long[] GENERATORS = {3, 3, 3, 11, 3};
+	private static final int[] TWO_ADICITY = {23, 25, 26, 24, 21};
+	private static final int[] CAPACITY_BITS = new int[PRIMES.length + 1]; //CAPACITY_BITS[k]: the product of the first k primes is at least 2^CAPACITY_BITS[k]
+	private static final int SCHOOLBOOK_THRESHOLD = 64; //Shorter modular products skip the transforms
+
+	static {
+		BigInteger product = BigInteger.ONE;
+		for(int k = 1; k <= PRIMES.length; k++) {
+			product = product.multiply(BigInteger.valueOf(PRIMES[k - 1]));
+			CAPACITY_BITS[k] = product.bitLength() - 1;
+		}
+	}
+
+	private NttMultiplier() {
+		//Static helper class; never instantiated
+	}
+
+	//Multiplication
+	static long[] multiply(long[] a, long[] b) {
+		//Returns the product of a and b, or null if it is too long for the transforms.
+		//The caller guarantees that every coefficient of the product fits in 62 bits, so three primes
+		//(over 86 bits together) are always enough, and the reconstruction can stay in longs.
+		int resultLength = a.length + b.length - 1;
+		int n = transformLength(resultLength, 3);
+		if(n < 0) return null;
+
+		long[][] residues = convolveAll(a, b, n, 3);
+
+		//Garner: x = r0 + p0 * t1 + p0 * p1 * t2, with each t in [0, p)
+		long p0 = PRIMES[0], p1 = PRIMES[1], p2 = PRIMES[2];
+		long p0InvP1 = modInverse(p0 % p1, p1);
+		long p01InvP2 = modInverse((p0 % p2) * (p1 % p2) % p2, p2);
+		long p01 = p0 * p1; //Fits: below 2^58
+
+		long[] result = new long[resultLength];
+		for(int i = 0; i < resultLength; i++) {
+			long r0 = residues[0][i], r1 = residues[1][i], r2 = residues[2][i];
+			long t1 = Math.floorMod(r1 - r0, p1) * p0InvP1 % p1;
+			long lower = r0 + p0 * t1; //In [0, p0 * p1)
+			long t2 = Math.floorMod(r2 - lower % p2, p2) * p01InvP2 % p2;
+
+			//The value is negative when it lies in the upper half of [0, p0 * p1 * p2). Wrapping arithmetic
+			//then yields the right signed result, since that result is known to fit in a long
+			boolean upperHalf = (t2 > p2 / 2) || (t2 == p2 / 2 && lower >= (p01 + 1) / 2);
+			result[i] = upperHalf ? lower + p01 * (t2 - p2) : lower + p01 * t2;
+		}
+		return result;
+	}
+
+	static BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+		//Returns the product of a and b, or null if it is too long or its coefficients too large for
+		//the available primes (the caller should then fall back to another algorithm)
+		int resultLength = a.length + b.length - 1;
+		int bits = maxBits(a) + maxBits(b) + (32 - Integer.numberOfLeadingZeros(Math.min(a.length, b.length))) + 1; //+1 for the sign
+		int primeCount = primesFor(bits);
+		if(primeCount > PRIMES.length) return null;
+		int n = transformLength(resultLength, primeCount);
+		if(n < 0) return null;
+
+		long[][] residues = convolveAll(a, b, n, primeCount);
+
+		return reconstruct(residues, primeCount, resultLength);
+	}
+
+	static long[] multiplyMod(long[] a, long[] b, int primeIndex) {
+		//Returns the product of a and b modulo PRIMES[primeIndex]; both must already be reduced.
+		//Returns null if the product is too long for that prime's transforms.
+		int resultLength = a.length + b.length - 1;
+		if(Math.min(a.length, b.length) < SCHOOLBOOK_THRESHOLD) {
+			long p = PRIMES[primeIndex];
+			long[] result = new long[resultLength];
+			for(int i = 0; i < a.length; i++) {
+				if(0 == a[i]) continue;
+				for(int j = 0; j < b.length; j++) result[i + j] = (result[i + j] + a[i] * b[j]) % p;
+			}
+			return result;
+		}
+
+		int n = transformLength(resultLength, primeIndex + 1);
+		if(n < 0) return null;
+		long[] result = convolve(a, (a == b) ? null : b, n, primeIndex);
+		return (result.length == resultLength) ? result : Arrays.copyOf(result, resultLength);
+	}
+
+	static long[] multiplyMod(long[] a, long[] b, long modulus) {
+		//Returns the product of a and b modulo any modulus below 2^31; both must already be reduced.
+		//The exact coefficients of the product are below length * modulus^2 < 2^84, within the product of the
+		//first three primes (about 2^86), so they are reconstructed from three transforms like in multiply(long[]),
+		//except that Garner's combination is evaluated modulo the modulus instead of exactly.
+		//A modulus that is one of the primes needs a single transform. Returns null if the product is too long
+		for(int k = 0; k < PRIMES.length; k++) {
+			if(PRIMES[k] == modulus) return multiplyMod(a, b, k);
+		}
+		int resultLength = a.length + b.length - 1;
+		int n = transformLength(resultLength, 3);
+		if(n < 0) return null;
+
+		long[][] residues = convolveAll(a, b, n, 3);
+
+		long p0 = PRIMES[0], p1 = PRIMES[1], p2 = PRIMES[2];
+		long p0InvP1 = modInverse(p0 % p1, p1);
+		long p01InvP2 = modInverse((p0 % p2) * (p1 % p2) % p2, p2);
+		long p0Mod = p0 % modulus;
+		long p01Mod = p0Mod * (p1 % modulus) % modulus;
+
+		long[] result = new long[resultLength];
+		for(int i = 0; i < resultLength; i++) {
+			long r0 = residues[0][i], r1 = residues[1][i], r2 = residues[2][i];
+			long t1 = Math.floorMod(r1 - r0, p1) * p0InvP1 % p1;
+			long t2 = Math.floorMod(r2 - (r0 + p0 * t1) % p2, p2) * p01InvP2 % p2;
+			result[i] = (r0 % modulus + p0Mod * t1 % modulus + p01Mod * t2 % modulus) % modulus;
+		}
+		return result;
+	}
+
+	static BigInteger[] reconstruct(long[][] residues, int primeCount, int length) {
+		//Garner's mixed-radix reconstruction: x = t0 + t1 p0 + t2 p0 p1 + ...
+		//residues[k][i] is coefficient i modulo PRIMES[k]; results are in the symmetric range around 0
+		long[][] inverses = new long[primeCount][primeCount]; //inverses[j][k] = p_j^-1 mod p_k, for j < k
+		BigInteger[] radix = new BigInteger[primeCount]; //p0 * ... * p_(k-1)
+		radix[0] = BigInteger.ONE;
+		for(int k = 1; k < primeCount; k++) {
+			radix[k] = radix[k - 1].multiply(BigInteger.valueOf(PRIMES[k - 1]));
+			for(int j = 0; j < k; j++) inverses[j][k] = modInverse(PRIMES[j] % PRIMES[k], PRIMES[k]);
+		}
+		BigInteger modulus = radix[primeCount - 1].multiply(BigInteger.valueOf(PRIMES[primeCount - 1]));
+		BigInteger half = modulus.shiftRight(1);
+
+		BigInteger[] result = new BigInteger[length];
+		long[] t = new long[primeCount];
+		for(int i = 0; i < length; i++) {
+			for(int k = 0; k < primeCount; k++) {
+				long p = PRIMES[k];
+				long value = residues[k][i];
+				for(int j = 0; j < k; j++) value = Math.floorMod(value - t[j], p) * inverses[j][k] % p;
+				t[k] = value;
+			}
+
+			BigInteger x = BigInteger.valueOf(t[0]);
+			for(int k = 1; k < primeCount; k++) {
+				if(0 != t[k]) x = x.add(radix[k].multiply(BigInteger.valueOf(t[k])));
+			}
+			result[i] = (x.compareTo(half) > 0) ? x.subtract(modulus) : x;
+		}
+		return result;
+	}
+
+	static int primeCount() { return PRIMES.length; }
+
+	static int primesFor(int bits) {
+		//The number of primes, taken in order, whose product is at least 2^bits, so that it represents every
+		//value of bits bits (sign included); primeCount() + 1 if even all of them aren't enough
+		int k = 1;
+		while(k <= PRIMES.length && CAPACITY_BITS[k] < bits) k++;
+		return k;
+	}
+	static long prime(int index) { return PRIMES[index]; }
+
+	//Transforms
+	private static long[][] convolveAll(long[] a, long[] b, int n, int primeCount) {
+		//Products modulo the first primeCount primes; the primes are independent, so they run in parallel when allowed
+		long[][] residues = new long[primeCount][];
+		ParallelExecution.getDefault().forEachRange(0, primeCount, (long) n * primeCount, (from, to) -> {
+			for(int k = from; k < to; k++) residues[k] = convolve(reduce(a, PRIMES[k]), (a == b) ? null : reduce(b, PRIMES[k]), n, k);
+		});
+		return residues;
+	}
+
+	private static long[][] convolveAll(BigInteger[] a, BigInteger[] b, int n, int primeCount) {
+		long[][] residues = new long[primeCount][];
+		ParallelExecution.getDefault().forEachRange(0, primeCount, (long) n * primeCount, (from, to) -> {
+			for(int k = from; k < to; k++) residues[k] = convolve(reduce(a, PRIMES[k]), (a == b) ? null : reduce(b, PRIMES[k]), n, k);
+		});
+		return residues;
+	}
+
+	private static long[] convolve(long[] a, long[] b, int n, int primeIndex) {
+		//Cyclic convolution of length n modulo the given prime; b == null means squaring a
+		long p = PRIMES[primeIndex];
+		long[] fa = new long[n];
+		System.arraycopy(a, 0, fa, 0, a.length);
+		transform(fa, false, primeIndex);
+
+		long[] fb = fa;
+		if(null != b) {
+			fb = new long[n];
+			System.arraycopy(b, 0, fb, 0, b.length);
+			transform(fb, false, primeIndex);
+		}
+
+		double reciprocal = 1.0 / p;
+		for(int i = 0; i < n; i++) fa[i] = reduce(fa[i] * fb[i], p, reciprocal);
+		transform(fa, true, primeIndex);
+		return fa;
+	}
+
+	private static void transform(long[] a, boolean invert, int primeIndex) {
+		//In-place iterative Cooley-Tukey transform modulo PRIMES[primeIndex]; a.length is a power of two
+		long p = PRIMES[primeIndex];
+		double reciprocal = 1.0 / p;
+		int n = a.length;
+
+		for(int i = 1, j = 0; i < n; i++) { //Bit-reversal permutation
+			int bit = n >> 1;
+			for(; 0 != (j & bit); bit >>= 1) j ^= bit;
+			j ^= bit;
+			if(i < j) { long tmp = a[i]; a[i] = a[j]; a[j] = tmp; }
+		}
+
+		long[] roots = new long[n / 2 + 1]; //Powers of the current level's root, reused for every level
+		for(int length = 2; length <= n; length <<= 1) {
+			long root = modPow(GENERATORS[primeIndex], (p - 1) / length, p);
+			if(invert) root = modInverse(root, p);
+
+			int halfLength = length / 2;
+			roots[0] = 1;
+			for(int k = 1; k < halfLength; k++) roots[k] = reduce(roots[k - 1] * root, p, reciprocal);
+
+			for(int start = 0; start < n; start += length) {
+				for(int k = 0; k < halfLength; k++) {
+					long u = a[start + k];
+					long v = reduce(a[start + k + halfLength] * roots[k], p, reciprocal);
+					long sum = u + v;
+					long difference = u - v;
+					a[start + k] = (sum >= p) ? sum - p : sum;
+					a[start + k + halfLength] = (difference < 0) ? difference + p : difference;
+				}
+			}
+		}
+
+		if(invert) {
+			long nInverse = modInverse(n, p);
+			for(int i = 0; i < n; i++) a[i] = reduce(a[i] * nInverse, p, reciprocal);
+		}
+	}
+
+	//Auxiliary methods
+	private static int transformLength(int resultLength, int primeCount) {
+		//Smallest power of two holding the result, or -1 if one of the primes can't support it
+		int n = Integer.highestOneBit(Math.max(resultLength - 1, 1)) << 1;
+		if(1 == resultLength) n = 1;
+		for(int k = 0; k < primeCount; k++) {
+			if(n > (1 << TWO_ADICITY[k]) || n <= 0) return -1;
+		}
+		return n;
+	}
+
+	static long[] reduce(long[] a, long p) {
+		long[] result = new long[a.length];
+		for(int i = 0; i < a.length; i++) result[i] = Math.floorMod(a[i], p);
+		return result;
+	}
+
+	static long[] reduce(BigInteger[] a, long p) {
+		BigInteger modulus = BigInteger.valueOf(p);
+		long[] result = new long[a.length];
+		for(int i = 0; i < a.length; i++) {
+			BigInteger c = a[i];
+			result[i] = (c.bitLength() < 63) ? Math.floorMod(c.longValue(), p) : c.mod(modulus).longValue();
+		}
+		return result;
+	}
+
+	static long reduce(long x, long p, double reciprocal) {
+		//x mod p for x in [0, p^2) and p below 2^31, with reciprocal = 1.0 / p: Barrett reduction, with the
+		//quotient estimated in double precision instead of the long division of %. The estimate is off by at most 1
+		long r = x - (long) (x * reciprocal) * p;
+		if(r < 0) return r + p;
+		return (r >= p) ? r - p : r;
+	}
+
+	static int maxBits(BigInteger[] a) {
+		int bits = 0;
+		for(BigInteger c : a) bits = Math.max(bits, c.bitLength());
+		return bits;
+	}
+
+	static long modPow(long base, long exponent, long p) {
+		long result = 1;
+		base %= p;
+		while(exponent > 0) {
+			if(1 == (exponent & 1)) result = result * base % p;
+			base = base * base % p;
+			exponent >>= 1;
+		}
+		return result;
+	}
+
+	static long modInverse(long value, long p) {
+		//p is prime, so value^(p - 2) is the inverse of value
+		return modPow(value, p - 2, p);
+	}
+}
@@ -0,0 +1,71 @@
+package model;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class OperationMetrics implements OperationMetricsMXBean {
+	//What Metrics records about one operation: its latencies, and the size of its results, in terms, degree and
+	//decimal scale. The scale growth is how many more decimals the result has than the most precise operand,
+	//which is how coefficients blow up through repeated multiplications and divisions.
+	//The iterations are those of the division loops, for DIVIDE only.
+
+	//Attributes
+	private final String operation;
+	private final Histogram latency = new Histogram(); //Nanoseconds
+	private final Histogram terms = new Histogram(); //Terms of the results
+	private final LongAccumulator maxDegree = new LongAccumulator(Math::max, -1);
+	private final LongAccumulator maxScale = new LongAccumulator(Math::max, 0);
+	private final LongAccumulator maxScaleGrowth = new LongAccumulator(Math::max, 0);
+	private final LongAdder iterations = new LongAdder();
+
+	//Constructors
+	OperationMetrics(String operation) {
+		this.operation = operation;
+	}
+
+	//Getters
+	public String getOperation() { return operation; }
+	public Histogram getLatency() { return latency; }
+	public Histogram getTerms() { return terms; }
+
+	public long getCount() { return latency.getCount(); }
+	public double getMeanNanos() { return latency.getMean(); }
+	public long getMedianNanos() { return latency.getValueAtPercentile(50); }
+	public long getP99Nanos() { return latency.getValueAtPercentile(99); }
+	public long getMaxNanos() { return latency.getMax(); }
+	public double getMeanTerms() { return terms.getMean(); }
+	public long getMaxTerms() { return terms.getMax(); }
+	public long getMaxDegree() { return maxDegree.get(); }
+	public long getMaxScale() { return maxScale.get(); }
+	public long getMaxScaleGrowth() { return maxScaleGrowth.get(); }
+	public long getIterations() { return iterations.sum(); }
+
+	//Recording
+	void record(long nanos, int termCount, int degree, int scale, int scaleGrowth) {
+		//Package-private: called by Metrics
+		latency.record(nanos);
+		terms.record(termCount);
+		maxDegree.accumulate(degree);
+		maxScale.accumulate(scale);
+		maxScaleGrowth.accumulate(scaleGrowth);
+	}
+
+	void addIterations(long count) {
+		iterations.add(count);
+	}
+
+	public void reset() {
+		latency.reset();
+		terms.reset();
+		maxDegree.reset();
+		maxScale.reset();
+		maxScaleGrowth.reset();
+		iterations.reset();
+	}
+
+	public String toString() {
+		return operation + ": " + latency + " ns; terms mean " + Math.round(terms.getMean()) + ", max " + terms.getMax()
+				+ "; max degree " + maxDegree.get() + ", max scale " + maxScale.get() + " (+" + maxScaleGrowth.get() + ")"
+				+ ((0 != iterations.sum()) ? "; iterations " + iterations.sum() : "");
+	}
+}
@@ -0,0 +1,23 @@
+package model;
+
+public interface OperationMetricsMXBean {
+	//The JMX view of an OperationMetrics, registered as model:type=Metrics,operation=<name> while Metrics are enabled.
+	//Latencies are in nanoseconds; sizes are those of the results
+
+	//Attributes
+	String getOperation();
+	long getCount();
+	double getMeanNanos();
+	long getMedianNanos();
+	long getP99Nanos();
+	long getMaxNanos();
+	double getMeanTerms();
+	long getMaxTerms();
+	long getMaxDegree();
+	long getMaxScale();
+	long getMaxScaleGrowth();
+	long getIterations();
+
+	//Operations
+	void reset();
+}
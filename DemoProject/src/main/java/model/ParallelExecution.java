@@ -0,0 +1,147 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelExecution {
+	//Runs the loops of the arithmetic methods on a ForkJoinPool, by splitting their index ranges into blocks.
+	//Work below the threshold always runs serially on the calling thread, since forking costs more than it saves there.
+	//The default execution is serial; setDefault(new ParallelExecution(n)) makes every Polynomial and
+	//DensePolynomial operation use n threads from then on.
+
+	//Constants
+	public static final int DEFAULT_THRESHOLD = 1 << 14; //Elementary coefficient operations below which nothing is split
+
+	//The execution used by Polynomial, DensePolynomial, MultiplicationEngine and DivisionEngine
+	private static volatile ParallelExecution defaultExecution = new ParallelExecution(1);
+
+	//Attributes
+	private final ForkJoinPool pool; //null for serial execution
+	private final int parallelism;
+	private final int threshold;
+
+	//Types
+	interface RangeAction {
+		//Processes the indices from (inclusive) to to (exclusive)
+		void run(int from, int to);
+	}
+
+	interface RangeFunction<T> {
+		//Processes the indices from (inclusive) to to (exclusive) and returns a partial result
+		T apply(int from, int to);
+	}
+
+	//Constructors
+	public ParallelExecution(int parallelism) {
+		this(parallelism, DEFAULT_THRESHOLD);
+	}
+
+	public ParallelExecution(int parallelism, int threshold) {
+		//A parallelism of 1 (or less) means serial execution; otherwise a dedicated pool with that many threads is created
+		this.parallelism = Math.max(parallelism, 1);
+		this.threshold = Math.max(threshold, 1);
+		this.pool = (this.parallelism > 1) ? new ForkJoinPool(this.parallelism) : null;
+	}
+
+	public ParallelExecution(ForkJoinPool pool, int threshold) {
+		//Runs on an existing pool, such as ForkJoinPool.commonPool(); shutdown() leaves it alone
+		this.parallelism = pool.getParallelism();
+		this.threshold = Math.max(threshold, 1);
+		this.pool = pool;
+	}
+
+	//Getters & setters
+	public static ParallelExecution getDefault() { return defaultExecution; }
+	public static void setDefault(ParallelExecution execution) { defaultExecution = execution; }
+
+	public int getParallelism() { return this.parallelism; }
+	public int getThreshold() { return this.threshold; }
+
+	public boolean isParallel(long work) {
+		//Returns true if an operation of the given amount of work would be split
+		return null != pool && parallelism > 1 && work >= 2L * threshold;
+	}
+
+	public int getBlockCount(long work) {
+		//Number of blocks an operation of the given amount of work is split into; each gets at least threshold work
+		if(!isParallel(work)) return 1;
+		return (int) Math.min(parallelism, work / threshold);
+	}
+
+	public void shutdown() {
+		//Stops the threads of a dedicated pool; the shared common pool is never shut down
+		if(null != pool && ForkJoinPool.commonPool() != pool) pool.shutdown();
+	}
+
+	//Execution
+	void forEachRange(int from, int to, long work, RangeAction action) {
+		//Runs action over [from, to), split into getBlockCount(work) contiguous ranges of about the same length
+		int blocks = Math.min(getBlockCount(work), Math.max(to - from, 1));
+		if(blocks <= 1) {
+			action.run(from, to);
+			return;
+		}
+		run(new BlockTask(from, to, blocks, 0, blocks, (block, blockFrom, blockTo) -> action.run(blockFrom, blockTo)));
+	}
+
+	<T> List<T> mapRanges(int from, int to, long work, RangeFunction<T> function) {
+		//Like forEachRange, but collects the partial result of every range, in index order
+		int blocks = Math.min(getBlockCount(work), Math.max(to - from, 1));
+		List<T> results = new ArrayList<T>(Collections.<T>nCopies(blocks, null)); //Every block writes its own slot only
+		if(blocks <= 1) {
+			results.set(0, function.apply(from, to));
+			return results;
+		}
+
+		run(new BlockTask(from, to, blocks, 0, blocks, (block, blockFrom, blockTo) -> results.set(block, function.apply(blockFrom, blockTo))));
+		return results;
+	}
+
+	private void run(BlockTask task) {
+		//Nested operations (such as a product inside a parallel division) fork within the running pool instead of blocking on it
+		if(ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) task.invoke();
+		else pool.invoke(task);
+	}
+
+	private interface BlockAction {
+		void run(int block, int from, int to);
+	}
+
+	private static class BlockTask extends RecursiveAction {
+		//Splits the blocks [firstBlock, lastBlock) of the range [from, to) in halves, down to single blocks
+		private static final long serialVersionUID = 1L;
+
+		private final int from;
+		private final int to;
+		private final int blocks;
+		private final int firstBlock;
+		private final int lastBlock;
+		private final BlockAction action;
+
+		private BlockTask(int from, int to, int blocks, int firstBlock, int lastBlock, BlockAction action) {
+			this.from = from;
+			this.to = to;
+			this.blocks = blocks;
+			this.firstBlock = firstBlock;
+			this.lastBlock = lastBlock;
+			this.action = action;
+		}
+
+		protected void compute() {
+			if(1 == lastBlock - firstBlock) {
+				action.run(firstBlock, blockStart(firstBlock), blockStart(lastBlock));
+				return;
+			}
+			int middle = (firstBlock + lastBlock) >>> 1;
+			invokeAll(new BlockTask(from, to, blocks, firstBlock, middle, action), new BlockTask(from, to, blocks, middle, lastBlock, action));
+		}
+
+		private int blockStart(int block) {
+			return from + (int) ((long) (to - from) * block / blocks);
+		}
+	}
+}
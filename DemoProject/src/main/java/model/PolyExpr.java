@@ -0,0 +1,378 @@
+package model;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public final class PolyExpr {
+	//Lazy Polynomial expression: the operations are only recorded, as an immutable DAG, and computed by evaluate().
+	//The leaves are Polynomials, read when the expression is evaluated, not when it is built, so an expression
+	//can be built once and evaluated again after its operands change.
+	//
+	//Evaluation fuses the operations instead of materializing every intermediate result:
+	//  - sums, differences, negations and derivatives are linear, so derivate() is pushed through sums, and every
+	//    sum is flattened into a combination c1 D^k1(t1) + c2 D^k2(t2) + ... with integer weights c, where the
+	//    terms t are leaves, products and integrals. The terms are accumulated in place into a single Polynomial,
+	//    the highest derivative order first, derivating the accumulator in place between the orders:
+	//    p1.add(p2).add(p3).derivate() allocates a single result instead of three
+	//  - products in a sum are fused multiply-adds (Polynomial.fma) when the accumulator already holds their powers
+	//  - terms that cancel out (like a * b - a * b) or that are derivated beyond their degree are dropped,
+	//    so their operands are never computed
+	//  - equal subexpressions are computed once: expressions are compared structurally (leaves by identity,
+	//    sums and products in either order), and evaluate() keeps the value of every product and integral it computes
+	//The result is rounded according to the ArithmeticContext once, at the end; products and integrals that
+	//are operands of other products are rounded too, like the results of the eager operations.
+
+	//Types
+	private enum Operation { LEAF, ADD, SUBTRACT, NEGATE, MULTIPLY, DERIVATE, INTEGRATE }
+
+	//Attributes
+	private final Operation operation;
+	private final Polynomial leaf; //Only for LEAF
+	private final PolyExpr left; //Operands; right is null for the unary operations
+	private final PolyExpr right;
+	private final long fingerprint; //Equal for equal expressions, and almost surely different otherwise
+
+	//Constructors
+	private PolyExpr(Operation operation, Polynomial leaf, PolyExpr left, PolyExpr right) {
+		this.operation = operation;
+		this.leaf = leaf;
+		this.left = left;
+		this.right = right;
+
+		//64-bit fingerprint of the structure, mixed at every level so that deep expressions don't collide
+		long f;
+		if(Operation.LEAF == operation) f = System.identityHashCode(leaf);
+		else if(null == right) f = left.fingerprint;
+		else if(isCommutative()) f = 31 * mix(Math.min(left.fingerprint, right.fingerprint)) + Math.max(left.fingerprint, right.fingerprint);
+		else f = 31 * mix(left.fingerprint) + right.fingerprint;
+		this.fingerprint = mix(31 * f + operation.ordinal());
+	}
+
+	public static PolyExpr of(Polynomial p) {
+		return new PolyExpr(Operation.LEAF, p, null, null);
+	}
+
+	//Building methods
+	public PolyExpr add(PolyExpr e) { return new PolyExpr(Operation.ADD, null, this, e); }
+	public PolyExpr add(Polynomial p) { return add(of(p)); }
+	public PolyExpr subtract(PolyExpr e) { return new PolyExpr(Operation.SUBTRACT, null, this, e); }
+	public PolyExpr subtract(Polynomial p) { return subtract(of(p)); }
+	public PolyExpr multiply(PolyExpr e) { return new PolyExpr(Operation.MULTIPLY, null, this, e); }
+	public PolyExpr multiply(Polynomial p) { return multiply(of(p)); }
+	public PolyExpr negate() { return new PolyExpr(Operation.NEGATE, null, this, null); }
+	public PolyExpr derivate() { return new PolyExpr(Operation.DERIVATE, null, this, null); }
+	public PolyExpr integrate() { return new PolyExpr(Operation.INTEGRATE, null, this, null); }
+
+	//Evaluation
+	public Polynomial evaluate() {
+		return evaluate(ArithmeticContext.getDefault());
+	}
+
+	public Polynomial evaluate(ArithmeticContext context) {
+		//Returns a new Polynomial, which never shares its Monomials with the leaves
+		Polynomial result = new Evaluation(context).value(this);
+		if(Operation.LEAF != operation) return result;
+		Polynomial copy = new Polynomial();
+		copy.addInPlace(result);
+		return copy.compact(context);
+	}
+
+	private static final class Evaluation {
+		//The state of one evaluate() call: the values and degree bounds computed so far, by subexpression
+		private final ArithmeticContext context;
+		private final Map<PolyExpr, Polynomial> values = new HashMap<PolyExpr, Polynomial>();
+		private final Map<PolyExpr, Integer> degrees = new HashMap<PolyExpr, Integer>();
+
+		private Evaluation(ArithmeticContext context) {
+			this.context = context;
+		}
+
+		private Polynomial value(PolyExpr e) {
+			//The value of e, which may be shared with the leaves or other subexpressions: never modified
+			Polynomial value = values.get(e);
+			if(null != value) return value;
+			switch(e.operation) {
+			case LEAF:
+				value = e.leaf;
+				break;
+			case MULTIPLY:
+				value = value(e.left).multiply(value(e.right), context);
+				break;
+			case INTEGRATE:
+				value = value(e.left).integrate(context);
+				break;
+			default:
+				value = combine(combination(e)).compact(context);
+			}
+			values.put(e, value);
+			return value;
+		}
+
+		private Map<Term, Long> combination(PolyExpr e) {
+			//e as weights of its terms. Every node of the sums passes its own total weight down to its operands,
+			//with the derivative order increased through derivate(); visiting the nodes in topological order,
+			//a node shared by several sums is visited once, after all of them
+			Map<Term, Long> weights = new HashMap<Term, Long>();
+			Map<Term, Long> combination = new LinkedHashMap<Term, Long>();
+			weights.put(new Term(e, 0), 1L);
+			for(Term t : topologicalOrder(new Term(e, 0))) {
+				Long weight = weights.remove(t);
+				if(null == weight) continue; //All the weights reaching it cancelled out
+				PolyExpr node = t.expression;
+				switch(node.operation) {
+				case ADD:
+				case SUBTRACT:
+					accumulate(weights, new Term(node.left, t.order), weight);
+					accumulate(weights, new Term(node.right, t.order), (Operation.ADD == node.operation) ? weight : -weight);
+					break;
+				case NEGATE:
+					accumulate(weights, new Term(node.left, t.order), -weight);
+					break;
+				case DERIVATE:
+					accumulate(weights, new Term(node.left, t.order + 1), weight);
+					break;
+				default:
+					if(0 == t.order || t.order <= degree(node)) combination.put(t, weight); //Otherwise the derivative is 0
+				}
+			}
+			return combination;
+		}
+
+		private static List<Term> topologicalOrder(Term root) {
+			//The nodes of the sums below root, and their terms, every node before its operands.
+			//That is the reverse of the order in which an iterative depth-first search finishes them
+			List<Term> finished = new ArrayList<Term>();
+			Set<Term> expanded = new HashSet<Term>();
+			Set<Term> done = new HashSet<Term>();
+			Deque<Term> stack = new ArrayDeque<Term>();
+			stack.push(root);
+			while(!stack.isEmpty()) {
+				Term t = stack.peek();
+				if(expanded.add(t)) {
+					for(Term operand : t.operands()) {
+						if(!expanded.contains(operand)) stack.push(operand);
+					}
+				}
+				else {
+					stack.pop();
+					if(done.add(t)) finished.add(t);
+				}
+			}
+			Collections.reverse(finished);
+			return finished;
+		}
+
+		private Polynomial combine(Map<Term, Long> combination) {
+			//Computes a combination in a single accumulator, the highest derivative order first, like a Horner
+			//scheme: D^2(t1) + D(t2) + t3 = D(D(t1) + t2) + t3, so every term is added once, and the accumulator
+			//is derivated in place between the orders
+			TreeMap<Integer, List<Map.Entry<Term, Long>>> orders = new TreeMap<Integer, List<Map.Entry<Term, Long>>>();
+			for(Map.Entry<Term, Long> entry : combination.entrySet()) {
+				List<Map.Entry<Term, Long>> terms = orders.get(entry.getKey().order);
+				if(null == terms) orders.put(entry.getKey().order, terms = new ArrayList<Map.Entry<Term, Long>>());
+				terms.add(entry);
+			}
+
+			Polynomial accumulator = new Polynomial();
+			int order = orders.isEmpty() ? 0 : orders.lastKey();
+			for(Map.Entry<Integer, List<Map.Entry<Term, Long>>> entry : orders.descendingMap().entrySet()) {
+				for(; order > entry.getKey(); order--) accumulator.derivateInPlace();
+				for(Map.Entry<Term, Long> term : entry.getValue()) accumulate(accumulator, term.getKey().expression, term.getValue());
+			}
+			for(; order > 0; order--) accumulator.derivateInPlace();
+			return accumulator;
+		}
+
+		private void accumulate(Polynomial accumulator, PolyExpr e, long weight) {
+			//Adds weight * e to accumulator. A product that is not needed elsewhere is a fused multiply-add when the
+			//accumulator already holds every power of the product, so that no term is inserted into its list;
+			//otherwise the product is computed and merged
+			if(1 == weight && Operation.MULTIPLY == e.operation && null == values.get(e)
+					&& ArithmeticContext.Mode.FLOATING_POINT != context.getMode() && covers(accumulator, degree(e))) {
+				accumulator.fma(value(e.left), value(e.right));
+			}
+			else if(1 == weight) accumulator.addInPlace(value(e));
+			else if(-1 == weight) accumulator.subtractInPlace(value(e));
+			else accumulator.addInPlace(value(e).multiply(new Monomial(BigDecimal.valueOf(weight), 0)));
+		}
+
+		private static boolean covers(Polynomial p, int degree) {
+			//Whether p has a term for every power up to degree; the powers are sorted and distinct
+			List<Monomial> terms = p.getTerms();
+			return degree >= 0 && degree < terms.size() && terms.get(degree).getPower() == degree;
+		}
+
+		private int degree(PolyExpr e) {
+			//An upper bound on the degree of e, -1 if it is certainly 0
+			Integer degree = degrees.get(e);
+			if(null != degree) return degree;
+			int d;
+			switch(e.operation) {
+			case LEAF:
+				List<Monomial> terms = e.leaf.getTerms();
+				d = terms.isEmpty() ? -1 : terms.get(terms.size() - 1).getPower();
+				break;
+			case ADD:
+			case SUBTRACT:
+				d = Math.max(degree(e.left), degree(e.right));
+				break;
+			case MULTIPLY:
+				int l = degree(e.left);
+				int r = degree(e.right);
+				d = (l < 0 || r < 0) ? -1 : l + r;
+				break;
+			case DERIVATE:
+				d = Math.max(degree(e.left) - 1, -1);
+				break;
+			case INTEGRATE:
+				d = (degree(e.left) < 0) ? -1 : degree(e.left) + 1;
+				break;
+			default:
+				d = degree(e.left);
+			}
+			degrees.put(e, d);
+			return d;
+		}
+
+		private static void accumulate(Map<Term, Long> weights, Term t, long weight) {
+			//Adds weight to the weight of t, dropping it if it cancels out
+			Long sum = weights.get(t);
+			if(null == sum) weights.put(t, weight);
+			else if(0 == sum + weight) weights.remove(t);
+			else weights.put(t, Math.addExact(sum, weight));
+		}
+	}
+
+	private static final class Term {
+		//A leaf, product or integral, derivated order times
+		private final PolyExpr expression;
+		private final int order;
+
+		private Term(PolyExpr expression, int order) {
+			this.expression = expression;
+			this.order = order;
+		}
+
+		private List<Term> operands() {
+			//The nodes that a node of a sum passes its weight to; none for a term
+			List<Term> operands = new ArrayList<Term>(2);
+			switch(expression.operation) {
+			case ADD:
+			case SUBTRACT:
+				operands.add(new Term(expression.left, order));
+				operands.add(new Term(expression.right, order));
+				break;
+			case NEGATE:
+				operands.add(new Term(expression.left, order));
+				break;
+			case DERIVATE:
+				operands.add(new Term(expression.left, order + 1));
+				break;
+			default:
+			}
+			return operands;
+		}
+
+		public boolean equals(Object o) {
+			if(!(o instanceof Term)) return false;
+			Term t = (Term) o;
+			return order == t.order && expression.equals(t.expression);
+		}
+
+		public int hashCode() {
+			return 31 * expression.hashCode() + order;
+		}
+	}
+
+	//Comparison
+	public boolean equals(Object o) {
+		//Structural equality: the same operations on the same Polynomial objects, in either order for sums and products.
+		//The nodes are compared pair by pair without recursion, so that deep expressions don't overflow the stack,
+		//and every pair of nodes is only compared once, however often the expressions share it.
+		//The operands of sums and products are paired in fingerprint order; operands with the same fingerprint are equal
+		if(this == o) return true;
+		if(!(o instanceof PolyExpr)) return false;
+		PolyExpr e = (PolyExpr) o;
+		if(fingerprint != e.fingerprint || operation != e.operation) return false;
+		if(Operation.LEAF == operation) return leaf == e.leaf;
+
+		Map<PolyExpr, PolyExpr> compared = null; //The pairs below this one compared so far; only allocated if needed
+		Deque<PolyExpr> pending = new ArrayDeque<PolyExpr>();
+		pending.push(e);
+		pending.push(this);
+		while(!pending.isEmpty()) {
+			PolyExpr a = pending.pop();
+			PolyExpr b = pending.pop();
+			if(a == b || (null != compared && b == compared.get(a))) continue;
+			if(a.fingerprint != b.fingerprint || a.operation != b.operation) return false;
+			if(Operation.LEAF == a.operation) {
+				if(a.leaf != b.leaf) return false;
+				continue;
+			}
+			if(a != this) {
+				if(null == compared) compared = new IdentityHashMap<PolyExpr, PolyExpr>();
+				compared.put(a, b);
+			}
+
+			PolyExpr aLeft = a.left, aRight = a.right, bLeft = b.left, bRight = b.right;
+			if(a.isCommutative()) {
+				if(aLeft.fingerprint > aRight.fingerprint) {
+					aLeft = a.right;
+					aRight = a.left;
+				}
+				if(bLeft.fingerprint > bRight.fingerprint) {
+					bLeft = b.right;
+					bRight = b.left;
+				}
+			}
+			pending.push(bLeft);
+			pending.push(aLeft);
+			if(null != aRight) {
+				pending.push(bRight);
+				pending.push(aRight);
+			}
+		}
+		return true;
+	}
+
+	public int hashCode() {
+		return (int) (fingerprint ^ (fingerprint >>> 32));
+	}
+
+	//toString
+	public String toString() {
+		//Outputs the expression with its leaves in brackets, such as ([x + 1] * [x^2])'
+		switch(operation) {
+		case LEAF: return "[" + leaf + "]";
+		case ADD: return "(" + left + " + " + right + ")";
+		case SUBTRACT: return "(" + left + " - " + right + ")";
+		case MULTIPLY: return "(" + left + " * " + right + ")";
+		case NEGATE: return "-" + left;
+		case DERIVATE: return left + "'";
+		default: return "integral " + left;
+		}
+	}
+
+	//Auxiliary methods
+	private boolean isCommutative() {
+		return Operation.ADD == operation || Operation.MULTIPLY == operation;
+	}
+
+	private static long mix(long z) {
+		//The finalizer of SplitMix64, a bijection that spreads every bit of z over the whole result
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+}
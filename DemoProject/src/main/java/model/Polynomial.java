@@ -1,13 +1,25 @@
 package model;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
 
 public class Polynomial {
 	//Polynomial implemented as a sorted list of Monomials
 	
+	//Constants
+	private static final double DENSE_FILL_RATIO = 0.5; //Minimum share of present powers for the dense algorithms to pay off
+	private static final long SPARSE_PRODUCT_PAIRS = 16; //Pairs of terms per power of the product above which a dense product is faster
+	private static final long FMA_DIRECT_TERMS = 4096; //Largest number of partial products that fma accumulates directly
+	private static final int EVALUATION_CHUNK = 1024; //Points evaluated together by the batch evaluate, sized to stay in the L1 cache
+	
 	//Attributes
 	private List<Monomial> values;
 	
@@ -23,16 +35,24 @@ public class Polynomial {
 		//starting from the lowest-term ones to the highest-term one
 		//For instance, if coefficients = "0 17 -3 0 5" the polynomial
 		//will be 5x^4 - 3x^2 + 17x
-		this.values = new ArrayList<Monomial>();
-		
-		//Easiest way to parse a space-separated String; works for other delimiters, too
-		Scanner parseString = new Scanner(coefficients);
-		int currentExponent = 0;
-		while(parseString.hasNextInt()) {
-			this.addValue(new Monomial(parseString.nextInt(), currentExponent));
-			currentExponent++;
-		}
-		parseString.close();
+		//Commas are accepted as separators too, and coefficients may be decimals, such as "1.5, 0, -2".
+		//Parsing stops at the first malformed coefficient; PolynomialParser.parse reports it as an error instead
+		this.values = PolynomialParser.parseTerms(coefficients, true);
+	}
+	
+	Polynomial(List<Monomial> sortedValues) {
+		//Package-private: wraps an already sorted, duplicate-free list of Monomials without copying it.
+		//Used by the other representations (such as DensePolynomial) when converting back to a Polynomial
+		this.values = sortedValues;
+	}
+	
+	//Getters & setters
+	public List<Monomial> getTerms() {
+		//Returns a read-only view of the terms, sorted by power, which follows later changes to this Polynomial.
+		//Only the list is read-only: the Monomials are this Polynomial's own, not copies (so the formatter, the codec
+		//and PolyExpr read them without allocating). Changing one through setCoeff or setPower changes this Polynomial
+		//too, and may break the order of its terms; callers that keep or change terms must copy() them first
+		return Collections.unmodifiableList(this.values);
 	}
 	
 	//Management methods
@@ -40,179 +60,803 @@ public class Polynomial {
 		//Adds the value m to the polynomial.
 		//If a monomial with the same power already exists, the coefficients of the two are added instead of inserting a new value.
 		//This way, we have a guarantee that no duplicates exist in the list
+		//The list is kept sorted by power, so the matching position is found through binary search;
+		//appending a power higher than all current ones (the usual case while parsing) costs O(1)
 		
-		boolean foundDuplicate = false;
-		for(Monomial mon : values) {
-			if(m.getPower() == mon.getPower()) {
-				
-				int i = values.indexOf(mon); //This hack-ish part is so because modifying mon doesn't actually change the values list as it is
-				values.set(i, mon.add(m));
-				
-				foundDuplicate = true;
-				break; //Here just to spare us of parsing the rest of the list, since we've found the match
-			}
+		int i = indexOfPower(m.getPower());
+		if(i >= 0) {
+			values.set(i, values.get(i).add(m));
 		}
-		if(!foundDuplicate) {
-			values.add(new Monomial(new BigDecimal(m.getCoeff().toString()),m.getPower())); //We avoid direct referencing and send a copy.
-			values.sort(null);
+		else {
+			values.add(-(i + 1), m.copy()); //We avoid direct referencing and send a copy. BigDecimal itself is immutable.
 		}
 	}
 	
+	public void addAll(Polynomial p) {
+		//Adds every term of p to this Polynomial.
+		//Since both term lists are sorted by power, this is a single linear merge instead of one addValue per term
+		this.addInPlace(p);
+	}
+	
 	public void setValuesFromPolynomial(Polynomial p) {
 		//Sets the Polynomial to the same values as the Polynomial p
-		//Take care, since this DOES NOT duplicate values, so care
-		//must be taken to avoid reference tangling!
-		this.values.clear();
+		//The values are copied, so the two Polynomials can be modified independently afterwards.
+		//The existing list and Monomial objects are reused, so repeated calls don't allocate new ones
+		if(this == p) return;
+		int common = Math.min(this.values.size(), p.values.size());
 		
-		for(Monomial m : p.values) {
-			this.addValue(m);
+		for(int i = 0; i < common; i++) {
+			Monomial target = this.values.get(i);
+			Monomial source = p.values.get(i);
+			target.assign(source);
+		}
+		for(int i = common; i < p.values.size(); i++) {
+			this.values.add(p.values.get(i).copy());
 		}
+		if(this.values.size() > p.values.size()) this.values.subList(p.values.size(), this.values.size()).clear();
 	}
 	
 	public void setValuesFromString(String s) {
 		//Sets the Polynomial to the values given by the String s, much like instantiating
 		//a new Polynomial with the Polynomial(String) constructor
 		//String s should follow the same format as for Polynomial(String).
-		this.values.clear();
+		this.values = PolynomialParser.parseTerms(s, true);
+	}
+	
+	private int indexOfPower(int power) {
+		//Returns the index of the term with the given power, or (-(insertion point) - 1) if there is none,
+		//following the same convention as Collections.binarySearch
+		int high = values.size() - 1;
+		if(high < 0 || values.get(high).getPower() < power) return -(high + 2); //Fast path for appending
 		
-		Polynomial stringPoly = new Polynomial(s);
-		for(Monomial m : stringPoly.values) {
-			this.addValue(m);
+		int low = 0;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int midPower = values.get(mid).getPower();
+			
+			if(midPower < power) low = mid + 1;
+			else if(midPower > power) high = mid - 1;
+			else return mid;
 		}
+		return -(low + 1);
 	}
 	
-	private Monomial getHighestTerm() {
-		//Returns the Monomial corresponding to the highest power of x in this Polynomial.
-		//If the Polynomial is empty, will return 0
-		Monomial result = new Monomial(0, 0);
+	private static List<Monomial> merge(List<Monomial> a, List<Monomial> b, boolean negateB) {
+		//Merges two power-sorted, duplicate-free term lists into a new one, adding coefficients of equal powers
+		//If negateB is set, the terms of b are subtracted instead of added
+		List<Monomial> result = new ArrayList<Monomial>(a.size() + b.size());
+		int i = 0;
+		int j = 0;
 		
-		for(Monomial m : this.values) {
-			if(0 != m.getCoeff().compareTo(BigDecimal.ZERO) && m.getPower() >= result.getPower()) { //If we've found a term that has a higher exponent and non-null coefficient...
-				result = m;
+		while(i < a.size() || j < b.size()) {
+			if(j >= b.size() || (i < a.size() && a.get(i).getPower() < b.get(j).getPower())) {
+				result.add(a.get(i++).copy());
+			}
+			else if(i >= a.size() || a.get(i).getPower() > b.get(j).getPower()) {
+				Monomial pon = b.get(j++);
+				result.add(negateB ? pon.negate() : pon.copy());
+			}
+			else {
+				Monomial mon = a.get(i++);
+				Monomial pon = b.get(j++);
+				result.add(negateB ? mon.subtract(pon) : mon.add(pon));
 			}
 		}
 		
 		return result;
 	}
 	
-	//toString
-	public String toString() {
-		//Outputs a String corresponding to the polynomial, such as x^3 - 3x^2 + 15
-		String output = "";
+	private static List<Monomial> parallelMerge(List<Monomial> a, List<Monomial> b, boolean negateB) {
+		//Same as merge, split into independent power ranges on the default ParallelExecution for long lists.
+		//The ranges are cut at evenly spaced terms of a, and at the matching positions of b found by binary search
+		ParallelExecution parallel = ParallelExecution.getDefault();
+		int total = a.size() + b.size();
+		if(!parallel.isParallel(total) || a.isEmpty()) return merge(a, b, negateB);
 		
-		for(Monomial mon : values) {
-			if("" != mon.toString()) { //Do not add 0-coefficient monomials to output
-				String sign;
-				if(-1 == mon.getCoeff().signum()) sign = " - "; //Determine leading sign of the current term
-				else sign = " + ";
-				
-				output += sign + mon.toAbsoluteString();
-			}
+		List<List<Monomial>> ranges = parallel.mapRanges(0, a.size(), total, (from, to) -> {
+			int bFrom = (0 == from) ? 0 : lowerBound(b, a.get(from).getPower());
+			int bTo = (a.size() == to) ? b.size() : lowerBound(b, a.get(to).getPower());
+			return merge(a.subList(from, to), b.subList(bFrom, bTo), negateB);
+		});
+		
+		List<Monomial> result = new ArrayList<Monomial>(total);
+		for(List<Monomial> range : ranges) result.addAll(range);
+		return result;
+	}
+	
+	private static int lowerBound(List<Monomial> values, int power) {
+		//Returns the index of the first term with a power of at least the given one
+		int low = 0;
+		int high = values.size();
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(values.get(mid).getPower() < power) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+	
+	//Conversions
+	public DensePolynomial toDense() {
+		//Returns this Polynomial in the dense, array-based representation, which is much more
+		//compact and faster for polynomials where most powers up to the degree are present
+		int size = 0;
+		for(Monomial m : this.values) size = Math.max(size, m.getPower() + 1);
+		
+		BigDecimal[] coeffs = new BigDecimal[size];
+		for(Monomial m : this.values) coeffs[m.getPower()] = m.getCoeff();
+		
+		return new DensePolynomial(coeffs);
+	}
+	
+	public SparsePolynomial toSparse() {
+		//Returns this Polynomial in the sparse, array-based representation, whose size depends only on the
+		//number of terms, for polynomials with few terms spread up to a high degree
+		int count = this.values.size();
+		int[] powers = new int[count];
+		BigDecimal[] coeffs = new BigDecimal[count];
+		for(int i = 0; i < count; i++) {
+			powers[i] = this.values.get(i).getPower();
+			coeffs[i] = this.values.get(i).getCoeff();
+		}
+		return new SparsePolynomial(powers, coeffs);
+	}
+	
+	public ImmutablePolynomial toImmutable() {
+		//Returns a copy that can never change, to share between threads without further copies
+		return new ImmutablePolynomial(this);
+	}
+	
+	//Binary serialization
+	public void writeTo(WritableByteChannel channel) throws IOException {
+		//Writes this Polynomial to the channel in the binary format of PolynomialCodec, which is much smaller
+		//and faster to read back than the text one. The channel is not closed
+		PolynomialCodec.write(this, channel);
+	}
+	
+	public static Polynomial readFrom(ReadableByteChannel channel) throws IOException {
+		//Reads a polynomial written by writeTo (or DensePolynomial.writeTo), consuming exactly its bytes from the channel.
+		//PolynomialReader.map reads files term by term instead, without loading them on the heap
+		return new PolynomialReader(channel).readPolynomial();
+	}
+	
+	private boolean isDense() {
+		//Returns true if at least DENSE_FILL_RATIO of the powers up to the degree have a term
+		if(this.values.isEmpty()) return true;
+		int size = this.values.get(this.values.size() - 1).getPower() + 1;
+		return this.values.size() >= DENSE_FILL_RATIO * size;
+	}
+	
+	//Evaluation methods
+	//All of them use Horner's scheme over the sorted terms: from the highest term down, the running value is
+	//multiplied by x raised to the gap between consecutive powers, then the next coefficient is added.
+	//Gaps larger than 1 (sparse Polynomials) are raised through exponentiation by squaring.
+	
+	public double evaluate(double x) {
+		//Returns the value of this Polynomial at x, in double precision
+		double result = 0;
+		int previousPower = 0;
+		
+		for(int i = this.values.size() - 1; i >= 0; i--) {
+			Monomial mon = this.values.get(i);
+			if(i < this.values.size() - 1) result *= power(x, previousPower - mon.getPower());
+			result += mon.getCoeff().doubleValue();
+			previousPower = mon.getPower();
+		}
+		
+		return (0 == previousPower) ? result : result * power(x, previousPower); //Lowest term of power above 0
+	}
+	
+	public BigDecimal evaluate(BigDecimal x, MathContext mc) {
+		//Returns the value of this Polynomial at x, every step rounded according to mc
+		//(MathContext.UNLIMITED gives the exact value)
+		//Fraction coefficients are used exactly, not through the approximation of getCoeff(): with any of them, the
+		//value is computed as a Rational and only rounded at the end. Like BigDecimal.divide, that throws an
+		//ArithmeticException for MathContext.UNLIMITED if the value has no finite decimal expansion
+		for(Monomial mon : this.values) {
+			if(mon.isFraction()) return evaluateRational(x, mc);
+		}
+		
+		BigDecimal result = BigDecimal.ZERO;
+		int previousPower = 0;
+		
+		for(int i = this.values.size() - 1; i >= 0; i--) {
+			Monomial mon = this.values.get(i);
+			if(i < this.values.size() - 1) result = result.multiply(x.pow(previousPower - mon.getPower(), mc), mc);
+			result = result.add(mon.getCoeff(), mc);
+			previousPower = mon.getPower();
 		}
 		
-		if(output.isEmpty()) output += "0"; //Display 0 for a void polynomial
-		else if(output.startsWith(" + ")) output = output.substring(3); //Cut a leading +, since it is implicit
-		output = output.trim(); //Cut extra whitespace, if needed (for instance for negative first term)
+		return (0 == previousPower) ? result : result.multiply(x.pow(previousPower, mc), mc);
+	}
+	
+	private BigDecimal evaluateRational(BigDecimal x, MathContext mc) {
+		//The same Horner's scheme over the exact coefficients; the powers of x are exact decimals
+		Rational result = Rational.ZERO;
+		int previousPower = 0;
+		
+		for(int i = this.values.size() - 1; i >= 0; i--) {
+			Monomial mon = this.values.get(i);
+			if(i < this.values.size() - 1) result = result.multiply(Rational.valueOf(x.pow(previousPower - mon.getPower())));
+			result = result.add(mon.getRational());
+			previousPower = mon.getPower();
+		}
+		if(0 != previousPower) result = result.multiply(Rational.valueOf(x.pow(previousPower)));
+		
+		if(0 != mc.getPrecision()) return result.toBigDecimal(mc);
+		BigDecimal exact = result.toExactDecimal();
+		if(null == exact) throw new ArithmeticException(result + " has no exact decimal value");
+		return exact;
+	}
+	
+	public void evaluate(double[] xs, double[] out) {
+		//Evaluates this Polynomial at every xs[i], storing the value in out[i]
+		//The points are processed in chunks, with the terms in the outer loop and the points in the inner one:
+		//the inner loops are plain element-wise array operations that the JIT compiles to SIMD instructions.
+		//Large batches are split across the default ParallelExecution
+		if(out.length < xs.length) throw new IllegalArgumentException("The output array is shorter than the input array");
+		
+		int terms = this.values.size();
+		double[] coeffs = new double[terms];
+		int[] gaps = new int[terms + 1]; //gaps[i]: power of term i minus power of term i - 1; gaps[0] is the lowest power
+		for(int i = 0; i < terms; i++) {
+			Monomial mon = this.values.get(i);
+			coeffs[i] = mon.getCoeff().doubleValue();
+			gaps[i] = mon.getPower() - ((0 == i) ? 0 : this.values.get(i - 1).getPower());
+		}
 		
-		return output;
+		ParallelExecution.getDefault().forEachRange(0, xs.length, (long) xs.length * Math.max(terms, 1), (from, to) -> {
+			double[] value = new double[EVALUATION_CHUNK];
+			double[] raised = new double[EVALUATION_CHUNK];
+			double[] base = new double[EVALUATION_CHUNK];
+			
+			for(int start = from; start < to; start += EVALUATION_CHUNK) {
+				int count = Math.min(EVALUATION_CHUNK, to - start);
+				Arrays.fill(value, 0, count, 0.0);
+				int raisedGap = 1; //The gap currently held in raised; 1 means xs itself is used
+				
+				for(int t = terms - 1; t >= 0; t--) {
+					if(t < terms - 1) {
+						int gap = gaps[t + 1];
+						if(1 == gap) {
+							for(int i = 0; i < count; i++) value[i] *= xs[start + i];
+						}
+						else {
+							if(gap != raisedGap) {
+								powerChunk(xs, start, count, gap, raised, base);
+								raisedGap = gap;
+							}
+							for(int i = 0; i < count; i++) value[i] *= raised[i];
+						}
+					}
+					double c = coeffs[t];
+					for(int i = 0; i < count; i++) value[i] += c;
+				}
+				
+				if(terms > 0 && gaps[0] > 0) {
+					powerChunk(xs, start, count, gaps[0], raised, base);
+					for(int i = 0; i < count; i++) value[i] *= raised[i];
+				}
+				System.arraycopy(value, 0, out, start, count);
+			}
+		});
+	}
+	
+	public BigDecimal[] evaluate(BigDecimal[] xs) {
+		//Returns the exact values of this Polynomial at all the given points at once.
+		//Goes through a SubproductTree, which takes O(n log^2 n) for n points and a degree around n,
+		//instead of the O(n^2) of evaluating every point separately
+		if(0 == xs.length) return new BigDecimal[0];
+		return new SubproductTree(xs).evaluate(this.toDense());
+	}
+	
+	public static Polynomial interpolate(BigDecimal[] xs, BigDecimal[] ys) {
+		//Returns the Polynomial of the lowest degree that takes the value ys[i] at every xs[i]
+		//The coefficients are rounded to the same number of decimals as a division quotient.
+		//Throws an ArithmeticException if two points are equal
+		if(xs.length != ys.length) throw new IllegalArgumentException("Expected as many values as points");
+		if(0 == xs.length) return new Polynomial();
+		return new SubproductTree(xs).interpolate(ys, DivisionEngine.DEFAULT_QUOTIENT_DECIMALS).toPolynomial();
+	}
+	
+	private static double power(double x, int exponent) {
+		//x^exponent through exponentiation by squaring, for a non-negative exponent
+		double result = 1;
+		while(exponent > 0) {
+			if(1 == (exponent & 1)) result *= x;
+			x *= x;
+			exponent >>= 1;
+		}
+		return result;
+	}
+	
+	private static void powerChunk(double[] xs, int start, int count, int exponent, double[] result, double[] base) {
+		//Element-wise exponentiation by squaring: result[i] = xs[start + i]^exponent, with base as scratch space
+		System.arraycopy(xs, start, base, 0, count);
+		Arrays.fill(result, 0, count, 1.0);
+		while(exponent > 0) {
+			if(1 == (exponent & 1)) {
+				for(int i = 0; i < count; i++) result[i] *= base[i];
+			}
+			exponent >>= 1;
+			if(exponent > 0) {
+				for(int i = 0; i < count; i++) base[i] *= base[i];
+			}
+		}
+	}
+	
+	//equals, hashCode & toString
+	public boolean equals(Object o) {
+		//Equal terms, comparing coefficients by value (2.0 equals 2) and skipping terms that in-place arithmetic left at 0.
+		//Polynomials are mutable: one used as a HashMap key must not change while it is in the map, see ImmutablePolynomial
+		if(this == o) return true;
+		if(!(o instanceof Polynomial)) return false;
+		List<Monomial> other = ((Polynomial) o).values;
+		int i = 0;
+		int j = 0;
+		while(true) {
+			while(i < this.values.size() && 0 == this.values.get(i).getCoeff().signum()) i++;
+			while(j < other.size() && 0 == other.get(j).getCoeff().signum()) j++;
+			if(i == this.values.size() || j == other.size()) return i == this.values.size() && j == other.size();
+			if(0 != this.values.get(i++).compareTo(other.get(j++))) return false;
+		}
+	}
+	
+	public int hashCode() {
+		//Consistent with equals, and the same as ImmutablePolynomial.hashCode for the same terms
+		int h = 0;
+		for(Monomial mon : this.values) {
+			if(0 == mon.getCoeff().signum()) continue;
+			h = 31 * h + mon.getPower();
+			h = 31 * h + (mon.isFraction() ? mon.getRational().hashCode() : mon.getCoeff().stripTrailingZeros().hashCode());
+		}
+		return h;
+	}
+	
+	public String toString() {
+		//Outputs a String corresponding to the polynomial, such as x^3 - 3x^2 + 15
+		//See PolynomialFormatter, which can also append to a StringBuilder or stream to a Writer
+		return PolynomialFormatter.format(this);
 	}
 	
 	//Arithmetic methods
+	//Every operation has a version taking an ArithmeticContext, which decides how results are rounded;
+	//the others use ArithmeticContext.getDefault()
 	public Polynomial add(Polynomial p) {
 		//Returns a Polynomial object representing the sum of this Polynomial and p
 		//As a side-effect of how Polynomial works, instantiating an empty Polynomial, 
 		//then adding a different one to it will, in essence, make a copy of the latter.
-		
-		Polynomial result = new Polynomial();
-		
-		for(Monomial mon : this.values) result.addValue(mon);
-		for(Monomial pon : p.values) result.addValue(pon);
-		
+		return add(p, ArithmeticContext.getDefault());
+	}
+	
+	public Polynomial add(Polynomial p, ArithmeticContext context) {
+		long start = Metrics.start();
+		Polynomial result = new Polynomial(parallelMerge(this.values, p.values, false)).rounded(context);
+		Metrics.record(Metrics.Operation.ADD, start, result.values, this.values, p.values);
 		return result;
 	}
 	
 	public Polynomial subtract(Polynomial p) {
 		//Returns a Polynomial object representing the difference of this Polynomial and p
-		
-		Polynomial result = new Polynomial();
-		
-		for(Monomial mon : this.values) result.addValue(mon);
-		for(Monomial pon : p.values) result.addValue(pon.negate()); //Add negated p to obtain subtraction
-		
+		return subtract(p, ArithmeticContext.getDefault());
+	}
+	
+	public Polynomial subtract(Polynomial p, ArithmeticContext context) {
+		long start = Metrics.start();
+		Polynomial result = new Polynomial(parallelMerge(this.values, p.values, true)).rounded(context); //Add negated p to obtain subtraction
+		Metrics.record(Metrics.Operation.SUBTRACT, start, result.values, this.values, p.values);
 		return result;
 	}
 	
 	public Polynomial derivate() {
 		//Returns a Polynomial object that is the derivative of this Polynomial
+		return derivate(ArithmeticContext.getDefault());
+	}
+	
+	public Polynomial derivate(ArithmeticContext context) {
+		//Every term is derived on its own, so long Polynomials are split across the default ParallelExecution
 		
-		Polynomial result = new Polynomial();
+		//The derivative of the constant term is 0, so that term is skipped; the powers stay sorted and distinct
+		long start = Metrics.start();
+		int first = (!this.values.isEmpty() && 0 == this.values.get(0).getPower()) ? 1 : 0;
+		Monomial[] result = new Monomial[this.values.size() - first];
 		
-		for(Monomial mon : this.values) result.addValue(mon.derivate());
+		ParallelExecution.getDefault().forEachRange(first, this.values.size(), this.values.size(), (from, to) -> {
+			for(int i = from; i < to; i++) result[i - first] = this.values.get(i).derivate();
+		});
 		
-		return result;
+		Polynomial derivative = new Polynomial(new ArrayList<Monomial>(Arrays.asList(result))).rounded(context);
+		Metrics.record(Metrics.Operation.DERIVATE, start, derivative.values, this.values, null);
+		return derivative;
 	}
 	
 	public Polynomial integrate() {
 		//Returns a Polynomial object that is the primitive (integral) of this Polynomial
+		return integrate(ArithmeticContext.getDefault());
+	}
+	
+	public Polynomial integrate(ArithmeticContext context) {
+		//Every term is integrated on its own, so long Polynomials are split across the default ParallelExecution
 		
-		Polynomial result = new Polynomial();
+		long start = Metrics.start();
+		Monomial[] result = new Monomial[this.values.size()];
 		
-		for(Monomial mon : this.values) result.addValue(mon.integrate());
+		ParallelExecution.getDefault().forEachRange(0, this.values.size(), this.values.size(), (from, to) -> {
+			for(int i = from; i < to; i++) result[i] = this.values.get(i).integrate(context);
+		});
 		
-		return result;
+		Polynomial primitive = new Polynomial(new ArrayList<Monomial>(Arrays.asList(result))).rounded(context);
+		Metrics.record(Metrics.Operation.INTEGRATE, start, primitive.values, this.values, null);
+		return primitive;
 	}
 	
-	public Polynomial multiply(Polynomial p) {
-		//Returns a Polynomial object that represents the product of this Polynomial and the Polynomial p
-		
-		Polynomial result = new Polynomial();
+	//In-place arithmetic methods
+	//These modify this Polynomial instead of returning a new one, reusing its list and Monomials.
+	//Since the Monomials of a Polynomial are never shared with another one, this is always safe.
+	//Fraction coefficients go through Rational, like in the Monomial arithmetic methods.
+	
+	public void addInPlace(Polynomial p) {
+		//Adds p to this Polynomial
+		mergeInPlace(p, false);
+	}
+	
+	public void subtractInPlace(Polynomial p) {
+		//Subtracts p from this Polynomial
+		mergeInPlace(p, true);
+	}
+	
+	public void negateInPlace() {
+		//Negates every coefficient of this Polynomial
+		for(Monomial mon : this.values) {
+			if(mon.isFraction()) mon.setCoeff(mon.getRational().negate());
+			else mon.setCoeff(mon.getCoeff().negate());
+		}
+	}
+	
+	public void scaleInPlace(BigDecimal factor) {
+		//Multiplies every coefficient of this Polynomial by factor
+		for(Monomial mon : this.values) {
+			if(mon.isFraction()) mon.setCoeff(mon.getRational().multiply(Rational.valueOf(factor)));
+			else mon.setCoeff(mon.getCoeff().multiply(factor));
+		}
+	}
+	
+	public void derivateInPlace() {
+		//Replaces this Polynomial with its derivative
+		//The derivative of the constant term is 0, so that term is dropped
+		if(!this.values.isEmpty() && 0 == this.values.get(0).getPower()) this.values.remove(0);
 		
 		for(Monomial mon : this.values) {
-			for(Monomial pon : p.values) {
-				result.addValue(mon.multiply(pon)); //For every pair of Monomials, add their product
+			if(mon.isFraction()) mon.setCoeff(mon.getRational().multiply(Rational.valueOf(mon.getPower())));
+			else mon.setCoeff(mon.getCoeff().multiply(BigDecimal.valueOf(mon.getPower())));
+			mon.setPower(mon.getPower() - 1);
+		}
+	}
+	
+	public void integrateInPlace() {
+		//Replaces this Polynomial with its primitive (integral), with the same precision as integrate()
+		for(Monomial mon : this.values) mon.assign(mon.integrate());
+	}
+	
+	public void fma(Polynomial a, Polynomial b) {
+		//Fused multiply-add: adds the product a * b to this Polynomial
+		//Small products are accumulated straight into this Polynomial, without building a product Polynomial
+		if(this != a && this != b && (long) a.values.size() * b.values.size() <= FMA_DIRECT_TERMS) {
+			for(Monomial mon : a.values) {
+				for(Monomial pon : b.values) {
+					int power = mon.getPower() + pon.getPower();
+					int i = indexOfPower(power);
+					
+					if(mon.isFraction() || pon.isFraction() || (i >= 0 && this.values.get(i).isFraction())) {
+						Monomial product = mon.multiply(pon);
+						if(i >= 0) this.values.get(i).assign(this.values.get(i).add(product));
+						else this.values.add(-(i + 1), product);
+						continue;
+					}
+					BigDecimal product = mon.getCoeff().multiply(pon.getCoeff());
+					if(i >= 0) this.values.get(i).setCoeff(this.values.get(i).getCoeff().add(product));
+					else this.values.add(-(i + 1), new Monomial(product, power));
+				}
+			}
+		}
+		else {
+			this.addInPlace(a.multiply(b));
+		}
+	}
+	
+	private void mergeInPlace(Polynomial p, boolean negate) {
+		//Adds (or subtracts) the terms of p into this term list, in linear time.
+		//Terms whose power already exists are updated in place; if p brings new powers, the list is
+		//extended once and merged from the back, so that no term is moved more than once
+		if(this == p) { //Both lists are the same one; simply double (or zero) every coefficient
+			if(negate) this.scaleInPlace(BigDecimal.ZERO);
+			else this.scaleInPlace(BigDecimal.valueOf(2));
+			return;
+		}
+		
+		int newPowers = 0;
+		for(int i = 0, j = 0; j < p.values.size(); ) {
+			if(i < this.values.size() && this.values.get(i).getPower() < p.values.get(j).getPower()) i++;
+			else {
+				if(i >= this.values.size() || this.values.get(i).getPower() > p.values.get(j).getPower()) newPowers++;
+				else i++;
+				j++;
 			}
 		}
 		
+		int i = this.values.size() - 1;
+		int j = p.values.size() - 1;
+		for(int k = 0; k < newPowers; k++) this.values.add(null);
+		
+		for(int k = this.values.size() - 1; j >= 0; k--) {
+			Monomial pon = p.values.get(j);
+			Monomial mon = (i >= 0) ? this.values.get(i) : null;
+			
+			if(null != mon && mon.getPower() > pon.getPower()) {
+				this.values.set(k, mon);
+				i--;
+			}
+			else if(null != mon && mon.getPower() == pon.getPower()) {
+				if(mon.isFraction() || pon.isFraction()) mon.assign(negate ? mon.subtract(pon) : mon.add(pon));
+				else mon.setCoeff(negate ? mon.getCoeff().subtract(pon.getCoeff()) : mon.getCoeff().add(pon.getCoeff()));
+				this.values.set(k, mon);
+				i--;
+				j--;
+			}
+			else {
+				this.values.set(k, negate ? pon.negate() : pon.copy());
+				j--;
+			}
+		}
+		//Whatever is left of the original terms (indices 0..i) is already in place
+	}
+	
+	public Polynomial multiply(Polynomial p) {
+		//Returns a Polynomial object that represents the product of this Polynomial and the Polynomial p
+		return multiply(p, ArithmeticContext.getDefault());
+	}
+	
+	public Polynomial multiply(Polynomial p, ArithmeticContext context) {
+		long start = Metrics.start();
+		Polynomial result = product(p, context);
+		Metrics.record(Metrics.Operation.MULTIPLY, start, result.values, this.values, p.values);
 		return result;
 	}
 	
+	private Polynomial product(Polynomial p, ArithmeticContext context) {
+		//Operands that are mostly filled up to their degree go through the dense representation,
+		//where the MultiplicationEngine can use sub-quadratic algorithms. So do sparse ones with so many terms
+		//that their pairs outnumber the powers of the product by more than SPARSE_PRODUCT_PAIRS
+		if(this.values.isEmpty() || p.values.isEmpty()) return new Polynomial();
+		if(this.hasFractions() || p.hasFractions()) return this.multiplyFractions(p).rounded(context);
+		long pairs = (long) this.values.size() * p.values.size();
+		long length = (long) this.values.get(this.values.size() - 1).getPower() + p.values.get(p.values.size() - 1).getPower() + 1;
+		if((this.isDense() && p.isDense()) || pairs > SPARSE_PRODUCT_PAIRS * length) {
+			if(ArithmeticContext.Mode.FLOATING_POINT == context.getMode()) {
+				return fromDoubles(FftMultiplier.multiply(this.toDoubleArray(), p.toDoubleArray()));
+			}
+			return this.toDense().multiply(p.toDense()).toPolynomial().rounded(context);
+		}
+		
+		//Otherwise, the sparse representation multiplies them with Johnson's heap algorithm,
+		//which produces the terms already sorted and never holds more partial products than the shorter operand has terms
+		return this.toSparse().multiply(p.toSparse()).toPolynomial().rounded(context);
+	}
+	
+	private Polynomial multiplyFractions(Polynomial p) {
+		//Both operands are brought to integer coefficients over a common denominator, so that the product runs
+		//on integers through the usual algorithms, with a single division (and gcd) per term of the result
+		BigInteger denominator = this.commonDenominator();
+		BigInteger pDenominator = p.commonDenominator();
+		Polynomial product = this.toIntegers(denominator).multiply(p.toIntegers(pDenominator), ArithmeticContext.DEFAULT);
+		
+		for(Monomial mon : product.values) mon.setCoeff(Rational.reduce(mon.getCoeff().toBigIntegerExact(), denominator, pDenominator));
+		return product;
+	}
+	
 	public Polynomial multiply(Monomial m) {
 		//Returns a Polynomial object that represents the product of this Polynomial and the Monomial m
-		
-		Polynomial result = new Polynomial();
+		return multiply(m, ArithmeticContext.getDefault());
+	}
+	
+	public Polynomial multiply(Monomial m, ArithmeticContext context) {
+		//Every power is shifted by the same amount, so the order of the terms is preserved
+		List<Monomial> result = new ArrayList<Monomial>(this.values.size());
 		
 		for(Monomial mon : this.values) {
-			result.addValue(mon.multiply(m)); //For every Monomial in this Polynomial, multiply it by m
+			result.add(mon.multiply(m)); //For every Monomial in this Polynomial, multiply it by m
 		}
 		
-		return result;
+		return new Polynomial(result).rounded(context);
 	}
 	
 	public Polynomial[] divide(Polynomial p) {
 		//Returns a pair of Polynomials, signifying the quotient and the remainder of the division.
-		//May behave oddly if attempting to divide 0 or by 0
+		//The division itself is done by the default DivisionEngine, on the dense representation:
+		//it is exact for divisors with integer coefficients and a leading coefficient of 1 or -1,
+		//and rounds the quotient to a fixed number of decimals otherwise.
+		//Throws an ArithmeticException when dividing by 0
+		return divide(p, ArithmeticContext.getDefault());
+	}
+	
+	public Polynomial[] divide(Polynomial p, ArithmeticContext context) {
+		//The quotient decimals and quotient rounding mode come from the context, instead of the DivisionEngine's own.
+		//In an EXACT context the division never rounds: quotients and remainders may have fraction coefficients
+		long start = Metrics.start();
+		Polynomial[] result = quotientAndRemainder(p, context);
+		Metrics.record(Metrics.Operation.DIVIDE, start, result[0].values, this.values, p.values); //The size of the quotient
+		return result;
+	}
+	
+	private Polynomial[] quotientAndRemainder(Polynomial p, ArithmeticContext context) {
+		DensePolynomial divisor = p.toDense();
+		if(ArithmeticContext.Mode.EXACT == context.getMode() && (this.hasFractions() || p.hasFractions() || !DivisionEngine.getDefault().isExact(divisor))) {
+			return this.divideFractions(p);
+		}
+		DensePolynomial[] division = DivisionEngine.getDefault().divide(this.toDense(), divisor, context);
 		
 		Polynomial result[] = new Polynomial[2];
+		result[0] = division[0].toPolynomial().rounded(context);
+		result[1] = division[1].toPolynomial().rounded(context);
+		return result;
+	}
+	
+	private Polynomial[] divideFractions(Polynomial p) {
+		//Exact division: with this = A / d and p = B / e for integer A and B, dividing A by B over the fractions
+		//gives A = Q * B + R, so the quotient is Q * e / d and the remainder R / d
+		if(p.values.isEmpty()) throw new ArithmeticException("Division by the 0 polynomial");
+		BigInteger denominator = this.commonDenominator();
+		BigInteger pDenominator = p.commonDenominator();
+		Rational[][] division = DivisionEngine.fractionDivision(this.toIntegers(denominator).toDense(), p.toIntegers(pDenominator).toDense());
 		
-		Polynomial quotient = new Polynomial(); //A 0-Polynomial; the to-be quotient
-		Polynomial remainder = this.add(new Polynomial()); //Hacky way of assigning a copy of this polynomial to result[0]; the to-be 
+		Polynomial result[] = new Polynomial[2];
+		result[0] = fromRationals(division[0], Rational.valueOf(pDenominator, denominator));
+		result[1] = fromRationals(division[1], Rational.valueOf(BigInteger.ONE, denominator));
+		return result;
+	}
+	
+	public Polynomial gcd(Polynomial p) {
+		//Returns the greatest common divisor of this and p, with a positive leading coefficient; 0 if both are 0.
+		//The gcd is exact whatever the ArithmeticContext, as it is computed on the exact values of the coefficients:
+		//over the integers, through ModularGcd, after multiplying both by common denominators. It is scaled to the gcd
+		//of the contents, so that integer Polynomials have their usual gcd, such as 2x + 2 for 4x^2 - 4 and 6x + 6
+		BigInteger denominator = this.commonDenominator();
+		BigInteger pDenominator = p.commonDenominator();
+		BigInteger[] a = this.toIntegerArray(denominator);
+		BigInteger[] b = p.toIntegerArray(pDenominator);
+	
+		//For fractions in lowest terms, gcd(n1 / d1, n2 / d2) = gcd(n1, n2) / lcm(d1, d2)
+		Rational contentA = Rational.valueOf(ModularGcd.content(a), denominator).reduce();
+		Rational contentB = Rational.valueOf(ModularGcd.content(b), pDenominator).reduce();
+		BigInteger d1 = contentA.getDenominator();
+		BigInteger d2 = contentB.getDenominator();
+		Rational content = Rational.valueOf(contentA.getNumerator().gcd(contentB.getNumerator()), d1.divide(d1.gcd(d2)).multiply(d2));
+		return fromIntegers(ModularGcd.gcd(a, b), content);
+	}
+	
+	public List<Polynomial> squareFreeDecomposition() {
+		//Returns the square-free factors f1, ..., fk of this Polynomial, with this = f1 * f2^2 * ... * fk^k: the fi
+		//are pairwise coprime and have no repeated roots, so the roots of fi are exactly those of multiplicity i.
+		//f2, ..., fk have integer coefficients without common factor and a positive leading coefficient, and f1 also
+		//carries the constant factor. fi is 1 when no root has multiplicity i, and the list is empty for 0.
+		//Computed through Yun's algorithm, with exact derivatives and gcds
+		List<Polynomial> result = new ArrayList<Polynomial>();
+		if(this.values.isEmpty()) return result;
+		BigInteger denominator = this.commonDenominator();
+		BigInteger[] f = this.toIntegerArray(denominator);
+		BigInteger[] primitive = ModularGcd.normalize(f);
+		Rational content = Rational.valueOf(f[f.length - 1].divide(primitive[primitive.length - 1]), denominator);
+		if(1 == f.length) {
+			result.add(fromIntegers(primitive, content));
+			return result;
+		}
+	
+		for(BigInteger[] factor : ModularGcd.squareFree(primitive)) {
+			result.add(fromIntegers(factor, result.isEmpty() ? content : Rational.ONE));
+		}
+		return result;
+	}
+	
+	//Auxiliary methods
+	private Polynomial rounded(ArithmeticContext context) {
+		//Rounds the coefficients of a newly computed result according to the context, dropping the terms that become 0.
+		//Returns this Polynomial, which is modified in place. Like those of any Polynomial, its Monomials are never shared
+		//(see the in-place methods); the ones whose coefficient changes are replaced by new ones, the others are kept
+		if(!context.isRounding()) return this;
 		
-		while(!remainder.toString().equals("0")  &&  remainder.getHighestTerm().getPower() >= p.getHighestTerm().getPower()) {
-			//While the remainder is non-null and the p still "fits" into it (as in, the remainder's degree is no lower than p's), we go through the division procedure.
-			
-			Monomial newQuotientTerm = remainder.getHighestTerm().divide(p.getHighestTerm());
-			
-			quotient.addValue(newQuotientTerm);
-			remainder = remainder.subtract(p.multiply(newQuotientTerm));
-			
-			//Ugly-hack line to avoid getting stuck in infinite loops because of infinite fractions like 1/17
-			if(remainder.getHighestTerm().getCoeff().abs().compareTo(new BigDecimal("0.0001") ) < 0 ) { //For really small deviations, ignore this factor
-				remainder.addValue( remainder.getHighestTerm().negate() );
+		int kept = 0;
+		for(Monomial mon : this.values) {
+			BigDecimal coeff = context.round(mon.getCoeff());
+			if(0 == coeff.signum()) continue;
+			this.values.set(kept++, (coeff == mon.getCoeff()) ? mon : new Monomial(coeff, mon.getPower()));
+		}
+		this.values.subList(kept, this.values.size()).clear();
+		return this;
+	}
+	
+	Polynomial compact(ArithmeticContext context) {
+		//Package-private: rounds like rounded(), and also drops the terms that in-place arithmetic left at 0
+		if(context.isRounding()) return rounded(context);
+		int kept = 0;
+		for(Monomial mon : this.values) {
+			if(0 != mon.getCoeff().signum()) this.values.set(kept++, mon);
+		}
+		this.values.subList(kept, this.values.size()).clear();
+		return this;
+	}
+	
+	private boolean hasFractions() {
+		for(Monomial mon : this.values) {
+			if(mon.isFraction()) return true;
+		}
+		return false;
+	}
+	
+	private BigInteger commonDenominator() {
+		//Returns the least common multiple of the denominators of the coefficients.
+		//Decimals only need a power of ten, so there is one gcd per fraction coefficient and none per decimal
+		int scale = 0;
+		BigInteger fractions = BigInteger.ONE;
+		for(Monomial mon : this.values) {
+			if(mon.isFraction()) {
+				BigInteger d = mon.getRational().getDenominator();
+				fractions = fractions.divide(fractions.gcd(d)).multiply(d);
 			}
+			else scale = Math.max(scale, mon.getCoeff().scale());
 		}
 		
-		result[0] = quotient;
-		result[1] = remainder;
+		BigInteger decimals = BigInteger.TEN.pow(scale);
+		return fractions.divide(fractions.gcd(decimals)).multiply(decimals);
+	}
+	
+	private Polynomial toIntegers(BigInteger denominator) {
+		//Returns this Polynomial multiplied by a common denominator of its coefficients, which makes them all integers
+		List<Monomial> result = new ArrayList<Monomial>(this.values.size());
+		BigDecimal decimalDenominator = new BigDecimal(denominator);
+		for(Monomial mon : this.values) {
+			BigInteger coeff;
+			if(mon.isFraction()) coeff = mon.getRational().getNumerator().multiply(denominator.divide(mon.getRational().getDenominator()));
+			else coeff = mon.getCoeff().multiply(decimalDenominator).toBigIntegerExact();
+			result.add(new Monomial(new BigDecimal(coeff), mon.getPower()));
+		}
+		return new Polynomial(result);
+	}
+	
+	private BigInteger[] toIntegerArray(BigInteger denominator) {
+		//Like toIntegers, as an array of coefficients indexed by power
+		BigInteger[] result = new BigInteger[this.values.isEmpty() ? 0 : this.values.get(this.values.size() - 1).getPower() + 1];
+		Arrays.fill(result, BigInteger.ZERO);
+		for(Monomial mon : this.toIntegers(denominator).values) result[mon.getPower()] = mon.getCoeff().toBigIntegerExact();
 		return result;
 	}
+	
+	private static Polynomial fromIntegers(BigInteger[] coeffs, Rational factor) {
+		Rational[] rationals = new Rational[coeffs.length];
+		for(int i = 0; i < coeffs.length; i++) rationals[i] = Rational.valueOf(coeffs[i], BigInteger.ONE);
+		return fromRationals(rationals, factor);
+	}
+	
+	private static Polynomial fromRationals(Rational[] coeffs, Rational factor) {
+		//Returns the Polynomial whose coefficient of power i is coeffs[i] * factor
+		List<Monomial> result = new ArrayList<Monomial>();
+		for(int i = 0; i < coeffs.length; i++) {
+			if(0 != coeffs[i].signum()) result.add(new Monomial(coeffs[i].multiply(factor), i));
+		}
+		return new Polynomial(result);
+	}
+	
+	private double[] toDoubleArray() {
+		//Returns the coefficients rounded to doubles, indexed by power
+		double[] result = new double[this.values.isEmpty() ? 0 : this.values.get(this.values.size() - 1).getPower() + 1];
+		for(Monomial mon : this.values) result[mon.getPower()] = ArithmeticContext.toDouble(mon.getCoeff());
+		return result;
+	}
+	
+	private static Polynomial fromDoubles(double[] coeffs) {
+		List<Monomial> result = new ArrayList<Monomial>();
+		for(int i = 0; i < coeffs.length; i++) {
+			if(0 != coeffs[i]) result.add(new Monomial(ArithmeticContext.toDecimal(coeffs[i]), i));
+		}
+		return new Polynomial(result);
+	}
 }
@@ -0,0 +1,233 @@
+package model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+public class PolynomialCodec {
+	//Writes polynomials in a compact, versioned binary format, read back by PolynomialReader.
+	//The format is a fixed 24-byte header followed by the coefficients, all big-endian:
+	//
+	//  int   magic       0x504F4C59 ("POLY")
+	//  byte  version     FORMAT_VERSION
+	//  byte  flags       SPARSE and/or DECIMAL
+	//  short reserved    0
+	//  int   length      degree + 1, or 0 for the 0 polynomial
+	//  int   terms       number of encoded coefficients: length if dense, the non-zero terms if sparse
+	//  long  payload     size in bytes of everything after the header
+	//
+	//Dense polynomials store every coefficient from power 0 to the degree. Sparse ones store the non-zero terms only,
+	//each preceded by a varint with the gap from the previous power (the first one holds its power itself).
+	//Coefficients are zigzag varints when they are all integers fitting in a long; otherwise (DECIMAL) each is a
+	//zigzag varint scale, a varint byte count and the two's complement bytes of the unscaled value (none for 0).
+	//Integer coefficients are written by value, so a coefficient such as 3.00 is read back as 3.
+	//The payload size is written upfront, so readers never consume bytes past the end of a polynomial.
+
+	//Constants
+	static final int MAGIC = 0x504F4C59;
+	static final byte FORMAT_VERSION = 1;
+	static final int SPARSE = 1; //Flag: only non-zero terms are stored, with their powers
+	static final int DECIMAL = 2; //Flag: coefficients are stored as scale and unscaled bytes instead of longs
+	static final int HEADER_SIZE = 24;
+	static final int MAX_VARINT_SIZE = 10; //Bytes of the longest varint, for a 64-bit value
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final double SPARSE_FILL_RATIO = 0.5; //Below this share of non-zero powers, the sparse layout is smaller
+
+	//Attributes
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	//Constructors
+	private PolynomialCodec(WritableByteChannel channel) {
+		this.channel = channel;
+	}
+
+	//Writing methods
+	public static void write(Polynomial p, WritableByteChannel channel) throws IOException {
+		//Writes p to the channel, which is not closed
+		//Throws an IllegalArgumentException for fraction coefficients, which the format can't represent
+		List<Monomial> terms = p.getTerms();
+		int length = 0;
+		int nonZero = 0;
+		boolean decimal = false;
+		for(Monomial m : terms) {
+			if(m.isFraction()) throw new IllegalArgumentException("The binary format has no fraction coefficients: " + m);
+			if(0 == m.getCoeff().signum()) continue;
+			length = m.getPower() + 1; //Terms are sorted by power
+			nonZero++;
+			decimal = decimal || !isLong(m.getCoeff());
+		}
+		boolean sparse = nonZero < SPARSE_FILL_RATIO * length;
+
+		//First pass: the payload size, which goes in the header
+		long payload = 0;
+		int previous = 0;
+		for(Monomial m : terms) {
+			if(0 == m.getCoeff().signum()) continue;
+			if(sparse) payload += varintSize(m.getPower() - previous);
+			else payload += (long) (m.getPower() - previous) * zeroSize(decimal); //The zeros in the gap
+			payload += coefficientSize(m.getCoeff(), decimal);
+			previous = m.getPower() + (sparse ? 0 : 1);
+		}
+
+		PolynomialCodec codec = new PolynomialCodec(channel);
+		codec.header(sparse, decimal, length, sparse ? nonZero : length, payload);
+		previous = 0;
+		for(Monomial m : terms) {
+			if(0 == m.getCoeff().signum()) continue;
+			if(sparse) codec.varint(m.getPower() - previous);
+			else for(int k = previous; k < m.getPower(); k++) codec.coefficient(BigDecimal.ZERO, decimal);
+			codec.coefficient(m.getCoeff(), decimal);
+			previous = m.getPower() + (sparse ? 0 : 1);
+		}
+		codec.flush();
+	}
+
+	public static void write(DensePolynomial p, WritableByteChannel channel) throws IOException {
+		//Writes p to the channel, which is not closed. Compact coefficients are written straight from their longs
+		int length = p.getDegree() + 1;
+		boolean compact = p.isCompact();
+		int nonZero = 0;
+		boolean decimal = false;
+		for(int i = 0; i < length; i++) {
+			if(compact) {
+				if(0 != p.getLong(i)) nonZero++;
+			}
+			else {
+				BigDecimal c = p.getCoeff(i);
+				if(0 != c.signum()) nonZero++;
+				decimal = decimal || !isLong(c);
+			}
+		}
+		boolean sparse = nonZero < SPARSE_FILL_RATIO * length;
+
+		long payload = 0;
+		int previous = 0;
+		for(int i = 0; i < length; i++) {
+			if(compact) {
+				long c = p.getLong(i);
+				if(sparse && 0 == c) continue;
+				if(sparse) payload += varintSize(i - previous);
+				payload += varintSize(zigzag(c));
+			}
+			else {
+				BigDecimal c = p.getCoeff(i);
+				if(sparse && 0 == c.signum()) continue;
+				if(sparse) payload += varintSize(i - previous);
+				payload += coefficientSize(c, decimal);
+			}
+			previous = i;
+		}
+
+		PolynomialCodec codec = new PolynomialCodec(channel);
+		codec.header(sparse, decimal, length, sparse ? nonZero : length, payload);
+		previous = 0;
+		for(int i = 0; i < length; i++) {
+			if(compact) {
+				long c = p.getLong(i);
+				if(sparse && 0 == c) continue;
+				if(sparse) codec.varint(i - previous);
+				codec.varint(zigzag(c));
+			}
+			else {
+				BigDecimal c = p.getCoeff(i);
+				if(sparse && 0 == c.signum()) continue;
+				if(sparse) codec.varint(i - previous);
+				codec.coefficient(c, decimal);
+			}
+			previous = i;
+		}
+		codec.flush();
+	}
+
+	//Encoding helpers, shared with PolynomialReader
+	static long zigzag(long value) {
+		//Maps small negative and positive values alike to small unsigned ones: 0, -1, 1, -2... become 0, 1, 2, 3...
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static BigInteger unscaled(byte[] bytes) {
+		//Inverse of the DECIMAL encoding of the unscaled value: no bytes at all stand for 0
+		return (0 == bytes.length) ? BigInteger.ZERO : new BigInteger(bytes);
+	}
+
+	static int varintSize(long value) {
+		//Bytes taken by the unsigned varint of value: 7 bits per byte
+		int bits = 64 - Long.numberOfLeadingZeros(value | 1);
+		return (bits + 6) / 7;
+	}
+
+	//Auxiliary methods
+	private static boolean isLong(BigDecimal c) {
+		//Returns true if c is an integer written with at most 18 digits, which always fits in a long
+		if(c.scale() <= 0 && c.precision() - c.scale() <= 18) return true;
+		BigDecimal stripped = c.stripTrailingZeros();
+		return stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 18;
+	}
+
+	private static long coefficientSize(BigDecimal c, boolean decimal) {
+		if(!decimal) return varintSize(zigzag(c.longValue()));
+		if(0 == c.signum()) return zeroSize(true);
+		int bytes = c.unscaledValue().bitLength() / 8 + 1; //Same as the length of toByteArray()
+		return varintSize(zigzag(c.scale())) + varintSize(bytes) + bytes;
+	}
+
+	private static int zeroSize(boolean decimal) {
+		return decimal ? 2 : 1; //A 0 scale and a 0 byte count, or the varint 0
+	}
+
+	private void header(boolean sparse, boolean decimal, int length, int terms, long payload) {
+		buffer.putInt(MAGIC);
+		buffer.put(FORMAT_VERSION);
+		buffer.put((byte) ((sparse ? SPARSE : 0) | (decimal ? DECIMAL : 0)));
+		buffer.putShort((short) 0);
+		buffer.putInt(length);
+		buffer.putInt(terms);
+		buffer.putLong(payload);
+	}
+
+	private void coefficient(BigDecimal c, boolean decimal) throws IOException {
+		if(!decimal) {
+			varint(zigzag(c.longValue()));
+			return;
+		}
+		if(0 == c.signum()) {
+			varint(0);
+			varint(0);
+			return;
+		}
+		byte[] bytes = c.unscaledValue().toByteArray();
+		varint(zigzag(c.scale()));
+		varint(bytes.length);
+		if(bytes.length <= buffer.remaining()) {
+			buffer.put(bytes);
+			return;
+		}
+		//Too large for the space left: write it straight from the array
+		flush();
+		ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+		while(wrapped.hasRemaining()) channel.write(wrapped);
+	}
+
+	private void varint(long value) throws IOException {
+		if(buffer.remaining() < MAX_VARINT_SIZE) flush();
+		while((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -0,0 +1,246 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PolynomialFormatter {
+	//Writes polynomials in the format of Polynomial.toString, such as "- 3 + x - 0.5x^2 + 17x^4":
+	//terms from the lowest power up, zero terms skipped, a coefficient of 1 (or -1) written as just the x part,
+	//a leading "- " for a negative first term, and "0" for a polynomial without terms.
+	//Fraction coefficients are written exactly, such as "x + (1/3)x^3".
+	//
+	//Everything is appended in a single pass. Output to a StringBuilder goes straight into it; any other
+	//Appendable (such as a Writer) receives the text in chunks of about FLUSH_SIZE characters, so huge
+	//polynomials can be streamed without ever building the whole String.
+	//The digits of small integer coefficients come from a table computed once, and other integer coefficients
+	//that fit in a long are appended as longs, so only decimal coefficients need BigDecimal.toPlainString.
+	//Each formatter writes a single polynomial; the static methods create one per call.
+
+	//Constants
+	private static final int FLUSH_SIZE = 8192; //Characters buffered before they are passed on to a non-StringBuilder Appendable
+	private static final String[] SMALL_INTEGERS = new String[1024]; //Decimal digits of 0 to 1023
+
+	static {
+		for(int i = 0; i < SMALL_INTEGERS.length; i++) SMALL_INTEGERS[i] = Integer.toString(i);
+	}
+
+	//Attributes
+	private final Appendable out;
+	private final StringBuilder buffer; //out itself, when it is a StringBuilder
+	private boolean empty = true; //No term written yet
+
+	//Constructors
+	private PolynomialFormatter(Appendable out) {
+		this.out = out;
+		this.buffer = (out instanceof StringBuilder) ? (StringBuilder) out : new StringBuilder(FLUSH_SIZE + 64);
+	}
+
+	//Formatting methods
+	public static String format(Polynomial p) {
+		StringBuilder result = new StringBuilder(16 * p.getTerms().size() + 1);
+		format(p, result);
+		return result.toString();
+	}
+
+	public static void format(Polynomial p, StringBuilder out) {
+		try {
+			format(p, (Appendable) out);
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e); //StringBuilder never throws
+		}
+	}
+
+	public static void format(Polynomial p, Appendable out) throws IOException {
+		//Appends p to out, flushing it to out in chunks if out isn't a StringBuilder
+		long start = Metrics.start();
+		PolynomialFormatter formatter = new PolynomialFormatter(out);
+		List<Monomial> terms = p.getTerms();
+		for(int i = 0; i < terms.size(); i++) {
+			Monomial mon = terms.get(i);
+			if(mon.isFraction()) formatter.term(mon.getRational(), mon.getPower());
+			else formatter.term(mon.getCoeff(), mon.getPower());
+		}
+		formatter.finish();
+		Metrics.record(Metrics.Operation.FORMAT, start, terms, null, null);
+	}
+
+	public static String format(DensePolynomial p) {
+		StringBuilder result = new StringBuilder(8 * (p.getDegree() + 1) + 1);
+		try {
+			format(p, result);
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e); //StringBuilder never throws
+		}
+		return result.toString();
+	}
+
+	public static void format(DensePolynomial p, Appendable out) throws IOException {
+		//Appends p to out; compact coefficients are written straight from their longs
+		PolynomialFormatter formatter = new PolynomialFormatter(out);
+		int degree = p.getDegree();
+		if(p.isCompact()) {
+			for(int i = 0; i <= degree; i++) formatter.term(p.getLong(i), i);
+		}
+		else {
+			for(int i = 0; i <= degree; i++) formatter.term(p.getCoeff(i), i);
+		}
+		formatter.finish();
+	}
+
+	public static String format(SparsePolynomial p) {
+		StringBuilder result = new StringBuilder(16 * p.getTermCount() + 1);
+		try {
+			format(p, result);
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e); //StringBuilder never throws
+		}
+		return result.toString();
+	}
+
+	public static void format(SparsePolynomial p, Appendable out) throws IOException {
+		//Appends p to out; compact coefficients are written straight from their longs
+		PolynomialFormatter formatter = new PolynomialFormatter(out);
+		int terms = p.getTermCount();
+		if(p.isCompact()) {
+			for(int i = 0; i < terms; i++) formatter.term(p.getLongAt(i), p.getPowerAt(i));
+		}
+		else {
+			for(int i = 0; i < terms; i++) formatter.term(p.getCoeffAt(i), p.getPowerAt(i));
+		}
+		formatter.finish();
+	}
+
+	public static String format(ImmutablePolynomial p) {
+		StringBuilder result = new StringBuilder(16 * p.getTermCount() + 1);
+		format(p, result);
+		return result.toString();
+	}
+
+	public static void format(ImmutablePolynomial p, StringBuilder out) {
+		try {
+			format(p, (Appendable) out);
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e); //StringBuilder never throws
+		}
+	}
+
+	public static void format(ImmutablePolynomial p, Appendable out) throws IOException {
+		long start = Metrics.start();
+		PolynomialFormatter formatter = new PolynomialFormatter(out);
+		int terms = p.getTermCount();
+		for(int i = 0; i < terms; i++) {
+			Rational fraction = p.fractionAt(i);
+			if(null != fraction) formatter.term(fraction, p.getPowerAt(i));
+			else formatter.term(p.getCoeffAt(i), p.getPowerAt(i));
+		}
+		formatter.finish();
+		Metrics.record(Metrics.Operation.FORMAT, start, p, null, null);
+	}
+
+	public static String format(ModPolynomial p) {
+		StringBuilder result = new StringBuilder(8 * (p.getDegree() + 1) + 1);
+		try {
+			format(p, result);
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e); //StringBuilder never throws
+		}
+		return result.toString();
+	}
+
+	public static void format(ModPolynomial p, Appendable out) throws IOException {
+		//Appends p to out, with every coefficient in [0, p)
+		PolynomialFormatter formatter = new PolynomialFormatter(out);
+		int degree = p.getDegree();
+		for(int i = 0; i <= degree; i++) formatter.term(p.getCoeff(i), i);
+		formatter.finish();
+	}
+
+	//Auxiliary methods
+	private void term(BigDecimal coeff, int power) throws IOException {
+		int sign = coeff.signum();
+		if(0 == sign) return;
+		sign(sign);
+
+		if(coeff.scale() == 0 && coeff.precision() <= 18) {
+			absolute(Math.abs(coeff.longValue()), power);
+		}
+		else {
+			BigDecimal stripped = coeff.stripTrailingZeros();
+			if(stripped.scale() <= 0 && stripped.precision() - stripped.scale() <= 18) {
+				absolute(Math.abs(stripped.longValue()), power);
+			}
+			else {
+				buffer.append(stripped.abs().toPlainString());
+				variable(power);
+			}
+		}
+		afterTerm();
+	}
+
+	private void term(Rational coeff, int power) throws IOException {
+		//Fractions are written in parentheses before the x part, such as (5/6)x^2, and plainly for constants
+		sign(coeff.signum());
+		if(0 != power) buffer.append('(');
+		buffer.append(coeff.signum() < 0 ? coeff.negate() : coeff);
+		if(0 != power) buffer.append(')');
+		variable(power);
+		afterTerm();
+	}
+
+	private void term(long coeff, int power) throws IOException {
+		if(0 == coeff) return;
+		sign(Long.signum(coeff));
+
+		if(Long.MIN_VALUE == coeff) { //The only long whose absolute value isn't a long
+			buffer.append("9223372036854775808");
+			variable(power);
+		}
+		else absolute(Math.abs(coeff), power);
+		afterTerm();
+	}
+
+	private void sign(int sign) {
+		if(empty) {
+			if(sign < 0) buffer.append("- ");
+			empty = false;
+		}
+		else buffer.append((sign < 0) ? " - " : " + ");
+	}
+
+	private void absolute(long value, int power) {
+		//Appends a non-negative integer coefficient and the x part; a coefficient of 1 is implicit, except for constants
+		if(1 != value || 0 == power) {
+			if(value < SMALL_INTEGERS.length) buffer.append(SMALL_INTEGERS[(int) value]);
+			else buffer.append(value);
+		}
+		variable(power);
+	}
+
+	private void variable(int power) {
+		if(0 == power) return;
+		buffer.append('x');
+		if(1 != power) buffer.append('^').append(power);
+	}
+
+	private void afterTerm() throws IOException {
+		if(buffer != out && buffer.length() >= FLUSH_SIZE) flush();
+	}
+
+	private void finish() throws IOException {
+		if(empty) buffer.append('0');
+		flush();
+	}
+
+	private void flush() throws IOException {
+		if(buffer == out) return;
+		out.append(buffer);
+		buffer.setLength(0);
+	}
+}
@@ -0,0 +1,19 @@
+package model;
+
+public class PolynomialParseException extends IllegalArgumentException {
+	//Thrown by PolynomialParser for malformed input, with the position (in characters from the start of the input) of the offending token
+
+	private static final long serialVersionUID = 1L;
+
+	//Attributes
+	private final long position;
+
+	//Constructors
+	public PolynomialParseException(String message, long position) {
+		super(message + " at position " + position);
+		this.position = position;
+	}
+
+	//Getters & setters
+	public long getPosition() { return this.position; }
+}
@@ -0,0 +1,246 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PolynomialParser {
+	//Hand-written parser for the coefficient lists accepted by Polynomial(String): coefficients from the
+	//lowest power to the highest, separated by whitespace and/or commas, such as "0 17 -3 0 5" or "1.5, -2, 0.25".
+	//Coefficients may be integers or decimals, with an optional sign and exponent (such as -2.5e3),
+	//and may be followed by an integer denominator, for exact fractions such as 1/3 or -2.5/7.
+	//
+	//The input is scanned one character at a time, without regular expressions or intermediate Strings:
+	//coefficients of up to 18 digits are accumulated straight into a long and an exponent, and only longer ones
+	//go through the BigDecimal(char[]) constructor. Terms come out already sorted by power, so they are appended
+	//to the term list in order. Readers and InputStreams are read through a fixed-size buffer, so arbitrarily
+	//long inputs are never held in memory as a whole.
+	//Each parser instance reads a single input; the static methods create one per call.
+
+	//Constants
+	private static final int BUFFER_SIZE = 8192;
+	private static final int MAX_LONG_DIGITS = 18; //Any number of at most 18 decimal digits fits in a long
+	private static final int END = -1;
+
+	//Attributes
+	private final Reader reader; //Source of the characters, or null if they all come from buffer/text
+	private final CharSequence text; //Source of the characters, or null
+	private int textPosition; //Next character of text to be copied into the buffer
+	private char[] buffer;
+	private int position; //Next character of the buffer to be read
+	private int limit; //End of the valid characters in the buffer
+	private long consumed; //Number of input characters before buffer[0], for error positions
+	private final boolean lenient; //Stop at the first malformed coefficient instead of throwing
+
+	private char[] token = new char[32]; //Characters of the current coefficient, for the slow path
+	private int tokenLength;
+	private BigInteger denominator; //Denominator of the coefficient just read, or null if it isn't a fraction
+
+	//Constructors
+	private PolynomialParser(Reader reader, CharSequence text, char[] buffer, int offset, int length, boolean lenient) {
+		this.reader = reader;
+		this.text = text;
+		this.buffer = buffer;
+		this.position = offset;
+		this.limit = offset + length;
+		this.consumed = -offset;
+		this.lenient = lenient;
+	}
+
+	//Parsing methods
+	public static Polynomial parse(CharSequence text) {
+		//Parses text, throwing a PolynomialParseException if it contains anything but coefficients and separators
+		return new Polynomial(parseTerms(text, false));
+	}
+
+	public static Polynomial parse(char[] text, int offset, int length) {
+		//Parses the given range of text in place, without copying it
+		PolynomialParser parser = new PolynomialParser(null, null, text, offset, length, false);
+		try {
+			return new Polynomial(parser.readTerms(length / 2 + 1));
+		}
+		catch(IOException e) {
+			throw new IllegalStateException(e); //Can't happen without a Reader
+		}
+	}
+
+	public static Polynomial parse(Reader reader) throws IOException {
+		//Parses everything the reader provides; the reader is not closed
+		return new Polynomial(new PolynomialParser(reader, null, new char[BUFFER_SIZE], 0, 0, false).readTerms(16));
+	}
+
+	public static Polynomial parse(InputStream stream) throws IOException {
+		//Parses everything the stream provides, as UTF-8 text; the stream is not closed
+		return parse(new InputStreamReader(stream, StandardCharsets.UTF_8));
+	}
+
+	static List<Monomial> parseTerms(CharSequence text, boolean lenient) {
+		//Returns the terms of text; a lenient parse stops at the first malformed coefficient instead of throwing
+		char[] buffer = new char[Math.min(Math.max(text.length(), 1), BUFFER_SIZE)];
+		PolynomialParser parser = new PolynomialParser(null, text, buffer, 0, 0, lenient);
+		try {
+			return parser.readTerms(text.length() / 2 + 1); //At most one coefficient every 2 characters
+		}
+		catch(IOException e) {
+			throw new IllegalStateException(e); //Can't happen without a Reader
+		}
+	}
+
+	private List<Monomial> readTerms(int expectedTerms) throws IOException {
+		long begin = Metrics.start();
+		List<Monomial> terms = new ArrayList<Monomial>(Math.min(expectedTerms, BUFFER_SIZE));
+		int power = 0;
+
+		for(int c = skipSeparators(); END != c; c = skipSeparators()) {
+			long start = consumed + position - 1;
+			BigDecimal coeff = readCoefficient(c, start);
+			if(null == coeff) break; //Malformed, in lenient mode
+
+			if(0 != coeff.signum()) {
+				if(null == denominator) terms.add(new Monomial(coeff, power));
+				else terms.add(new Monomial(Rational.valueOf(coeff).multiply(Rational.valueOf(BigInteger.ONE, denominator)), power));
+			}
+			power++;
+		}
+		Metrics.record(Metrics.Operation.PARSE, begin, terms, null, null);
+		return terms;
+	}
+
+	private BigDecimal readCoefficient(int c, long start) throws IOException {
+		//Reads a coefficient whose first character c has already been consumed.
+		//Returns null (lenient) or throws (strict) if it is malformed
+		tokenLength = 0;
+		denominator = null;
+		boolean negative = false;
+		if('+' == c || '-' == c) {
+			negative = ('-' == c);
+			c = append(c);
+		}
+
+		long unscaled = 0;
+		int digits = 0; //Significant digits accumulated into unscaled
+		int scale = 0;
+		boolean slowPath = false; //Too many digits, or an exponent: let BigDecimal parse the token
+		boolean anyDigit = false;
+
+		for(; isDigit(c); c = append(c)) {
+			anyDigit = true;
+			if(digits < MAX_LONG_DIGITS) {
+				unscaled = 10 * unscaled + (c - '0');
+				if(0 != unscaled) digits++;
+			}
+			else slowPath = true;
+		}
+		if('.' == c) {
+			for(c = append(c); isDigit(c); c = append(c)) {
+				anyDigit = true;
+				if(digits < MAX_LONG_DIGITS) {
+					unscaled = 10 * unscaled + (c - '0');
+					if(0 != unscaled) digits++;
+					scale++;
+				}
+				else slowPath = true;
+			}
+		}
+		if(anyDigit && ('e' == c || 'E' == c)) {
+			slowPath = true;
+			c = append(c);
+			if('+' == c || '-' == c) c = append(c);
+			if(!isDigit(c)) return malformed(c, start);
+			while(isDigit(c)) c = append(c);
+		}
+		if(anyDigit && '/' == c) {
+			//The denominator goes after the numerator in the token, which is cut back to the numerator afterwards
+			int numeratorLength = tokenLength;
+			long small = 0;
+			int denominatorDigits = 0;
+			for(c = append(c); isDigit(c); c = append(c)) {
+				if(denominatorDigits < MAX_LONG_DIGITS) small = 10 * small + (c - '0');
+				denominatorDigits++;
+			}
+			if(0 == denominatorDigits) return malformed(c, start);
+			if(denominatorDigits <= MAX_LONG_DIGITS) denominator = BigInteger.valueOf(small);
+			else denominator = new BigInteger(new String(token, numeratorLength + 1, tokenLength - numeratorLength - 1));
+			if(0 == denominator.signum()) return malformed(END, start); //Division by 0
+			tokenLength = numeratorLength;
+		}
+
+		if(!anyDigit || !(END == c || isSeparator(c))) return malformed(c, start);
+
+		if(slowPath) {
+			try {
+				return new BigDecimal(token, 0, tokenLength);
+			}
+			catch(NumberFormatException e) {
+				return malformed(END, start); //Such as an exponent out of the int range
+			}
+		}
+		return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+	}
+
+	private BigDecimal malformed(int c, long start) {
+		if(lenient) return null;
+		if(END == c || isSeparator(c)) throw new PolynomialParseException("Malformed coefficient", start);
+		throw new PolynomialParseException("Unexpected character '" + (char) c + "'", consumed + position - 1);
+	}
+
+	//Auxiliary methods
+	private int skipSeparators() throws IOException {
+		//Returns the first character that isn't a separator, or END
+		int c;
+		do {
+			c = next();
+		} while(END != c && isSeparator(c));
+		return c;
+	}
+
+	private int append(int c) throws IOException {
+		//Adds c to the current token and returns the following character
+		if(tokenLength == token.length) token = Arrays.copyOf(token, 2 * token.length);
+		token[tokenLength++] = (char) c;
+		return next();
+	}
+
+	private int next() throws IOException {
+		if(position == limit && !refill()) return END;
+		return buffer[position++];
+	}
+
+	private boolean refill() throws IOException {
+		//Replaces the buffer contents with the next chunk of input; returns false at the end of the input
+		consumed += limit;
+		position = 0;
+		limit = 0;
+
+		if(null != text) {
+			int count = Math.min(buffer.length, text.length() - textPosition);
+			if(text instanceof String) ((String) text).getChars(textPosition, textPosition + count, buffer, 0);
+			else for(int i = 0; i < count; i++) buffer[i] = text.charAt(textPosition + i);
+			textPosition += count;
+			limit = count;
+		}
+		else if(null != reader) {
+			int count;
+			do {
+				count = reader.read(buffer, 0, buffer.length);
+			} while(0 == count);
+			limit = Math.max(count, 0);
+		}
+		return limit > 0;
+	}
+
+	private static boolean isDigit(int c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isSeparator(int c) {
+		return ',' == c || ' ' == c || '\t' == c || '\n' == c || '\r' == c || Character.isWhitespace(c);
+	}
+}
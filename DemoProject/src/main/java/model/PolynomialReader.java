@@ -0,0 +1,262 @@
+package model;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PolynomialReader implements Closeable {
+	//Reads a polynomial in the binary format written by PolynomialCodec, one term at a time:
+	//
+	//  try(PolynomialReader reader = PolynomialReader.map(path)) {
+	//      while(reader.next()) use(reader.getPower(), reader.getCoeff());
+	//  }
+	//
+	//or all at once, through readPolynomial() and readDense().
+	//A reader over a ReadableByteChannel goes through a small heap buffer and consumes exactly the bytes of
+	//one polynomial, so several of them can be read in a row from the same channel.
+	//A reader over a file maps it in windows of WINDOW_SIZE bytes and decodes the terms straight from the mapping,
+	//so files much larger than the heap can be processed term by term; the heap never holds more than one term.
+	//Integer coefficients can be read as longs through getLong(), which allocates nothing.
+
+	//Constants
+	private static final int BUFFER_SIZE = 1 << 16; //Heap buffer for channels
+	private static final long WINDOW_SIZE = 1L << 28; //Bytes of a file mapped at a time
+
+	//Attributes
+	private final ReadableByteChannel channel; //Source of a buffered reader, or null
+	private long unread; //Bytes of the polynomial still in the channel, past the buffer
+
+	private final FileChannel file; //Source of a mapped reader, or null
+	private final boolean ownsFile; //The file was opened by map(Path), so close() closes it
+	private long windowStart; //Position in the file of buffer[0]
+	private long end; //Position in the file right after the polynomial
+
+	private ByteBuffer buffer;
+	private final boolean sparse;
+	private final boolean decimal;
+	private final int length; //Degree + 1
+	private final int termCount;
+	private final long payloadSize;
+
+	private int termsLeft; //Encoded terms not read yet
+	private int power = -1; //Power of the current term
+	private long longCoeff; //Coefficient of the current term, unless decimal
+	private BigDecimal decimalCoeff; //Coefficient of the current term, if decimal
+
+	//Constructors
+	public PolynomialReader(ReadableByteChannel channel) throws IOException {
+		//Reads the header of the polynomial at the current position of the channel, which must be blocking.
+		//The channel is not closed by close()
+		this.channel = channel;
+		this.file = null;
+		this.ownsFile = false;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		this.buffer.limit(0);
+		this.unread = PolynomialCodec.HEADER_SIZE;
+
+		ensure(PolynomialCodec.HEADER_SIZE);
+		int flags = readHeader();
+		this.sparse = 0 != (flags & PolynomialCodec.SPARSE);
+		this.decimal = 0 != (flags & PolynomialCodec.DECIMAL);
+		this.length = buffer.getInt();
+		this.termCount = buffer.getInt();
+		this.payloadSize = buffer.getLong();
+		checkHeader();
+		this.unread = payloadSize;
+		this.termsLeft = termCount;
+	}
+
+	private PolynomialReader(FileChannel file, long position, boolean ownsFile) throws IOException {
+		this.channel = null;
+		this.file = file;
+		this.ownsFile = ownsFile;
+		long fileSize = file.size();
+		if(fileSize - position < PolynomialCodec.HEADER_SIZE) throw new EOFException("No polynomial header at position " + position);
+		this.windowStart = position;
+		this.buffer = file.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, fileSize - position));
+
+		int flags = readHeader();
+		this.sparse = 0 != (flags & PolynomialCodec.SPARSE);
+		this.decimal = 0 != (flags & PolynomialCodec.DECIMAL);
+		this.length = buffer.getInt();
+		this.termCount = buffer.getInt();
+		this.payloadSize = buffer.getLong();
+		checkHeader();
+		this.end = position + PolynomialCodec.HEADER_SIZE + payloadSize;
+		if(end > fileSize) throw new EOFException("The polynomial at position " + position + " is truncated");
+		this.termsLeft = termCount;
+	}
+
+	public static PolynomialReader map(Path path) throws IOException {
+		//Maps the polynomial at the start of the file; close() closes the file
+		FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new PolynomialReader(file, 0, true);
+		}
+		catch(IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	public static PolynomialReader map(FileChannel file, long position) throws IOException {
+		//Maps the polynomial starting at the given position of the file, which is left open by close().
+		//The next polynomial of the file, if any, starts at position + getEncodedSize()
+		return new PolynomialReader(file, position, false);
+	}
+
+	//Getters & setters
+	public int getDegree() { return this.length - 1; }
+	public boolean isSparse() { return this.sparse; }
+	public boolean isDecimal() { return this.decimal; }
+	public long getEncodedSize() { return PolynomialCodec.HEADER_SIZE + this.payloadSize; }
+
+	public int getPower() {
+		//Power of the current term, the one read by the last call to next()
+		return this.power;
+	}
+
+	public BigDecimal getCoeff() {
+		//Coefficient of the current term
+		return decimal ? decimalCoeff : BigDecimal.valueOf(longCoeff);
+	}
+
+	public long getLong() {
+		//Coefficient of the current term, for polynomials whose coefficients are not decimal
+		if(decimal) throw new IllegalStateException("The coefficients are decimal; use getCoeff()");
+		return this.longCoeff;
+	}
+
+	//Reading methods
+	public boolean next() throws IOException {
+		//Moves to the next term with a non-zero coefficient; returns false once there are none left
+		while(termsLeft > 0) {
+			termsLeft--;
+			if(sparse) {
+				long gap = varint();
+				long nextPower = (power < 0) ? gap : power + gap; //The first gap holds the power itself
+				if(nextPower >= length || (power >= 0 && 0 == gap)) throw new StreamCorruptedException("Invalid power");
+				power = (int) nextPower;
+			}
+			else power++;
+
+			if(decimal) {
+				decimalCoeff = readDecimal();
+				if(0 != decimalCoeff.signum()) return true;
+			}
+			else {
+				longCoeff = PolynomialCodec.unzigzag(varint());
+				if(0 != longCoeff) return true;
+			}
+		}
+		return false;
+	}
+
+	public Polynomial readPolynomial() throws IOException {
+		//Returns a Polynomial holding the terms not read yet
+		List<Monomial> terms = new ArrayList<Monomial>(sparse ? termsLeft : Math.min(termsLeft, BUFFER_SIZE));
+		while(next()) terms.add(new Monomial(getCoeff(), power));
+		return new Polynomial(terms);
+	}
+
+	public DensePolynomial readDense() throws IOException {
+		//Returns a DensePolynomial holding the terms not read yet; integer coefficients go straight into its long[]
+		if(!decimal) {
+			long[] coeffs = new long[length];
+			while(next()) coeffs[power] = longCoeff;
+			return new DensePolynomial(coeffs);
+		}
+		BigDecimal[] coeffs = new BigDecimal[length];
+		while(next()) coeffs[power] = decimalCoeff;
+		return new DensePolynomial(coeffs);
+	}
+
+	public void close() throws IOException {
+		buffer = null; //Lets the mapping go
+		if(ownsFile) file.close();
+	}
+
+	//Auxiliary methods
+	private int readHeader() throws IOException {
+		//Checks the fixed start of the header and returns the flags
+		if(PolynomialCodec.MAGIC != buffer.getInt()) throw new StreamCorruptedException("Not a polynomial");
+		byte version = buffer.get();
+		if(PolynomialCodec.FORMAT_VERSION != version) throw new StreamCorruptedException("Unsupported polynomial format version " + version);
+		int flags = buffer.get();
+		buffer.getShort(); //Reserved
+		return flags;
+	}
+
+	private void checkHeader() throws IOException {
+		if(length < 0 || payloadSize < 0 || termCount < 0 || termCount > length || (!sparse && termCount != length)) {
+			throw new StreamCorruptedException("Invalid polynomial header");
+		}
+	}
+
+	private long varint() throws IOException {
+		ensure((int) Math.min(PolynomialCodec.MAX_VARINT_SIZE, remaining()));
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			if(!buffer.hasRemaining()) break;
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if(b >= 0) return value;
+		}
+		throw new StreamCorruptedException("Invalid varint");
+	}
+
+	private BigDecimal readDecimal() throws IOException {
+		int scale = (int) PolynomialCodec.unzigzag(varint());
+		long count = varint();
+		if(count > remaining()) throw new StreamCorruptedException("Invalid coefficient size");
+		if(0 == count) return BigDecimal.ZERO;
+
+		ensure((int) count);
+		byte[] bytes = new byte[(int) count];
+		buffer.get(bytes);
+		return new BigDecimal(PolynomialCodec.unscaled(bytes), scale);
+	}
+
+	private long remaining() {
+		//Bytes of the polynomial not decoded yet
+		if(null != file) return end - windowStart - buffer.position();
+		return buffer.remaining() + unread;
+	}
+
+	private void ensure(int count) throws IOException {
+		//Makes sure the buffer holds at least count bytes past its position, which must not go past the polynomial
+		if(buffer.remaining() >= count) return;
+
+		if(null != file) {
+			//Map a new window starting at the current position
+			long position = windowStart + buffer.position();
+			windowStart = position;
+			buffer = file.map(FileChannel.MapMode.READ_ONLY, position, Math.max(Math.min(WINDOW_SIZE, end - position), count));
+			return;
+		}
+
+		buffer.compact();
+		if(buffer.capacity() < count) {
+			ByteBuffer larger = ByteBuffer.allocate(count);
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+		while(buffer.position() < count) {
+			buffer.limit((int) Math.min(buffer.capacity(), buffer.position() + unread));
+			int read = channel.read(buffer);
+			if(read < 0) throw new EOFException("The polynomial is truncated");
+			unread -= read;
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,66 @@
+package model;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+public final class Progress {
+	//Progress reporting and cooperative cancellation for the long-running loops of the model, those of the
+	//DivisionEngine for now. A task run through run(listener, task) reports to listener, on the thread running
+	//the task, the percentage of the current loop that is done, whenever it changes; outside of run(), the
+	//loops report nothing.
+	//Either way, the loops check the interrupted flag of their thread at every step, and stop with a
+	//CancellationException once it is set, so interrupting a computation (as Future.cancel(true) does) cancels it.
+	//A single multiplication isn't interrupted halfway: it is only cancelled at the next step of a loop.
+
+	//The listener of the task running on each thread, if any
+	private static final ThreadLocal<Tracker> TRACKER = new ThreadLocal<Tracker>();
+
+	//Types
+	public interface Listener {
+		//Called with the percentage (0 to 100) of the loop in progress that is done
+		void progress(int percent);
+	}
+
+	private static final class Tracker {
+		private final Listener listener;
+		private int percent = -1; //Last reported percentage
+
+		private Tracker(Listener listener) {
+			this.listener = listener;
+		}
+	}
+
+	//Constructors
+	private Progress() {}
+
+	//Tasks
+	public static <T> T run(Listener listener, Supplier<T> task) {
+		//Runs task on this thread, reporting the progress of its loops to listener
+		Tracker outer = TRACKER.get();
+		TRACKER.set(new Tracker(listener));
+		try {
+			return task.get();
+		}
+		finally {
+			if(null == outer) TRACKER.remove();
+			else TRACKER.set(outer);
+		}
+	}
+
+	public static void checkCancelled() {
+		//Throws a CancellationException if this thread was interrupted, leaving it interrupted
+		if(Thread.currentThread().isInterrupted()) throw new CancellationException("The computation was cancelled");
+	}
+
+	static void step(long done, long total) {
+		//Package-private: a step of a loop, which has done that much of its total work so far
+		checkCancelled();
+		Tracker tracker = TRACKER.get();
+		if(null == tracker || total <= 0) return;
+		int percent = (int) Math.min(100, 100 * done / total);
+		if(percent != tracker.percent) {
+			tracker.percent = percent;
+			tracker.listener.progress(percent);
+		}
+	}
+}
@@ -0,0 +1,272 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+public final class Rational extends Number implements Comparable<Rational> {
+	//Exact fraction numerator / denominator, with a positive denominator.
+	//While both parts fit in a long they are kept as longs, and the operations run on longs without allocating
+	//any BigInteger; an operation that overflows is redone on BigIntegers, and its result goes back to longs
+	//as soon as it fits again.
+	//Results are not reduced to lowest terms: a gcd per operation would cost more than the operation itself,
+	//and most intermediate values are never looked at. reduce() divides out the gcd when the caller needs it,
+	//typically once per final value (Monomial does it for every fraction coefficient). Sums of fractions with
+	//the same denominator keep that denominator, so accumulating over a common denominator doesn't grow it.
+	//Equal fractions are equal and have the same hashCode, whether they are reduced or not.
+
+	private static final long serialVersionUID = 1L;
+
+	//Constants
+	public static final Rational ZERO = new Rational(0, 1, true);
+	public static final Rational ONE = new Rational(1, 1, true);
+	private static final BigInteger FIVE = BigInteger.valueOf(5);
+	private static final long[] LONG_POWERS_OF_TEN = new long[19]; //The powers of ten that fit in a long
+
+	static {
+		LONG_POWERS_OF_TEN[0] = 1;
+		for(int i = 1; i < LONG_POWERS_OF_TEN.length; i++) LONG_POWERS_OF_TEN[i] = 10 * LONG_POWERS_OF_TEN[i - 1];
+	}
+
+	//Attributes
+	private final long num; //Parts of the fraction, when bigNum is null
+	private final long den;
+	private final BigInteger bigNum; //Parts of the fraction when they don't both fit in a long, otherwise null
+	private final BigInteger bigDen;
+	private final boolean reduced; //Known to be in lowest terms
+
+	//Constructors
+	private Rational(long num, long den, boolean reduced) {
+		//den must be positive
+		this.num = num;
+		this.den = den;
+		this.bigNum = null;
+		this.bigDen = null;
+		this.reduced = reduced;
+	}
+
+	private Rational(BigInteger num, BigInteger den, boolean reduced) {
+		//den must be positive; use of() instead, which picks the long form when it fits
+		this.num = 0;
+		this.den = 0;
+		this.bigNum = num;
+		this.bigDen = den;
+		this.reduced = reduced;
+	}
+
+	private static Rational of(BigInteger num, BigInteger den, boolean reduced) {
+		if(num.bitLength() < 64 && den.bitLength() < 64) return new Rational(num.longValue(), den.longValue(), reduced);
+		return new Rational(num, den, reduced);
+	}
+
+	public static Rational valueOf(long value) {
+		return new Rational(value, 1, true);
+	}
+
+	public static Rational valueOf(long numerator, long denominator) {
+		//Throws an ArithmeticException for a 0 denominator
+		if(0 == denominator) throw new ArithmeticException("Division by 0");
+		if(denominator > 0) return new Rational(numerator, denominator, false);
+		if(Long.MIN_VALUE != numerator && Long.MIN_VALUE != denominator) return new Rational(-numerator, -denominator, false);
+		return valueOf(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+	}
+
+	public static Rational valueOf(BigInteger numerator, BigInteger denominator) {
+		//Throws an ArithmeticException for a 0 denominator
+		int sign = denominator.signum();
+		if(0 == sign) throw new ArithmeticException("Division by 0");
+		return (sign > 0) ? of(numerator, denominator, false) : of(numerator.negate(), denominator.negate(), false);
+	}
+
+	public static Rational valueOf(BigDecimal value) {
+		//The exact value of a BigDecimal: its unscaled value over a power of ten
+		int scale = value.scale();
+		if(scale <= 0) return of(value.toBigIntegerExact(), BigInteger.ONE, true);
+		if(scale < 19 && value.precision() <= 18) return new Rational(value.unscaledValue().longValue(), LONG_POWERS_OF_TEN[scale], false);
+		return of(value.unscaledValue(), BigInteger.TEN.pow(scale), false);
+	}
+
+	//Getters & setters
+	public BigInteger getNumerator() { return isBig() ? this.bigNum : BigInteger.valueOf(this.num); }
+	public BigInteger getDenominator() { return isBig() ? this.bigDen : BigInteger.valueOf(this.den); }
+
+	public int signum() { return isBig() ? this.bigNum.signum() : Long.signum(this.num); }
+
+	public boolean isInteger() {
+		//Returns true if this fraction is a whole number
+		if(!isBig()) return 1 == den || 0 == num % den;
+		return BigInteger.ONE.equals(bigDen) || 0 == bigNum.mod(bigDen).signum();
+	}
+
+	private boolean isBig() { return null != this.bigNum; }
+
+	//Arithmetic methods
+	public Rational negate() {
+		if(!isBig() && Long.MIN_VALUE != num) return new Rational(-num, den, reduced);
+		return of(getNumerator().negate(), getDenominator(), reduced);
+	}
+
+	public Rational add(Rational r) {
+		if(!isBig() && !r.isBig()) {
+			try {
+				if(den == r.den) return new Rational(Math.addExact(num, r.num), den, false);
+				long n = Math.addExact(Math.multiplyExact(num, r.den), Math.multiplyExact(r.num, den));
+				return new Rational(n, Math.multiplyExact(den, r.den), false);
+			}
+			catch(ArithmeticException e) {
+				//Overflow: redone below on BigIntegers
+			}
+		}
+		BigInteger d = getDenominator();
+		BigInteger rd = r.getDenominator();
+		if(d.equals(rd)) return of(getNumerator().add(r.getNumerator()), d, false);
+		return of(getNumerator().multiply(rd).add(r.getNumerator().multiply(d)), d.multiply(rd), false);
+	}
+
+	public Rational subtract(Rational r) {
+		return add(r.negate());
+	}
+
+	public Rational multiply(Rational r) {
+		if(!isBig() && !r.isBig()) {
+			try {
+				return new Rational(Math.multiplyExact(num, r.num), Math.multiplyExact(den, r.den), false);
+			}
+			catch(ArithmeticException e) {
+				//Overflow: redone below on BigIntegers
+			}
+		}
+		return of(getNumerator().multiply(r.getNumerator()), getDenominator().multiply(r.getDenominator()), false);
+	}
+
+	public Rational divide(Rational r) {
+		//Throws an ArithmeticException when dividing by 0
+		int sign = r.signum();
+		if(0 == sign) throw new ArithmeticException("Division by 0");
+		if(!isBig() && !r.isBig()) {
+			try {
+				long n = Math.multiplyExact(num, r.den);
+				long d = Math.multiplyExact(den, r.num);
+				return (sign > 0) ? new Rational(n, d, false) : new Rational(Math.negateExact(n), Math.negateExact(d), false);
+			}
+			catch(ArithmeticException e) {
+				//Overflow: redone below on BigIntegers
+			}
+		}
+		BigInteger n = getNumerator().multiply(r.getDenominator());
+		BigInteger d = getDenominator().multiply(r.getNumerator());
+		return (sign > 0) ? of(n, d, false) : of(n.negate(), d.negate(), false);
+	}
+
+	public Rational reduce() {
+		//Returns this fraction in lowest terms
+		if(reduced) return this;
+		if(!isBig()) {
+			long g = gcd(Math.abs(num), den); //num may be Long.MIN_VALUE, whose abs is negative; gcd handles it
+			return (1 == g) ? new Rational(num, den, true) : new Rational(num / g, den / g, true);
+		}
+		BigInteger g = bigNum.gcd(bigDen);
+		if(BigInteger.ONE.equals(g)) return new Rational(bigNum, bigDen, true);
+		return of(bigNum.divide(g), bigDen.divide(g), true);
+	}
+
+	static Rational reduce(BigInteger numerator, BigInteger denominator1, BigInteger denominator2) {
+		//Returns numerator / (denominator1 * denominator2) in lowest terms, for positive denominators.
+		//gcd(n, a * b) = gcd(n, a) * gcd(n / gcd(n, a), b), and BigInteger.gcd takes quadratic time, so two gcds
+		//with the factors cost a fraction of one with their product: about 6 times less for 3000-bit factors
+		BigInteger g1 = numerator.gcd(denominator1);
+		BigInteger n = numerator.divide(g1);
+		BigInteger g2 = n.gcd(denominator2);
+		return of(n.divide(g2), denominator1.divide(g1).multiply(denominator2.divide(g2)), true);
+	}
+
+	//Conversions
+	public BigDecimal toBigDecimal(MathContext mc) {
+		//Returns this fraction rounded according to mc
+		if(!isBig() && 1 == den) return new BigDecimal(num, mc);
+		return new BigDecimal(getNumerator()).divide(new BigDecimal(getDenominator()), mc);
+	}
+
+	public BigDecimal toExactDecimal() {
+		//Returns this fraction as a BigDecimal, or null if it has no finite decimal expansion,
+		//that is, if its reduced denominator has a prime factor other than 2 and 5
+		BigInteger d = getDenominator();
+		int twos = d.getLowestSetBit();
+		d = d.shiftRight(twos);
+		int fives = 0;
+		for(BigInteger[] division = d.divideAndRemainder(FIVE); 0 == division[1].signum(); division = d.divideAndRemainder(FIVE)) {
+			d = division[0];
+			fives++;
+		}
+
+		BigInteger n = getNumerator();
+		if(!BigInteger.ONE.equals(d)) {
+			//Another factor is left, which the numerator may still cancel
+			if(reduced || 0 != n.mod(d).signum()) return null;
+			n = n.divide(d);
+		}
+		//n / (2^twos * 5^fives) = n * 5^(scale - fives) * 2^(scale - twos) / 10^scale
+		int scale = Math.max(twos, fives);
+		BigInteger unscaled = n.multiply(FIVE.pow(scale - fives)).shiftLeft(scale - twos);
+		return new BigDecimal(unscaled, scale);
+	}
+
+	public double doubleValue() {
+		if(!isBig()) return (double) num / den; //Both are exact below 2^53, the usual case
+		return toBigDecimal(MathContext.DECIMAL64).doubleValue();
+	}
+
+	public float floatValue() { return (float) doubleValue(); }
+	public long longValue() { return isBig() ? bigNum.divide(bigDen).longValue() : num / den; }
+	public int intValue() { return (int) longValue(); }
+
+	//Comparison
+	public int compareTo(Rational r) {
+		if(!isBig() && !r.isBig()) {
+			try {
+				return Long.compare(Math.multiplyExact(num, r.den), Math.multiplyExact(r.num, den));
+			}
+			catch(ArithmeticException e) {
+				//Overflow: compared below on BigIntegers
+			}
+		}
+		return getNumerator().multiply(r.getDenominator()).compareTo(r.getNumerator().multiply(getDenominator()));
+	}
+
+	public boolean equals(Object o) {
+		if(this == o) return true;
+		if(!(o instanceof Rational)) return false;
+		return 0 == compareTo((Rational) o);
+	}
+
+	public int hashCode() {
+		Rational r = reduce();
+		return r.isBig() ? 31 * r.bigNum.hashCode() + r.bigDen.hashCode() : 31 * Long.hashCode(r.num) + Long.hashCode(r.den);
+	}
+
+	//toString
+	public String toString() {
+		//Outputs the reduced fraction, such as -5/6, or just the numerator for whole numbers
+		Rational r = reduce();
+		if(!r.isBig()) return (1 == r.den) ? Long.toString(r.num) : r.num + "/" + r.den;
+		return BigInteger.ONE.equals(r.bigDen) ? r.bigNum.toString() : r.bigNum + "/" + r.bigDen;
+	}
+
+	//Auxiliary methods
+	private static long gcd(long a, long b) {
+		//Binary gcd of a and b, with b positive; a may be Long.MIN_VALUE (as the absolute value of itself)
+		if(0 == a) return b;
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>>= Long.numberOfTrailingZeros(a);
+		while(0 != b) {
+			b >>>= Long.numberOfTrailingZeros(b);
+			if(a > b) {
+				long t = a;
+				a = b;
+				b = t;
+			}
+			b -= a;
+		}
+		return a << shift;
+	}
+}
@@ -0,0 +1,389 @@
+package model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SparsePolynomial {
+	//Polynomial implemented as parallel arrays of powers and coefficients, sorted by power, holding only the non-zero terms.
+	//Memory depends on the number of terms alone, so inputs such as x^1000000 + 3x^17 - 2 take three entries.
+	//As in DensePolynomial, coefficients are kept in a primitive long[] while they are all integers that fit in a long,
+	//and promoted to BigDecimal otherwise.
+	//Looking up the coefficient of a given power goes through an open-addressing hash table from powers to indices,
+	//built on the first lookup. Products use Johnson's heap algorithm, which produces the terms in order of power
+	//without ever holding more partial products than the shorter operand has terms.
+	//Objects of this class are never modified after construction, besides the lookup table they build on first use.
+
+	//Constants
+	private static final int EMPTY_SLOT = -1;
+
+	//Attributes
+	private final int[] powers; //Strictly increasing
+	private final long[] smallCoeffs; //Used while every coefficient is an integer that fits in a long; null otherwise
+	private final BigDecimal[] bigCoeffs; //Fallback storage; null while smallCoeffs is in use
+	private final int size; //Number of terms
+	private volatile int[] slots; //Hash table of indices into powers, EMPTY_SLOT where free; null until the first lookup
+
+	//Constructors
+	public SparsePolynomial() {
+		//Creates the 0 polynomial
+		this(new int[0], new long[0], null, 0);
+	}
+
+	public SparsePolynomial(int[] powers, long[] coeffs) {
+		//Creates a polynomial with the terms coeffs[i] * x^powers[i]. The arrays are copied.
+		//The terms may come in any order; coefficients of repeated powers are added, and 0 terms are left out
+		this(normalize(powers, coeffs, null, powers.length));
+	}
+
+	public SparsePolynomial(int[] powers, BigDecimal[] coeffs) {
+		//Same as above, for BigDecimal coefficients; the compact representation is used if they are all integers fitting in a long
+		this(normalize(powers, null, coeffs, powers.length));
+	}
+
+	private SparsePolynomial(SparsePolynomial p) {
+		this(p.powers, p.smallCoeffs, p.bigCoeffs, p.size);
+	}
+
+	SparsePolynomial(int[] powers, long[] smallCoeffs, BigDecimal[] bigCoeffs, int size) {
+		//Package-private: takes ownership of the given arrays, whose first size entries must be sorted by power,
+		//free of duplicates and of 0 coefficients. Exactly one of the coefficient arrays must be non-null
+		this.powers = powers;
+		this.smallCoeffs = smallCoeffs;
+		this.bigCoeffs = bigCoeffs;
+		this.size = size;
+	}
+
+	//Getters
+	public boolean isCompact() {
+		//Returns true while the coefficients are stored as primitive longs
+		return null != smallCoeffs;
+	}
+
+	public int getTermCount() { return this.size; }
+
+	public int getDegree() {
+		//Returns the highest power with a non-zero coefficient, or -1 for the 0 polynomial
+		return (0 == size) ? -1 : powers[size - 1];
+	}
+
+	public int getPowerAt(int index) {
+		//Power of the index-th term, counting from the lowest power
+		if(index >= size) throw new IndexOutOfBoundsException("Term " + index + " of " + size);
+		return powers[index];
+	}
+
+	public BigDecimal getCoeffAt(int index) {
+		//Coefficient of the index-th term, counting from the lowest power
+		if(index >= size) throw new IndexOutOfBoundsException("Term " + index + " of " + size);
+		return isCompact() ? BigDecimal.valueOf(smallCoeffs[index]) : bigCoeffs[index];
+	}
+
+	long getLongAt(int index) {
+		//Package-private: the index-th coefficient of a compact polynomial
+		return smallCoeffs[index];
+	}
+
+	public BigDecimal getCoeff(int power) {
+		//Returns the coefficient of x^power, which is 0 for powers without a term
+		int index = indexOf(power);
+		return (index < 0) ? BigDecimal.ZERO : getCoeffAt(index);
+	}
+
+	//Conversions
+	public Polynomial toPolynomial() {
+		//Returns the equivalent list-based Polynomial
+		List<Monomial> values = new ArrayList<Monomial>(size);
+		for(int i = 0; i < size; i++) values.add(new Monomial(getCoeffAt(i), powers[i]));
+		return new Polynomial(values);
+	}
+
+	public DensePolynomial toDense() {
+		//Returns the dense representation, with an array slot for every power up to the degree
+		BigDecimal[] coeffs = new BigDecimal[getDegree() + 1];
+		for(int i = 0; i < size; i++) coeffs[powers[i]] = getCoeffAt(i);
+		return new DensePolynomial(coeffs);
+	}
+
+	//toString
+	public String toString() {
+		//Same format as Polynomial.toString, such as x^1000000 + 3x^17 - 2
+		return PolynomialFormatter.format(this);
+	}
+
+	//Arithmetic methods
+	public SparsePolynomial add(SparsePolynomial p) {
+		return merge(this, p, false);
+	}
+
+	public SparsePolynomial subtract(SparsePolynomial p) {
+		return merge(this, p, true);
+	}
+
+	public SparsePolynomial negate() {
+		if(isCompact()) {
+			long[] result = new long[size];
+			try {
+				for(int i = 0; i < size; i++) result[i] = Math.negateExact(smallCoeffs[i]);
+				return new SparsePolynomial(powers, result, null, size); //The powers are shared, as neither object modifies them
+			}
+			catch(ArithmeticException e) {
+				//Negating Long.MIN_VALUE overflows: use BigDecimal
+			}
+		}
+		BigDecimal[] result = new BigDecimal[size];
+		for(int i = 0; i < size; i++) result[i] = getCoeffAt(i).negate();
+		return new SparsePolynomial(powers, null, result, size);
+	}
+
+	public SparsePolynomial multiply(SparsePolynomial p) {
+		//Returns the product of this polynomial and p, through Johnson's heap algorithm.
+		//Many partial products split the terms of the shorter operand into blocks on the default ParallelExecution;
+		//the products of the blocks are then added up
+		SparsePolynomial shorter = (this.size <= p.size) ? this : p;
+		SparsePolynomial longer = (this.size <= p.size) ? p : this;
+		if(0 == shorter.size) return new SparsePolynomial();
+
+		long work = (long) shorter.size * longer.size;
+		List<SparsePolynomial> blocks = ParallelExecution.getDefault().mapRanges(0, shorter.size, work, (from, to) -> {
+			if(shorter.isCompact() && longer.isCompact()) {
+				try {
+					return heapMultiply(shorter, from, to, longer, true);
+				}
+				catch(ArithmeticException e) {
+					//A product or sum overflowed a long: redo the block with BigDecimal
+				}
+			}
+			return heapMultiply(shorter, from, to, longer, false);
+		});
+
+		SparsePolynomial result = blocks.get(0);
+		for(SparsePolynomial block : blocks.subList(1, blocks.size())) result = result.add(block);
+		return result;
+	}
+
+	//Auxiliary methods
+	private static SparsePolynomial heapMultiply(SparsePolynomial a, int from, int to, SparsePolynomial b, boolean compact) {
+		//Johnson's algorithm for the terms [from, to) of a times all of b. Row i of the product is a[i] * b, whose
+		//powers increase along the row; the heap holds the next unused term of every started row, keyed by its power,
+		//so popping it gives the partial products in order of power, and equal powers come out one after the other.
+		//Row i + 1 only starts once row i has used its first term, as it can't have a lower power before that
+		int rows = to - from;
+		int[] column = new int[rows]; //Next term of b for every row
+		int[] heap = new int[rows]; //Rows, as a binary min-heap on the power of their next product
+		long[] keys = new long[rows]; //Power of the next product of every row
+		int heapSize = 0;
+
+		int capacity = (int) Math.min((long) rows * b.size, 1 << 16);
+		int[] powers = new int[capacity];
+		long[] smallCoeffs = compact ? new long[capacity] : null;
+		BigDecimal[] bigCoeffs = compact ? null : new BigDecimal[capacity];
+		int size = 0;
+
+		keys[0] = (long) a.powers[from] + b.powers[0];
+		heap[heapSize++] = 0;
+		int started = 1;
+
+		while(heapSize > 0) {
+			long power = keys[heap[0]];
+			if(power > Integer.MAX_VALUE) throw new ArithmeticException("The product has a power above " + Integer.MAX_VALUE);
+
+			long smallSum = 0;
+			BigDecimal bigSum = BigDecimal.ZERO;
+			while(heapSize > 0 && keys[heap[0]] == power) {
+				int row = heap[0];
+				int i = from + row;
+				int j = column[row];
+				if(compact) smallSum = Math.addExact(smallSum, Math.multiplyExact(a.smallCoeffs[i], b.smallCoeffs[j]));
+				else bigSum = bigSum.add(a.getCoeffAt(i).multiply(b.getCoeffAt(j)));
+
+				//Move the row to its next term, or drop it once it runs out
+				if(0 == j && started < rows) {
+					keys[started] = (long) a.powers[from + started] + b.powers[0];
+					heapSize = heapPush(heap, keys, heapSize, started);
+					started++;
+				}
+				column[row]++;
+				if(column[row] < b.size) {
+					keys[row] = (long) a.powers[i] + b.powers[column[row]];
+					siftDown(heap, keys, heapSize, 0);
+				}
+				else {
+					heap[0] = heap[--heapSize];
+					siftDown(heap, keys, heapSize, 0);
+				}
+			}
+
+			if(compact ? 0 == smallSum : 0 == bigSum.signum()) continue;
+			if(size == powers.length) {
+				int grown = powers.length + (powers.length >> 1) + 1;
+				powers = Arrays.copyOf(powers, grown);
+				if(compact) smallCoeffs = Arrays.copyOf(smallCoeffs, grown);
+				else bigCoeffs = Arrays.copyOf(bigCoeffs, grown);
+			}
+			powers[size] = (int) power;
+			if(compact) smallCoeffs[size] = smallSum;
+			else bigCoeffs[size] = bigSum;
+			size++;
+		}
+		return new SparsePolynomial(powers, smallCoeffs, bigCoeffs, size);
+	}
+
+	private static int heapPush(int[] heap, long[] keys, int heapSize, int row) {
+		//Adds row to the heap and returns the new size
+		int k = heapSize;
+		while(k > 0) {
+			int parent = (k - 1) >>> 1;
+			if(keys[heap[parent]] <= keys[row]) break;
+			heap[k] = heap[parent];
+			k = parent;
+		}
+		heap[k] = row;
+		return heapSize + 1;
+	}
+
+	private static void siftDown(int[] heap, long[] keys, int heapSize, int k) {
+		int row = heap[k];
+		while(true) {
+			int child = 2 * k + 1;
+			if(child >= heapSize) break;
+			if(child + 1 < heapSize && keys[heap[child + 1]] < keys[heap[child]]) child++;
+			if(keys[heap[child]] >= keys[row]) break;
+			heap[k] = heap[child];
+			k = child;
+		}
+		heap[k] = row;
+	}
+
+	private static SparsePolynomial merge(SparsePolynomial a, SparsePolynomial b, boolean negateB) {
+		//Merges the two sorted term arrays, adding (or subtracting) the coefficients of equal powers
+		int capacity = a.size + b.size;
+		int[] powers = new int[capacity];
+		if(a.isCompact() && b.isCompact()) {
+			long[] coeffs = new long[capacity];
+			try {
+				int size = 0;
+				int i = 0;
+				int j = 0;
+				while(i < a.size || j < b.size) {
+					int power = (j >= b.size || (i < a.size && a.powers[i] < b.powers[j])) ? a.powers[i] : b.powers[j];
+					long sum = 0;
+					if(i < a.size && a.powers[i] == power) sum = a.smallCoeffs[i++];
+					if(j < b.size && b.powers[j] == power) {
+						sum = negateB ? Math.subtractExact(sum, b.smallCoeffs[j++]) : Math.addExact(sum, b.smallCoeffs[j++]);
+					}
+					if(0 == sum) continue;
+					powers[size] = power;
+					coeffs[size++] = sum;
+				}
+				return new SparsePolynomial(powers, coeffs, null, size);
+			}
+			catch(ArithmeticException e) {
+				//Overflow: redo it with BigDecimal
+			}
+		}
+
+		BigDecimal[] coeffs = new BigDecimal[capacity];
+		int size = 0;
+		int i = 0;
+		int j = 0;
+		while(i < a.size || j < b.size) {
+			int power = (j >= b.size || (i < a.size && a.powers[i] < b.powers[j])) ? a.powers[i] : b.powers[j];
+			BigDecimal sum = BigDecimal.ZERO;
+			if(i < a.size && a.powers[i] == power) sum = a.getCoeffAt(i++);
+			if(j < b.size && b.powers[j] == power) sum = negateB ? sum.subtract(b.getCoeffAt(j++)) : sum.add(b.getCoeffAt(j++));
+			if(0 == sum.signum()) continue;
+			powers[size] = power;
+			coeffs[size++] = sum;
+		}
+		return new SparsePolynomial(powers, null, coeffs, size);
+	}
+
+	private static SparsePolynomial normalize(int[] powers, long[] smallCoeffs, BigDecimal[] bigCoeffs, int count) {
+		//Sorts the terms by power, adds up repeated powers and drops 0 coefficients, without modifying the arguments
+		if(null != bigCoeffs) {
+			long[] small = DensePolynomial.toLongsIfPossible(bigCoeffs, count);
+			if(null != small) return normalize(powers, small, null, count);
+		}
+
+		//Sorting (power, index) pairs packed into longs keeps the sort on a primitive array
+		long[] order = new long[count];
+		for(int i = 0; i < count; i++) order[i] = ((long) powers[i] << 32) | i;
+		Arrays.sort(order);
+
+		int[] sortedPowers = new int[count];
+		if(null != smallCoeffs) {
+			long[] coeffs = new long[count];
+			try {
+				int size = 0;
+				for(int k = 0; k < count; k++) {
+					int i = (int) order[k];
+					if(size > 0 && sortedPowers[size - 1] == powers[i]) coeffs[size - 1] = Math.addExact(coeffs[size - 1], smallCoeffs[i]);
+					else {
+						if(size > 0 && 0 == coeffs[size - 1]) size--; //The previous power added up to 0
+						sortedPowers[size] = powers[i];
+						coeffs[size++] = smallCoeffs[i];
+					}
+				}
+				if(size > 0 && 0 == coeffs[size - 1]) size--;
+				return new SparsePolynomial(sortedPowers, coeffs, null, size);
+			}
+			catch(ArithmeticException e) {
+				//Repeated powers overflowed a long: add them up as BigDecimals
+				bigCoeffs = new BigDecimal[count];
+				for(int i = 0; i < count; i++) bigCoeffs[i] = BigDecimal.valueOf(smallCoeffs[i]);
+			}
+		}
+
+		BigDecimal[] coeffs = new BigDecimal[count];
+		int size = 0;
+		for(int k = 0; k < count; k++) {
+			int i = (int) order[k];
+			BigDecimal c = (null == bigCoeffs[i]) ? BigDecimal.ZERO : bigCoeffs[i];
+			if(size > 0 && sortedPowers[size - 1] == powers[i]) coeffs[size - 1] = coeffs[size - 1].add(c);
+			else {
+				if(size > 0 && 0 == coeffs[size - 1].signum()) size--;
+				sortedPowers[size] = powers[i];
+				coeffs[size++] = c;
+			}
+		}
+		if(size > 0 && 0 == coeffs[size - 1].signum()) size--;
+		return new SparsePolynomial(sortedPowers, null, coeffs, size);
+	}
+
+	private int indexOf(int power) {
+		//Returns the index of the term with the given power, or -1 if there is none
+		int[] table = slots;
+		if(null == table) table = buildSlots();
+		int mask = table.length - 1;
+		for(int k = hash(power) & mask; ; k = (k + 1) & mask) {
+			int index = table[k];
+			if(EMPTY_SLOT == index) return -1;
+			if(powers[index] == power) return index;
+		}
+	}
+
+	private int[] buildSlots() {
+		//Linear probing table with at least twice as many slots as terms, so probe sequences stay short.
+		//The table is filled before it is published through the volatile field, so a thread that sees it
+		//sees it whole; two threads may both build it, and either table serves, as both are the same
+		int capacity = Integer.highestOneBit(Math.max(2 * size, 2) - 1) << 1;
+		int[] table = new int[capacity];
+		Arrays.fill(table, EMPTY_SLOT);
+		int mask = capacity - 1;
+		for(int i = 0; i < size; i++) {
+			int k = hash(powers[i]) & mask;
+			while(EMPTY_SLOT != table[k]) k = (k + 1) & mask;
+			table[k] = i;
+		}
+		slots = table;
+		return table;
+	}
+
+	private static int hash(int power) {
+		//Spreads the bits of the power, since powers often share their low bits (multiples of a stride, for instance)
+		int h = power * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
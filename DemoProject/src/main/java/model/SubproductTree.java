@@ -0,0 +1,201 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+public class SubproductTree {
+	//Subproduct tree over a set of points x0, ..., x(n-1): every node holds the product of (x - xi) over
+	//a contiguous range of the points, and its children split that range in two.
+	//Multipoint evaluation reduces the polynomial modulo the root, then keeps taking remainders modulo
+	//the children down the tree, since p(xi) = (p mod (x - xi)). Interpolation goes the other way,
+	//combining the Lagrange terms from the leaves up. Both take O(M(n) log n) with a sub-quadratic
+	//multiplication M(n), as every product and remainder goes through MultiplicationEngine and DivisionEngine.
+	//
+	//Decimal points are scaled by 10^s to integers first, so that every node is a monic polynomial
+	//with integer coefficients, and every division in the tree is exact.
+	//Building the tree is the expensive part, so it is worth reusing it for several polynomials.
+
+	//Constants
+	private static final int LEAF_POINTS = 64; //Ranges of at most this many points are handled directly
+	private static final int GUARD_DIGITS = 10; //Extra decimals kept by the interpolation weights
+
+	//Attributes
+	private final BigInteger[] points; //The points, multiplied by 10^scale
+	private final int scale;
+	private final Node root;
+
+	private static final class Node {
+		private final int from; //Range of the points below this node, to excluded
+		private final int to;
+		private final DensePolynomial product; //Product of (y - points[i]) over the range
+		private final Node left; //Both children are null for leaves
+		private final Node right;
+
+		private Node(int from, int to, DensePolynomial product, Node left, Node right) {
+			this.from = from;
+			this.to = to;
+			this.product = product;
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	//Constructors
+	public SubproductTree(BigDecimal[] xs) {
+		//Builds the tree over the given points, which must not be empty
+		if(0 == xs.length) throw new IllegalArgumentException("At least one point is needed");
+
+		int commonScale = 0;
+		for(BigDecimal x : xs) commonScale = Math.max(commonScale, x.stripTrailingZeros().scale());
+		this.scale = commonScale;
+
+		this.points = new BigInteger[xs.length];
+		for(int i = 0; i < xs.length; i++) this.points[i] = xs[i].setScale(commonScale).unscaledValue();
+
+		this.root = build(0, xs.length);
+	}
+
+	//Getters & setters
+	public int getPointCount() { return this.points.length; }
+
+	//Multipoint evaluation
+	public BigDecimal[] evaluate(DensePolynomial p) {
+		//Returns the values of p at every point, exactly
+		int degree = Math.max(p.getDegree(), 0);
+
+		//q(y) = 10^(s * degree) * p(y / 10^s) has the same coefficients as p, scaled by powers of 10,
+		//and q(Xi) = 10^(s * degree) * p(xi) at the scaled points Xi = 10^s * xi
+		BigDecimal[] scaled = new BigDecimal[degree + 1];
+		for(int k = 0; k <= degree; k++) scaled[k] = p.getCoeff(k).scaleByPowerOfTen(scale * (degree - k));
+		DensePolynomial q = new DensePolynomial(scaled);
+
+		BigDecimal[] values = new BigDecimal[points.length];
+		evaluate(root, remainder(q, root.product), values);
+
+		for(int i = 0; i < values.length; i++) values[i] = values[i].scaleByPowerOfTen(-scale * degree);
+		return values;
+	}
+
+	private void evaluate(Node node, DensePolynomial remainder, BigDecimal[] values) {
+		if(null == node.left) {
+			for(int i = node.from; i < node.to; i++) values[i] = horner(remainder, new BigDecimal(points[i]));
+			return;
+		}
+
+		//The two halves are independent, so large ones run in parallel
+		ParallelExecution.getDefault().forEachRange(0, 2, work(node), (from, to) -> {
+			for(int k = from; k < to; k++) {
+				Node child = (0 == k) ? node.left : node.right;
+				evaluate(child, remainder(remainder, child.product), values);
+			}
+		});
+	}
+
+	//Interpolation
+	public DensePolynomial interpolate(BigDecimal[] ys, int decimals) {
+		//Returns the polynomial of degree below n taking the value ys[i] at every point xi, with its
+		//coefficients rounded to the given number of decimals.
+		//This is the Lagrange form sum(yi * m(x) / ((x - xi) * m'(xi))), with m the product at the root
+		//Throws an ArithmeticException if two points are the same
+		if(ys.length != points.length) throw new IllegalArgumentException("Expected " + points.length + " values, got " + ys.length);
+
+		BigDecimal[] derivatives = new BigDecimal[points.length];
+		evaluate(root, root.product.derivate(), derivatives);
+
+		//The weights yi / m'(Xi) are rounded; enough decimals are kept for that error to stay below the
+		//requested precision after it gets multiplied by the coefficients of the tree and the final scaling
+		int weightScale = decimals + GUARD_DIGITS + root.product.maxAbs().precision() + scale * points.length;
+		BigDecimal[] weights = new BigDecimal[points.length];
+		for(int i = 0; i < points.length; i++) {
+			if(0 == derivatives[i].signum()) throw new ArithmeticException("The interpolation points must be distinct");
+			weights[i] = ys[i].divide(derivatives[i], weightScale, RoundingMode.HALF_EVEN);
+		}
+
+		return unscale(combine(root, weights), decimals);
+	}
+
+	private DensePolynomial combine(Node node, BigDecimal[] weights) {
+		//Returns the sum over the node's points of weights[i] * (node's product) / (y - Xi)
+		if(null == node.left) {
+			int count = node.to - node.from;
+			BigDecimal[] sum = new BigDecimal[count];
+			Arrays.fill(sum, BigDecimal.ZERO);
+
+			for(int i = node.from; i < node.to; i++) {
+				//Synthetic division of the leaf product by (y - Xi), which is exact
+				BigDecimal x = new BigDecimal(points[i]);
+				BigDecimal carry = BigDecimal.ZERO;
+				for(int k = count; k >= 1; k--) {
+					carry = carry.multiply(x).add(node.product.getCoeff(k));
+					sum[k - 1] = sum[k - 1].add(weights[i].multiply(carry));
+				}
+			}
+			return new DensePolynomial(sum);
+		}
+
+		DensePolynomial[] halves = new DensePolynomial[2];
+		ParallelExecution.getDefault().forEachRange(0, 2, work(node), (from, to) -> {
+			for(int k = from; k < to; k++) halves[k] = combine((0 == k) ? node.left : node.right, weights);
+		});
+		return halves[0].multiply(node.right.product).add(halves[1].multiply(node.left.product));
+	}
+
+	//Auxiliary methods
+	private Node build(int from, int to) {
+		if(to - from <= LEAF_POINTS) {
+			//Multiply the linear factors one at a time: c(y) * (y - a) shifts c up and subtracts a * c
+			BigInteger[] coeffs = {BigInteger.ONE};
+			for(int i = from; i < to; i++) {
+				BigInteger[] next = new BigInteger[coeffs.length + 1];
+				next[coeffs.length] = BigInteger.ONE;
+				for(int k = coeffs.length - 1; k >= 0; k--) {
+					next[k] = ((k > 0) ? coeffs[k - 1] : BigInteger.ZERO).subtract(points[i].multiply(coeffs[k]));
+				}
+				coeffs = next;
+			}
+
+			BigDecimal[] product = new BigDecimal[coeffs.length];
+			for(int k = 0; k < coeffs.length; k++) product[k] = new BigDecimal(coeffs[k]);
+			return new Node(from, to, new DensePolynomial(product), null, null);
+		}
+
+		int middle = (from + to) >>> 1;
+		Node[] children = new Node[2];
+		ParallelExecution.getDefault().forEachRange(0, 2, (long) (to - from) * (to - from), (first, last) -> {
+			for(int k = first; k < last; k++) children[k] = (0 == k) ? build(from, middle) : build(middle, to);
+		});
+		return new Node(from, to, children[0].product.multiply(children[1].product), children[0], children[1]);
+	}
+
+	private static DensePolynomial remainder(DensePolynomial p, DensePolynomial divisor) {
+		//p mod divisor; the divisors in the tree are monic with integer coefficients, so this is exact
+		if(p.getDegree() < divisor.getDegree()) return p;
+		return DivisionEngine.getDefault().divide(p, divisor)[1];
+	}
+
+	private static BigDecimal horner(DensePolynomial p, BigDecimal x) {
+		BigDecimal result = BigDecimal.ZERO;
+		for(int k = p.getDegree(); k >= 0; k--) result = result.multiply(x).add(p.getCoeff(k));
+		return result;
+	}
+
+	private DensePolynomial unscale(DensePolynomial p, int decimals) {
+		//Goes back from the scaled variable y = 10^s * x: coefficient k gets multiplied by 10^(s * k).
+		//The result is rounded to the given number of decimals, dropping trailing zeros
+		BigDecimal[] coeffs = new BigDecimal[p.getDegree() + 1];
+		for(int k = 0; k < coeffs.length; k++) {
+			BigDecimal c = p.getCoeff(k).scaleByPowerOfTen(scale * k);
+			if(c.scale() > decimals) c = c.setScale(decimals, RoundingMode.HALF_EVEN);
+			c = c.stripTrailingZeros();
+			coeffs[k] = (c.scale() < 0) ? c.setScale(0) : c;
+		}
+		return new DensePolynomial(coeffs);
+	}
+
+	private static long work(Node node) {
+		long count = node.to - node.from;
+		return count * count;
+	}
+}
@@ -36,6 +36,9 @@ public class MainView extends JFrame {
 	//Label for polynomial operation result
 	private JLabel polyResultLabel;
 	
+	//Button to cancel the operation in progress
+	private JButton cancelButton;
+	
 	//Buttons for operations
 	private JButton addButton;
 	private JButton subtractButton;
@@ -129,10 +132,16 @@ public class MainView extends JFrame {
 		
 		resultPanel.add(new JSeparator()); //Separate from current polynomials
 		
-		//A JLabel storing the result of the last computation made
+		//A JLabel storing the result of the last computation made (or its progress),
+		//next to the button that cancels it, which is only enabled while it runs
+		JPanel resultLinePanel = new JPanel(new BorderLayout());
 		polyResultLabel = new JLabel("Result: 0");
 		polyResultLabel.setHorizontalAlignment(JLabel.CENTER);
-		resultPanel.add(polyResultLabel);
+		resultLinePanel.add(polyResultLabel, BorderLayout.CENTER);
+		cancelButton = new JButton("Cancel");
+		cancelButton.setEnabled(false);
+		resultLinePanel.add(cancelButton, BorderLayout.EAST);
+		resultPanel.add(resultLinePanel);
 		
 		resultPanel.add(new JSeparator()); //Separate from control buttons
 		
@@ -183,6 +192,9 @@ public class MainView extends JFrame {
 	public void setResultLabel(String s) {
 		polyResultLabel.setText(s);
 	}
+	public void setCancelEnabled(boolean enabled) {
+		cancelButton.setEnabled(enabled);
+	}
 	
 	//Passing ActionListeners to the Controller, since they work with the Model
 	public void addSetPoly1Listener(ActionListener e) {
@@ -209,6 +221,9 @@ public class MainView extends JFrame {
 	public void addDivideListener(ActionListener e) {
 		divideButton.addActionListener(e);
 	}
+	public void addCancelListener(ActionListener e) {
+		cancelButton.addActionListener(e);
+	}
 	
 	//Auxiliary methods, to avoid cluttering
 	
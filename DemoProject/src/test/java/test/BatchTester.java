@@ -0,0 +1,70 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import controller.BatchProcessor;
+import controller.Operation;
+import controller.PolynomialEngine;
+import model.ImmutablePolynomial;
+import model.Polynomial;
+
+public class BatchTester {
+	private static PolynomialEngine engine;
+
+	@Test
+	public void testEngine() {
+		engine = new PolynomialEngine();
+		ImmutablePolynomial p1 = new ImmutablePolynomial("0 17 -3 0 5");
+		ImmutablePolynomial p2 = new ImmutablePolynomial("1 2");
+
+		assertEquals("1 + 19x - 3x^2 + 5x^4", engine.compute(Operation.ADD, p1, p2)[0].toString());
+		assertEquals("17 - 6x + 20x^3", engine.compute(Operation.DERIVATE, p1, null)[0].toString());
+		ImmutablePolynomial[] division = engine.compute(Operation.DIVIDE, p1, p2);
+		Polynomial[] expected = new Polynomial("0 17 -3 0 5").divide(new Polynomial("1 2"));
+		assertEquals(expected[0].toString(), division[0].toString());
+		assertEquals(expected[1].toString(), division[1].toString());
+
+		//The same operation on identical operands comes from the cache; unary operations ignore P2
+		assertSame(division, engine.compute(Operation.DIVIDE, new ImmutablePolynomial("0 17 -3 0 5"), new ImmutablePolynomial("1 2")));
+		engine.compute(Operation.DERIVATE, p1, p2);
+		assertEquals(2, engine.getResultCache().getHits());
+		assertEquals(3, engine.getResultCache().getMisses());
+		assertEquals(Operation.MULTIPLY, Operation.forName("Multiply"));
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		engine = new PolynomialEngine();
+		BatchProcessor processor = new BatchProcessor(engine, 4, 2);
+		assertEquals("1 + 19x - 3x^2 + 5x^4", processor.processLine("add 0,17,-3,0,5 1,2"));
+		assertEquals("1 + x\t0", processor.processLine("  divide\t1,2,1 1,1 "));
+		assertEquals("error: Unknown operation: power", processor.processLine("power 1 2"));
+		assertEquals("error: derivate takes 1 operand", processor.processLine("derivate 1 2"));
+		assertTrue(processor.processLine("multiply 1,x 2").startsWith("error: "));
+		assertTrue(processor.processLine("divide 1,2 0").startsWith("error: "));
+		assertEquals("", processor.processLine(""));
+
+		//Many chunks, through a queue of only 2 of them, come out in order
+		StringBuilder input = new StringBuilder();
+		StringBuilder expected = new StringBuilder();
+		int lines = 10 * BatchProcessor.CHUNK_LINES + 17;
+		for(int i = 0; i < lines; i++) {
+			if(0 == i % 100) {
+				input.append("derivate\n");
+				expected.append("error: derivate takes 1 operand").append(System.lineSeparator());
+				continue;
+			}
+			input.append("multiply ").append(i).append(",1 -").append(i).append(",1\n");
+			expected.append(new Polynomial(i + " 1").multiply(new Polynomial("-" + i + " 1")).toString()).append(System.lineSeparator());
+		}
+		StringWriter out = new StringWriter();
+		assertEquals(lines, processor.process(new BufferedReader(new StringReader(input.toString())), out));
+		assertEquals(expected.toString(), out.toString());
+	}
+}
@@ -0,0 +1,90 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import controller.Operation;
+import controller.PolynomialEngine;
+import controller.ResultCache;
+import model.ArithmeticContext;
+import model.ImmutablePolynomial;
+import model.Polynomial;
+
+public class CacheTester {
+	private static Polynomial p1, p2;
+
+	@Test
+	public void testEquality() {
+		p1 = new Polynomial("1 2 3");
+		p2 = new Polynomial("1.0 2 3.00");
+		assertEquals(p1, p2);
+		assertEquals(p1.hashCode(), p2.hashCode());
+		assertEquals(p1.hashCode(), p1.toImmutable().hashCode());
+
+		//Terms left at 0 by in-place arithmetic don't count
+		p2.addInPlace(new Polynomial("0 0 0 0 1"));
+		p2.subtractInPlace(new Polynomial("0 0 0 0 1"));
+		assertEquals(4, p2.getTerms().size());
+		assertEquals(p1, p2);
+		assertEquals(p1.hashCode(), p2.hashCode());
+
+		assertNotEquals(p1, new Polynomial("1 2"));
+		assertNotEquals(p1, new Polynomial("1 2 4"));
+		assertEquals(new Polynomial(), new Polynomial("0"));
+
+		//Fractions are compared exactly
+		Polynomial third = new Polynomial("0 0 1").integrate(ArithmeticContext.EXACT);
+		assertEquals(third, third.toImmutable().toPolynomial());
+		assertNotEquals(third, new Polynomial("0 0 1").integrate()); //Rounded to a decimal
+	}
+
+	@Test
+	public void testEviction() {
+		//Weights are the lengths of the values
+		ResultCache<String, String> cache = new ResultCache<String, String>(10, String::length);
+		cache.put("a", "aaaa");
+		cache.put("b", "bbbb");
+		assertEquals("aaaa", cache.get("a")); //a is now more recent than b
+		assertNull(cache.get("c"));
+		cache.put("c", "cc"); //10 in total: still fits
+		assertEquals(3, cache.size());
+
+		cache.put("d", "ddd"); //Evicts b, the least recently used
+		assertNull(cache.get("b"));
+		assertEquals("aaaa", cache.get("a"));
+		assertEquals("cc", cache.get("c"));
+		assertEquals(9, cache.getWeight());
+
+		cache.put("e", "eeeeeeeeeee"); //Heavier than the whole cache: never stored
+		assertNull(cache.get("e"));
+		cache.put("a", "a"); //Replacing an entry updates the weight
+		assertEquals(6, cache.getWeight());
+
+		assertEquals(3, cache.getHits());
+		assertEquals(3, cache.getMisses());
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void testEngineKeys() {
+		PolynomialEngine engine = new PolynomialEngine();
+		ImmutablePolynomial square = new ImmutablePolynomial("0 0 1");
+		ImmutablePolynomial wideSquare = new ImmutablePolynomial("0 0 1.00000000"); //Equal, but with more decimals
+		assertEquals("0.333333x^3", engine.compute(Operation.INTEGRATE, square, null)[0].toString());
+		assertEquals("0.33333333x^3", engine.compute(Operation.INTEGRATE, wideSquare, null)[0].toString());
+
+		//A new default context isn't answered from the results of the previous one
+		ArithmeticContext previous = ArithmeticContext.getDefault();
+		ArithmeticContext.setDefault(ArithmeticContext.EXACT);
+		try {
+			assertEquals("(1/3)x^3", engine.compute(Operation.INTEGRATE, square, null)[0].toString());
+		}
+		finally {
+			ArithmeticContext.setDefault(previous);
+		}
+		assertEquals("0.333333x^3", engine.compute(Operation.INTEGRATE, square, null)[0].toString());
+		assertEquals(1, engine.getResultCache().getHits());
+		assertEquals(3, engine.getResultCache().getMisses());
+	}
+}
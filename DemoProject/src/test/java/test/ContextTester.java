@@ -0,0 +1,73 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.Monomial;
+import model.Polynomial;
+
+public class ContextTester {
+	private static Polynomial p1, p2;
+
+	@Test
+	public void testDecimal() {
+		p1 = new Polynomial("2 0 1");
+
+		assertEquals("2x + 0.333333x^3", p1.integrate().toString()); //Default: 6 decimals, rounded half-even
+		assertEquals("1.666667x^3", new Polynomial("0 0 5").integrate().toString());
+		assertEquals("1.666666", new Polynomial("5").divide(new Polynomial("3"))[0].toString()); //but quotients rounded down
+		assertEquals("2x + 0.3333333333x^3", p1.integrate(new ArithmeticContext(10, 10, RoundingMode.HALF_EVEN)).toString());
+
+		//maxScale caps the decimals of every result, products included
+		p1 = new Polynomial();
+		p1.addValue(new Monomial(new BigDecimal("0.123"), 1));
+		p2 = new Polynomial();
+		p2.addValue(new Monomial(new BigDecimal("0.456"), 2));
+		assertEquals("0.056088x^3", p1.multiply(p2).toString());
+		assertEquals("0.056x^3", p1.multiply(p2, new ArithmeticContext(6, 4, RoundingMode.DOWN)).toString());
+		assertEquals("0.0561x^3", p1.multiply(p2, new ArithmeticContext(new MathContext(3, RoundingMode.HALF_UP), 6, 100)).toString());
+	}
+
+	@Test
+	public void testExact() {
+		p1 = new Polynomial("0 0 0 1 0 5");
+
+		assertEquals("0.25x^4 + 0.833333x^6", p1.integrate().toString());
+		assertEquals("0.25x^4 + 0.166667x^6", new Polynomial("0 0 0 1 0 1").integrate().toString());
+		assertEquals("0.5x^2 + 2.5x^4", p1.divide(new Polynomial("0 2"), ArithmeticContext.EXACT)[0].toString());
+
+		//Quotients with no finite decimal expansion are kept as fractions
+		assertEquals("0.25x^4 + (5/6)x^6", p1.integrate(ArithmeticContext.EXACT).toString());
+		assertEquals("x^3 + 5x^5", p1.integrate(ArithmeticContext.EXACT).derivate(ArithmeticContext.EXACT).toString());
+		Polynomial[] division = p1.divide(new Polynomial("1 3"), ArithmeticContext.EXACT);
+		assertEquals(p1.toString(), division[0].multiply(new Polynomial("1 3")).add(division[1]).toString());
+	}
+
+	@Test
+	public void testFloatingPoint() {
+		p1 = new Polynomial("1 0 1");
+
+		assertEquals("x + 0.3333333333333333x^3", p1.integrate(ArithmeticContext.FLOATING_POINT).toString());
+		assertEquals("1 + x", new Polynomial("-1 0 1").divide(new Polynomial("-1 1"), ArithmeticContext.FLOATING_POINT)[0].toString());
+
+		//Long enough for the FFT: the coefficients must match the exact product up to a small error
+		StringBuilder text = new StringBuilder();
+		for(int i = 0; i < 300; i++) text.append(i % 17 - 8).append(' ');
+		p1 = new Polynomial(text.toString());
+		List<Monomial> exact = p1.multiply(p1).getTerms();
+		List<Monomial> approximate = p1.multiply(p1, ArithmeticContext.FLOATING_POINT).getTerms();
+
+		assertEquals(exact.size(), approximate.size());
+		for(int i = 0; i < exact.size(); i++) {
+			assertEquals(exact.get(i).getPower(), approximate.get(i).getPower());
+			assertEquals(exact.get(i).getCoeff().doubleValue(), approximate.get(i).getCoeff().doubleValue(), 1e-6);
+		}
+	}
+}
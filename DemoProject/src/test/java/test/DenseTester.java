@@ -0,0 +1,102 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import model.DensePolynomial;
+import model.Polynomial;
+
+public class DenseTester {
+	private static DensePolynomial p1;
+	private static DensePolynomial p2;
+
+	private static DensePolynomial res;
+
+	@Test
+	public void testConversion() {
+		p1 = new Polynomial("5 -17 0 1").toDense();
+
+		assertTrue(p1.isCompact());
+		assertEquals(3, p1.getDegree());
+		assertEquals("5 - 17x + x^3", p1.toString());
+	}
+
+	@Test
+	public void testSum() {
+		p1 = new DensePolynomial(new long[] {0, 2, 4, 6});
+		p2 = new DensePolynomial(new long[] {0, 0, -4, -6});
+
+		res = p1.add(p2);
+
+		assertEquals("2x", res.toString());
+		assertEquals(1, res.getDegree());
+	}
+
+	@Test
+	public void testOverflowPromotion() {
+		p1 = new DensePolynomial(new long[] {Long.MAX_VALUE, 1});
+		p2 = new DensePolynomial(new long[] {1, 1});
+
+		res = p1.add(p2);
+
+		assertFalse(res.isCompact());
+		assertEquals("9223372036854775808 + 2x", res.toString());
+	}
+
+	@Test
+	public void testDerivInteg() {
+		p1 = new DensePolynomial(new long[] {12, -12, 12});
+
+		assertEquals("- 12 + 24x", p1.derivate().toString());
+		assertEquals("12x - 6x^2 + 4x^3", p1.integrate().toString());
+		assertEquals("0.142857x^7", new DensePolynomial(new long[] {0, 0, 0, 0, 0, 0, 1}).integrate().toString());
+	}
+
+	@Test
+	public void testMult() {
+		p1 = new DensePolynomial(new long[] {3, -5, 2});
+		p2 = new DensePolynomial(new long[] {0, 0, 4, -7});
+
+		res = p1.multiply(p2);
+
+		assertEquals("12x^2 - 41x^3 + 43x^4 - 14x^5", res.toString());
+	}
+
+	@Test
+	public void testInPlace() {
+		p1 = new DensePolynomial(new long[] {Long.MAX_VALUE, 3, 2});
+		p2 = new DensePolynomial(new long[] {1, -3, 0, 5});
+
+		p1.addInPlace(p2);
+		assertFalse(p1.isCompact());
+		assertEquals("9223372036854775808 + 2x^2 + 5x^3", p1.toString());
+
+		p1.setFrom(p2);
+		p1.derivateInPlace();
+		assertTrue(p1.isCompact());
+		assertEquals("- 3 + 15x^2", p1.toString());
+
+		p1.fma(p2, new DensePolynomial(new long[] {0, 2}));
+		assertEquals("- 3 + 2x + 9x^2 + 10x^4", p1.toString());
+
+		p1.subtractInPlace(p1);
+		assertEquals(-1, p1.getDegree());
+	}
+
+	@Test
+	public void testPolynomialInPlace() {
+		Polynomial a = new Polynomial("3 0 -2 1");
+		Polynomial b = new Polynomial("0 1 2 0 0 7");
+
+		a.addInPlace(b);
+		assertEquals("3 + x + x^3 + 7x^5", a.toString());
+
+		a.subtractInPlace(b);
+		a.derivateInPlace();
+		assertEquals("- 4x + 3x^2", a.toString());
+
+		a.fma(b, new Polynomial("0 1"));
+		assertEquals("- 4x + 4x^2 + 2x^3 + 7x^6", a.toString());
+	}
+}
@@ -0,0 +1,159 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.DensePolynomial;
+import model.DivisionEngine;
+import model.Metrics;
+import model.Polynomial;
+
+public class DivisionTester {
+	private static Polynomial p1;
+	private static Polynomial p2;
+
+	private static Polynomial res;
+	private static Polynomial remainder;
+
+	@Test
+	public void testMonicDivisor() {
+		p1 = new Polynomial("-4 0 -2 1"); //x^3 - 2x^2 - 4
+		p2 = new Polynomial("-3 1"); //x - 3
+
+		Polynomial[] division = p1.divide(p2);
+		res = division[0];
+		remainder = division[1];
+
+		assertEquals("3 + x + x^2", res.toString());
+		assertEquals("5", remainder.toString());
+	}
+
+	@Test
+	public void testNonUnitDivisor() {
+		p1 = new Polynomial("1 0 1"); //x^2 + 1
+		p2 = new Polynomial("1 3"); //3x + 1
+
+		Polynomial[] division = p1.divide(p2);
+		res = division[0];
+		remainder = division[1];
+
+		assertEquals("- 0.111111 + 0.333333x", res.toString());
+		assertEquals("1.111111", remainder.toString());
+	}
+
+	@Test
+	public void testNonUnitExactQuotients() {
+		//Quotients with few enough decimals come back exact, not one unit of the last decimal short
+		assertDivision("0 1 3", "1 3", "x", "0");
+		assertDivision("2 7 3", "1 3", "2 + x", "0");
+		assertDivision("3 12 9 18", "3 3", "7 - 3x + 6x^2", "- 18");
+		assertDivision("-15 -8 4 15 1 5", "3", "- 5 - 2.666666x + 1.333333x^2 + 5x^3 + 0.333333x^4 + 1.666666x^5", "0");
+		assertDivision("1 0.5 1.5", "0.5 0.25", "- 10 + 6x", "6");
+	}
+
+	@Test
+	public void testLargeNonUnitDivision() {
+		//(q * b + r) / b gives back q and r for a non-monic b too: through the Newton path when the leading
+		//coefficient of b dominates the others (so the reciprocal of its reversal stays small), and through
+		//the long division otherwise
+		Random random = new Random(5);
+		for(int[] divisor : new int[][] {{100, 1}, {3, 10}}) {
+			long[] q = new long[300];
+			long[] b = new long[100];
+			long[] r = new long[99];
+			for(int i = 0; i < q.length; i++) q[i] = random.nextInt(2001) - 1000;
+			for(int i = 0; i < b.length; i++) b[i] = random.nextInt(2 * divisor[1] + 1) - divisor[1];
+			for(int i = 0; i < r.length; i++) r[i] = random.nextInt(2001) - 1000;
+			b[b.length - 1] = divisor[0];
+
+			DensePolynomial dividend = new DensePolynomial(q).multiply(new DensePolynomial(b)).add(new DensePolynomial(r));
+			DensePolynomial[] division = DivisionEngine.getDefault().divide(dividend, new DensePolynomial(b));
+
+			assertEquals(new DensePolynomial(q).toString(), division[0].toString());
+			assertEquals(new DensePolynomial(r).toString(), division[1].toString());
+		}
+
+		//Quotients that need rounding are rounded down coefficient by coefficient, as by hand
+		Polynomial[] rounded = new Polynomial("1 2 2").divide(new Polynomial("0 3"));
+		assertEquals("0.666666 + 0.666666x", rounded[0].toString());
+		assertEquals("1", rounded[1].toString());
+
+		//A large one goes straight to the long division, one iteration per quotient term, without trying Newton's first
+		long[] a = new long[400];
+		long[] b = new long[100];
+		for(int i = 0; i < a.length; i++) a[i] = random.nextInt(2001) - 1000;
+		for(int i = 0; i < b.length; i++) b[i] = random.nextInt(3) - 1;
+		a[a.length - 1] = 1;
+		b[b.length - 1] = 100 * 3; //Dominant, as above, but 1 / 300 has no finite decimal expansion
+		Metrics.reset();
+		Metrics.setEnabled(true);
+		try {
+			DivisionEngine.getDefault().divide(new DensePolynomial(a), new DensePolynomial(b));
+			assertEquals(301, Metrics.get(Metrics.Operation.DIVIDE).getIterations());
+		}
+		finally {
+			Metrics.setEnabled(false);
+			Metrics.reset();
+		}
+	}
+
+	@Test
+	public void testAgainstExact() {
+		//Whenever the exact quotient has at most 6 decimals, the default context finds exactly the same division
+		Random random = new Random(7);
+		for(int t = 0; t < 300; t++) {
+			Polynomial divisor = randomPolynomial(random, 1 + random.nextInt(4), 1 + random.nextInt(4));
+			Polynomial dividend = randomPolynomial(random, 1 + random.nextInt(8), 4);
+			Polynomial[] exact = dividend.divide(divisor, ArithmeticContext.EXACT);
+			if(exact[0].toString().contains("/") || exact[1].toString().contains("/")) continue;
+			if(exact[0].getTerms().stream().anyMatch(mon -> mon.getCoeff().stripTrailingZeros().scale() > 6)) continue;
+
+			Polynomial[] division = dividend.divide(divisor);
+			assertEquals(exact[0], division[0]);
+			assertEquals(exact[1], division[1]);
+		}
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testDivisionByZero() {
+		new Polynomial("1 2 3").divide(new Polynomial("0 0"));
+	}
+
+	@Test
+	public void testLargeExactDivision() {
+		//(q * b + r) / b must give back q and r exactly, for a monic b
+		Random random = new Random(3);
+		long[] q = new long[3000];
+		long[] b = new long[1500];
+		long[] r = new long[1499];
+		for(int i = 0; i < q.length; i++) q[i] = random.nextInt(2001) - 1000;
+		for(int i = 0; i < b.length; i++) b[i] = random.nextInt(2001) - 1000;
+		for(int i = 0; i < r.length; i++) r[i] = random.nextInt(2001) - 1000;
+		b[b.length - 1] = 1;
+
+		DensePolynomial divisor = new DensePolynomial(b);
+		DensePolynomial dividend = new DensePolynomial(q).multiply(divisor).add(new DensePolynomial(r));
+
+		DensePolynomial[] division = DivisionEngine.getDefault().divide(dividend, divisor);
+
+		assertEquals(new DensePolynomial(q).toString(), division[0].toString());
+		assertEquals(new DensePolynomial(r).toString(), division[1].toString());
+	}
+
+	private static void assertDivision(String dividend, String divisor, String quotient, String rest) {
+		Polynomial[] division = new Polynomial(dividend).divide(new Polynomial(divisor));
+		assertEquals(quotient, division[0].toString());
+		assertEquals(rest, division[1].toString());
+	}
+
+	private static Polynomial randomPolynomial(Random random, int degree, int leadChoices) {
+		//Small integer coefficients, with a leading coefficient between 1 and leadChoices
+		StringBuilder coeffs = new StringBuilder();
+		for(int i = 0; i < degree; i++) coeffs.append(random.nextInt(19) - 9).append(' ');
+		return new Polynomial(coeffs.append(1 + random.nextInt(leadChoices)).toString());
+	}
+}
@@ -0,0 +1,101 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.Monomial;
+import model.Polynomial;
+
+public class EvaluationTester {
+	private static Polynomial p1;
+
+	@Test
+	public void testEvaluate() {
+		p1 = new Polynomial("-4 0 -2 1"); //x^3 - 2x^2 - 4
+
+		assertEquals(-4.0, p1.evaluate(0.0), 0.0);
+		assertEquals(5.0, p1.evaluate(3.0), 0.0);
+		assertEquals(-7.0, p1.evaluate(-1.0), 0.0);
+		assertEquals(0.0, new Polynomial().evaluate(2.5), 0.0);
+	}
+
+	@Test
+	public void testEvaluateExact() {
+		p1 = new Polynomial("0 0 3 0 0 0 0 0 0 0 1"); //x^10 + 3x^2
+
+		assertEquals("0.0300000001", p1.evaluate(new BigDecimal("0.1"), MathContext.UNLIMITED).stripTrailingZeros().toPlainString());
+		assertEquals("0.030000", p1.evaluate(new BigDecimal("0.1"), new MathContext(5)).toPlainString());
+
+		//Fraction coefficients are exact too: (1/3)x^3 + 2x
+		p1 = new Polynomial("0 0 1").integrate(ArithmeticContext.EXACT).add(new Polynomial("0 2"), ArithmeticContext.EXACT);
+		assertEquals(0, new BigDecimal(15).compareTo(p1.evaluate(new BigDecimal(3), MathContext.UNLIMITED)));
+		assertEquals("2.3333", p1.evaluate(BigDecimal.ONE, new MathContext(5)).toPlainString());
+		try {
+			p1.evaluate(BigDecimal.ONE, MathContext.UNLIMITED); //7/3
+			fail("7/3 has no exact decimal value");
+		}
+		catch(ArithmeticException e) {
+			//Expected
+		}
+	}
+
+	@Test
+	public void testEvaluateBatch() {
+		//Sparse, with large gaps and no constant term, so every path of the batch evaluation is used
+		p1 = new Polynomial();
+		p1.addValue(new Monomial(2, 3));
+		p1.addValue(new Monomial(-1, 4));
+		p1.addValue(new Monomial(5, 40));
+		p1.addValue(new Monomial(1, 41));
+
+		double[] xs = new double[3000];
+		for(int i = 0; i < xs.length; i++) xs[i] = -1.1 + 2.2 * i / xs.length;
+		double[] out = new double[xs.length];
+		p1.evaluate(xs, out);
+
+		for(int i = 0; i < xs.length; i++) {
+			double x = xs[i];
+			double expected = 2 * Math.pow(x, 3) - Math.pow(x, 4) + 5 * Math.pow(x, 40) + Math.pow(x, 41);
+			assertEquals(expected, out[i], 1e-12 * Math.max(1, Math.abs(expected)));
+			assertEquals(p1.evaluate(x), out[i], 0.0);
+		}
+	}
+
+	@Test
+	public void testMultipointEvaluation() {
+		p1 = new Polynomial("7 0 -3 0 0 2 1"); //x^6 + 2x^5 - 3x^2 + 7
+
+		BigDecimal[] xs = new BigDecimal[100];
+		for(int i = 0; i < xs.length; i++) xs[i] = BigDecimal.valueOf(i - 50, (i % 3)); //Mixed scales, such as -49, -4.8 and -0.47
+
+		BigDecimal[] values = p1.evaluate(xs);
+		for(int i = 0; i < xs.length; i++) {
+			assertEquals(0, p1.evaluate(xs[i], MathContext.UNLIMITED).compareTo(values[i]));
+		}
+	}
+
+	@Test
+	public void testInterpolation() {
+		BigDecimal[] xs = {new BigDecimal("0"), new BigDecimal("1"), new BigDecimal("2")};
+		BigDecimal[] ys = {new BigDecimal("1"), new BigDecimal("3"), new BigDecimal("7")};
+		assertEquals("1 + x + x^2", Polynomial.interpolate(xs, ys).toString());
+
+		//Interpolating the values of a Polynomial at more points than its degree gives it back
+		p1 = new Polynomial("-4 0 0 0 0 1 0 -2");
+		p1.addValue(new Monomial(0.5, 2));
+		xs = new BigDecimal[150];
+		for(int i = 0; i < xs.length; i++) xs[i] = BigDecimal.valueOf(3 * i - 225, 1);
+		assertEquals(p1.toString(), Polynomial.interpolate(xs, p1.evaluate(xs)).toString());
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void testRepeatedInterpolationPoint() {
+		BigDecimal[] xs = {BigDecimal.ONE, new BigDecimal("1.0")};
+		Polynomial.interpolate(xs, xs);
+	}
+}
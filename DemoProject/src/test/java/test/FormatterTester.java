@@ -0,0 +1,53 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import org.junit.Test;
+
+import model.DensePolynomial;
+import model.Monomial;
+import model.Polynomial;
+import model.PolynomialFormatter;
+
+public class FormatterTester {
+	private static Polynomial p1;
+
+	@Test
+	public void testFormat() {
+		p1 = new Polynomial();
+		p1.addValue(new Monomial(new BigDecimal("-3"), 0));
+		p1.addValue(new Monomial(new BigDecimal("1.000"), 1));
+		p1.addValue(new Monomial(new BigDecimal("-0.50"), 2));
+		p1.addValue(new Monomial(new BigDecimal("0"), 3));
+		p1.addValue(new Monomial(new BigDecimal("1E+3"), 4));
+		p1.addValue(new Monomial(new BigDecimal("-1"), 10));
+
+		assertEquals("- 3 + x - 0.5x^2 + 1000x^4 - x^10", p1.toString());
+		assertEquals("0", new Polynomial().toString());
+		assertEquals("1 - x", new Polynomial("1 -1").toString());
+	}
+
+	@Test
+	public void testDense() {
+		assertEquals("- 9223372036854775808 + 1024x^2 - x^3", new DensePolynomial(new long[] {Long.MIN_VALUE, 0, 1024, -1}).toString());
+		assertEquals("0.5 - 2x", new DensePolynomial(new BigDecimal[] {new BigDecimal("0.50"), new BigDecimal("-2.0")}).toString());
+	}
+
+	@Test
+	public void testStreaming() throws IOException {
+		//Large enough to be flushed to the Writer in several chunks
+		StringBuilder text = new StringBuilder();
+		for(int i = 0; i < 50000; i++) text.append(i % 5 - 2).append(' ');
+		p1 = new Polynomial(text.toString());
+
+		StringWriter writer = new StringWriter();
+		PolynomialFormatter.format(p1, writer);
+
+		assertEquals(p1.toString(), writer.toString());
+		assertEquals(p1.toDense().toString(), writer.toString());
+	}
+}
@@ -0,0 +1,77 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.Polynomial;
+
+public class GcdTester {
+	private static Polynomial p1, p2;
+
+	@Test
+	public void testGcd() {
+		p1 = new Polynomial("-4 0 4"); //4(x - 1)(x + 1)
+		p2 = new Polynomial("6 6"); //6(x + 1)
+		assertEquals("2 + 2x", p1.gcd(p2).toString());
+		assertEquals("2 + 2x", p2.gcd(p1).toString());
+		assertEquals("1", new Polynomial("1 1").gcd(new Polynomial("1 0 1")).toString());
+
+		//Decimals and fractions are exact: the gcd of the contents scales the result
+		assertEquals("0.5 + 0.5x^2", new Polynomial("0.5 0 0.5").gcd(new Polynomial("1.5 0 1.5")).toString());
+		assertEquals("1/6 + (1/3)x", new Polynomial("1/3 2/3").gcd(new Polynomial("1/2 1")).toString());
+		assertEquals("1/3 + x", new Polynomial("0 1/3 1").gcd(new Polynomial("1 3")).toString());
+
+		//0 is divided by everything
+		assertEquals("- 6 + 2x", new Polynomial("-6 2").gcd(new Polynomial()).toString());
+		assertEquals("- 6 + 2x", new Polynomial().gcd(new Polynomial("6 -2")).toString());
+		assertTrue(new Polynomial().gcd(new Polynomial()).getTerms().isEmpty());
+
+		//A common factor of degree 40 in operands of degree 100
+		Random random = new Random(18);
+		Polynomial common = random(random, 40);
+		p1 = random(random, 60).multiply(common);
+		p2 = random(random, 60).multiply(common);
+		Polynomial gcd = p1.gcd(p2);
+		assertEquals(common.toString(), gcd.toString());
+		assertTrue(p1.divide(gcd, ArithmeticContext.EXACT)[1].getTerms().isEmpty());
+	}
+
+	@Test
+	public void testSquareFree() {
+		//-(3x^2 - 2)(x + 1)^2(x - 5)^3
+		Polynomial f = new Polynomial("-2 0 3").multiply(new Polynomial("1 1")).multiply(new Polynomial("1 1"))
+				.multiply(new Polynomial("5 -1")).multiply(new Polynomial("5 -1")).multiply(new Polynomial("5 -1"));
+		List<Polynomial> factors = f.squareFreeDecomposition();
+		assertEquals("[2 - 3x^2, 1 + x, - 5 + x]", factors.toString());
+		assertEquals(f.toString(), product(factors).toString());
+
+		//No double root, but roots of multiplicity 3 and a constant factor
+		f = new Polynomial("0 0 0 0.5 0.5"); //0.5x^3(x + 1)
+		factors = f.squareFreeDecomposition();
+		assertEquals("[0.5 + 0.5x, 1, x]", factors.toString());
+		assertEquals(f.toString(), product(factors).toString());
+
+		assertEquals("[2/3]", new Polynomial("2/3").squareFreeDecomposition().toString());
+		assertTrue(new Polynomial().squareFreeDecomposition().isEmpty());
+	}
+
+	private static Polynomial product(List<Polynomial> factors) {
+		Polynomial result = new Polynomial("1");
+		for(int i = 0; i < factors.size(); i++) {
+			for(int j = 0; j <= i; j++) result = result.multiply(factors.get(i));
+		}
+		return result;
+	}
+
+	private static Polynomial random(Random random, int degree) {
+		//Leading coefficient positive, and content 1 since the constant term is 1
+		StringBuilder s = new StringBuilder("1");
+		for(int i = 1; i < degree; i++) s.append(' ').append(random.nextInt(2001) - 1000);
+		return new Polynomial(s.append(' ').append(1 + random.nextInt(1000)).toString());
+	}
+}
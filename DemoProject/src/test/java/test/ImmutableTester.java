@@ -0,0 +1,95 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.ImmutablePolynomial;
+import model.Monomial;
+import model.Polynomial;
+
+public class ImmutableTester {
+	private static ImmutablePolynomial i1, i2;
+
+	@Test
+	public void testOperations() {
+		i1 = new ImmutablePolynomial("0 17 -3 0 5");
+		i2 = new ImmutablePolynomial("1 -17 3");
+
+		assertEquals("17x - 3x^2 + 5x^4", i1.toString());
+		assertEquals(4, i1.getDegree());
+		assertEquals(3, i1.getTermCount());
+		assertEquals("-3", i1.getCoeff(2).toString());
+		assertEquals("0", i1.getCoeff(3).toString());
+
+		assertEquals("1 + 5x^4", i1.add(i2).toString()); //The cancelled terms are dropped
+		assertEquals("- 1 + 34x - 6x^2 + 5x^4", i1.subtract(i2).toString());
+		assertEquals("- 17x + 3x^2 - 5x^4", i1.negate().toString());
+		assertEquals("8.5x - 1.5x^2 + 2.5x^4", i1.scale(new BigDecimal("0.5")).toString());
+		assertSame(i1, i1.scale(BigDecimal.ONE));
+		assertEquals("0", i1.scale(BigDecimal.ZERO).toString());
+		assertEquals("17 - 6x + 20x^3", i1.derivate().toString());
+		assertEquals(new Polynomial("0 17 -3 0 5").multiply(new Polynomial("1 -17 3")).toString(), i1.multiply(i2).toString());
+		assertEquals(-3.0 + 17.0 * 2 - 3.0 * 4 + 5.0 * 16, i1.add(new ImmutablePolynomial("-3")).evaluate(2), 1e-9);
+
+		//Fractions stay exact
+		ImmutablePolynomial third = new Polynomial("0 0 1").integrate(ArithmeticContext.EXACT).toImmutable();
+		assertEquals("(1/3)x^3", third.toString());
+		assertEquals("(2/3)x^3", third.add(third).toString());
+		assertEquals("x^3", third.scale(new BigDecimal(3)).toString());
+		assertEquals("0", third.subtract(third).toString());
+		assertEquals(third.toString(), third.toPolynomial().toString());
+	}
+
+	@Test
+	public void testImmutability() {
+		//Changing the source Polynomial, or a copy taken from the immutable one, leaves it unchanged
+		Polynomial p = new Polynomial("1 2 3");
+		i1 = p.toImmutable();
+		p.addValue(new Monomial(5, 1));
+		i1.toPolynomial().addValue(new Monomial(5, 1));
+		assertEquals("1 + 2x + 3x^2", i1.toString());
+
+		//Equality by value, with a cached hash code
+		i2 = new ImmutablePolynomial("1.0 2 3.00");
+		assertEquals(i1, i2);
+		assertEquals(i1.hashCode(), i2.hashCode());
+		assertEquals(i1, i1.negate().negate());
+		assertNotEquals(i1, i1.negate());
+		assertNotEquals(i1, new ImmutablePolynomial("1 2"));
+	}
+
+	@Test
+	public void testSharing() throws Exception {
+		//A single instance read by many threads at once
+		StringBuilder coefficients = new StringBuilder();
+		for(int i = 0; i < 2000; i++) coefficients.append(i % 7 - 3).append(' ');
+		final ImmutablePolynomial shared = new ImmutablePolynomial(coefficients.toString());
+		final String expected = shared.multiply(shared).derivate().toString();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for(int i = 0; i < 32; i++) {
+				results.add(executor.submit(new Callable<String>() {
+					public String call() {
+						return shared.multiply(shared).derivate().toString();
+					}
+				}));
+			}
+			for(Future<String> result : results) assertEquals(expected, result.get());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+}
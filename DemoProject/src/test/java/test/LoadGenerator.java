@@ -0,0 +1,125 @@
+package test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import controller.PolynomialEngine;
+import controller.PolynomialServer;
+
+public class LoadGenerator {
+	//Closed-loop load on the PolynomialServer, entirely on localhost: every client thread posts a random small
+	//operation, waits for the answer and posts the next one, for the given number of seconds. Prints the
+	//throughput, the latency percentiles of the answered requests, and how many were shed (shed clients back off briefly).
+	//Not a test (it is not named *Tester), but a tool run by hand:
+	//  java test.LoadGenerator [clients] [seconds] [maxConcurrent] [port]
+	//Without a port, it starts a server of its own, with the given concurrency limit.
+
+	private static final long SHED_BACKOFF_MILLIS = 5; //Pause of a client after a 503, instead of retrying at once
+	private static final String[] OPERATIONS = {"add", "subtract", "multiply", "divide", "derivate", "integrate"};
+
+	public static void main(String[] args) throws Exception {
+		int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 32;
+		int seconds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+		int maxConcurrent = (args.length > 2) ? Integer.parseInt(args[2]) : 64;
+		PolynomialServer server = null;
+		int port;
+		if(args.length > 3) port = Integer.parseInt(args[3]);
+		else {
+			server = new PolynomialServer(0, maxConcurrent, new PolynomialEngine());
+			server.start();
+			port = server.getPort();
+		}
+
+		final URL url = new URL("http://127.0.0.1:" + port + "/compute");
+		final long end = System.nanoTime() + seconds * 1000000000L;
+		final long[][] latencies = new long[clients][];
+		final AtomicLong shed = new AtomicLong();
+		final AtomicLong failed = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(clients);
+		for(int c = 0; c < clients; c++) {
+			final int client = c;
+			new Thread(() -> {
+				Random random = new Random(client);
+				long[] own = new long[1 << 16];
+				int count = 0;
+				while(System.nanoTime() < end) {
+					long start = System.nanoTime();
+					try {
+						int status = post(url, randomOperation(random));
+						if(200 == status) {
+							if(count == own.length) own = Arrays.copyOf(own, 2 * count);
+							own[count++] = System.nanoTime() - start;
+						}
+						else if(503 == status) {
+							shed.incrementAndGet();
+							Thread.sleep(SHED_BACKOFF_MILLIS);
+						}
+						else failed.incrementAndGet();
+					}
+					catch(IOException e) {
+						failed.incrementAndGet();
+					}
+					catch(InterruptedException e) {
+						break;
+					}
+				}
+				latencies[client] = Arrays.copyOf(own, count);
+				done.countDown();
+			}, "load-client-" + c).start();
+		}
+		done.await();
+
+		long[] all = new long[0];
+		for(long[] own : latencies) {
+			int previous = all.length;
+			all = Arrays.copyOf(all, previous + own.length);
+			System.arraycopy(own, 0, all, previous, own.length);
+		}
+		Arrays.sort(all);
+		System.out.printf("%d clients, %d s: %d answered (%.0f/s), %d shed, %d failed%n", clients, seconds, all.length,
+				all.length / (double) seconds, shed.get(), failed.get());
+		if(all.length > 0) {
+			System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", all[all.length / 2] / 1e6,
+					all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+		}
+		if(null != server) {
+			System.out.printf("%d requests in %d batches%n", server.getBatchedRequests(), server.getBatches());
+			server.stop();
+		}
+	}
+
+	private static String randomOperation(Random random) {
+		String operation = OPERATIONS[random.nextInt(OPERATIONS.length)];
+		StringBuilder line = new StringBuilder(operation).append(' ').append(randomPolynomial(random));
+		if(!"derivate".equals(operation) && !"integrate".equals(operation)) line.append(' ').append(randomPolynomial(random)).append(",1");
+		return line.toString();
+	}
+
+	private static String randomPolynomial(Random random) {
+		StringBuilder p = new StringBuilder();
+		for(int i = 1 + random.nextInt(10); i > 0; i--) p.append(random.nextInt(19) - 9).append((i > 1) ? "," : "");
+		return p.toString();
+	}
+
+	private static int post(URL url, String body) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		try(OutputStream out = connection.getOutputStream()) {
+			out.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		int status = connection.getResponseCode();
+		try(InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream()) {
+			if(null != in) while(in.read() >= 0) ; //Read the answer to the end, so the connection is kept alive
+		}
+		return status;
+	}
+}
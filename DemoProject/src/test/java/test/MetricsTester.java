@@ -0,0 +1,119 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import controller.Operation;
+import controller.PolynomialEngine;
+import model.ArithmeticContext;
+import model.Histogram;
+import model.ImmutablePolynomial;
+import model.Metrics;
+import model.OperationMetrics;
+import model.Polynomial;
+import model.PolynomialParser;
+
+public class MetricsTester {
+	private static Polynomial p1, p2;
+
+	@Test
+	public void testHistogram() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		for(int i = 1; i <= 1000; i++) histogram.record(i);
+
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000, histogram.getMax());
+		assertEquals(500.5, histogram.getMean(), 1e-9);
+		assertEquals(1, histogram.getValueAtPercentile(0));
+		assertEquals(1000, histogram.getValueAtPercentile(100));
+
+		//Within 12.5% of the exact percentiles
+		long median = histogram.getValueAtPercentile(50);
+		assertTrue(median >= 500 && median <= 500 * 1.125);
+		long p99 = histogram.getValueAtPercentile(99);
+		assertTrue(p99 >= 990 && p99 <= 1000);
+
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100));
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+	}
+
+	@Test
+	public void testRecording() throws Exception {
+		Metrics.reset();
+		Metrics.setEnabled(true);
+		try {
+			p1 = PolynomialParser.parse("1.5 0 2"); //2x^2 + 1.5
+			p2 = PolynomialParser.parse("0.25 3"); //3x + 0.25
+			Polynomial product = p1.multiply(p2);
+			p1.divide(p2, ArithmeticContext.EXACT);
+			product.toString();
+
+			OperationMetrics parse = Metrics.get(Metrics.Operation.PARSE);
+			assertEquals(2, parse.getCount());
+			assertEquals(2, parse.getMaxScale());
+
+			OperationMetrics multiply = Metrics.get(Metrics.Operation.MULTIPLY);
+			assertEquals(1, multiply.getCount());
+			assertEquals(3, multiply.getMaxDegree());
+			assertEquals(4, multiply.getMaxTerms());
+			assertEquals(1, multiply.getMaxScaleGrowth()); //1.5 * 0.25 = 0.375
+			assertTrue(multiply.getMaxNanos() > 0);
+
+			assertEquals(1, Metrics.get(Metrics.Operation.DIVIDE).getCount());
+			assertEquals(2, Metrics.get(Metrics.Operation.DIVIDE).getIterations()); //Two quotient terms
+			assertEquals(1, Metrics.get(Metrics.Operation.FORMAT).getCount());
+			assertEquals(0, Metrics.get(Metrics.Operation.ADD).getCount());
+
+			//The same numbers through JMX and the text dump
+			ObjectName name = new ObjectName(Metrics.DOMAIN + ":type=Metrics,operation=multiply");
+			assertEquals(1L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"));
+			assertEquals(3L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "MaxDegree"));
+			assertTrue(Metrics.dump().contains("multiply: count 1,"));
+			assertFalse(Metrics.dump().contains("add:"));
+
+			//Nothing is recorded while disabled
+			Metrics.setEnabled(false);
+			p1.multiply(p2);
+			assertEquals(1, multiply.getCount());
+		}
+		finally {
+			Metrics.setEnabled(false);
+			Metrics.reset();
+		}
+	}
+
+	@Test
+	public void testEngine() {
+		//Every operation of the engine is recorded, whether it is done on ImmutablePolynomials or through Polynomial
+		Metrics.reset();
+		Metrics.setEnabled(true);
+		try {
+			PolynomialEngine engine = new PolynomialEngine();
+			ImmutablePolynomial a = new ImmutablePolynomial("1.5 0 2"); //2x^2 + 1.5
+			ImmutablePolynomial b = new ImmutablePolynomial("0.25 3"); //3x + 0.25
+			for(Operation operation : Operation.values()) engine.compute(operation, a, b);
+			engine.compute(Operation.ADD, a, b)[0].toString(); //From the cache: formatted, but not added again
+
+			for(Metrics.Operation operation : Metrics.Operation.values()) {
+				assertTrue(operation.name(), Metrics.get(operation).getCount() > 0);
+			}
+			assertEquals(1, Metrics.get(Metrics.Operation.ADD).getCount());
+			assertEquals(3, Metrics.get(Metrics.Operation.ADD).getMaxTerms());
+			assertEquals(0, Metrics.get(Metrics.Operation.ADD).getMaxScaleGrowth()); //1.75 + 3x + 2x^2
+			assertEquals(1, Metrics.get(Metrics.Operation.DERIVATE).getMaxDegree());
+			assertEquals(3, Metrics.get(Metrics.Operation.INTEGRATE).getMaxDegree());
+		}
+		finally {
+			Metrics.setEnabled(false);
+			Metrics.reset();
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import model.ModPolynomial;
+import model.Polynomial;
+
+public class ModularTester {
+	private static ModPolynomial p1, p2;
+
+	@Test
+	public void testOperations() {
+		p1 = new ModPolynomial(7, 3, 0, 5, 6); //6x^3 + 5x^2 + 3
+		p2 = new ModPolynomial(7, -1, 1); //x - 1
+
+		assertEquals("2 + x + 5x^2 + 6x^3", p1.add(p2).toString());
+		assertEquals("4 + 6x + 5x^2 + 6x^3", p1.subtract(p2).toString());
+		assertEquals("4 + 3x + 2x^2 + 6x^3 + 6x^4", p1.multiply(p2).toString());
+		assertEquals("3x + 4x^2", p1.derivate().toString());
+		assertEquals("3 - 2x^2 - x^3", p1.liftSymmetric().toString());
+
+		ModPolynomial[] division = p1.divide(p2);
+		assertEquals("4 + 4x + 6x^2", division[0].toString());
+		assertEquals("0", division[1].toString()); //6 + 5 + 3 = 14 = 0 mod 7, so 1 is a root
+		assertEquals(p1.toString(), division[0].multiply(p2).add(division[1]).toString());
+
+		//Fractions become products with inverses: 1/2 = 4 and -2.5 = -5/2 = 1 mod 7
+		assertEquals("4 + x", ModPolynomial.reduce(new Polynomial("1/2 -2.5"), 7).toString());
+		//In characteristic 2, (1 + x^2)^2 = 1 + x^4
+		assertEquals("0", new ModPolynomial(2, 1, 0, 1).multiply(new ModPolynomial(2, 1, 0, 1)).subtract(new ModPolynomial(2, 1, 0, 0, 0, 1)).toString());
+
+		try {
+			new ModPolynomial(9, 1);
+			fail("9 is not a prime");
+		}
+		catch(IllegalArgumentException e) {
+			//Expected
+		}
+	}
+
+	@Test
+	public void testTransforms() {
+		//Long products and divisions, with an NTT prime and with a prime that needs three transforms
+		Random random = new Random(17);
+		for(long modulus : new long[] {998244353L, 1000000007L, 2147483647L}) {
+			long[] a = new long[3000];
+			long[] b = new long[1500];
+			for(int i = 0; i < a.length; i++) a[i] = random.nextLong();
+			for(int i = 0; i < b.length; i++) b[i] = random.nextLong();
+			p1 = new ModPolynomial(modulus, a);
+			p2 = new ModPolynomial(modulus, b);
+
+			ModPolynomial product = p1.multiply(p2);
+			assertEquals(ModPolynomial.reduce(p1.lift().multiply(p2.lift()), modulus).toString(), product.toString());
+
+			long[] r = new long[1000];
+			for(int i = 0; i < r.length; i++) r[i] = random.nextLong();
+			ModPolynomial rest = new ModPolynomial(modulus, r);
+			ModPolynomial[] division = product.add(rest).divide(p2); //Newton division
+			assertEquals(p1.toString(), division[0].toString());
+			assertEquals(rest.toString(), division[1].toString());
+
+			ModPolynomial inverse = p2.inverseSeries(2000);
+			ModPolynomial one = p2.multiply(inverse);
+			assertEquals(1, one.getCoeff(0));
+			for(int i = 1; i < 2000; i++) assertEquals(0, one.getCoeff(i));
+		}
+	}
+
+	@Test
+	public void testInverse() {
+		p1 = new ModPolynomial(13, 2, 3, 1); //(x + 1)(x + 2)
+		p2 = new ModPolynomial(13, 6, 5, 1); //(x + 2)(x + 3)
+		assertEquals("2 + x", p1.gcd(p2).toString());
+
+		ModPolynomial modulus = new ModPolynomial(13, 2, 0, 0, 1); //x^3 + 2, irreducible modulo 13
+		ModPolynomial inverse = p1.inverse(modulus);
+		assertTrue(inverse.getDegree() < 3);
+		assertEquals("1", p1.multiply(inverse).divide(modulus)[1].toString());
+
+		try {
+			p1.inverse(p2);
+			fail("x + 2 is a common factor");
+		}
+		catch(ArithmeticException e) {
+			//Expected
+		}
+	}
+
+	@Test
+	public void testHalfGcd() {
+		//Operands long enough for half-GCD steps: a monic common factor of degree 2500 in operands of degree 9000
+		Random random = new Random(18);
+		ModPolynomial common = random(1000000007L, 2500, random);
+		p1 = random(1000000007L, 6500, random).multiply(common);
+		p2 = random(1000000007L, 6000, random).multiply(common);
+		ModPolynomial gcd = p1.gcd(p2);
+		assertEquals(common.toString(), gcd.toString());
+		assertEquals("0", p1.divide(gcd)[1].toString());
+	}
+
+	private static ModPolynomial random(long modulus, int degree, Random random) {
+		long[] coeffs = new long[degree + 1];
+		for(int i = 0; i < degree; i++) coeffs[i] = random.nextLong();
+		coeffs[degree] = 1;
+		return new ModPolynomial(modulus, coeffs);
+	}
+}
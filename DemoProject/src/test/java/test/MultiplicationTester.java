@@ -0,0 +1,146 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import model.DensePolynomial;
+import model.MultiplicationEngine;
+import model.ParallelExecution;
+import model.Polynomial;
+
+public class MultiplicationTester {
+	private static final MultiplicationEngine SCHOOLBOOK = new MultiplicationEngine(Integer.MAX_VALUE, Integer.MAX_VALUE);
+	private static final MultiplicationEngine KARATSUBA = new MultiplicationEngine(2, Integer.MAX_VALUE);
+	private static final MultiplicationEngine TOOM = new MultiplicationEngine(2, 3);
+	private static final MultiplicationEngine TRANSFORM = new MultiplicationEngine(2, 3, 1);
+	private static final MultiplicationEngine KRONECKER = new MultiplicationEngine(2, 3);
+
+	static {
+		KRONECKER.setKroneckerThreshold(1);
+	}
+
+	@Test
+	public void testEnginesAgree() {
+		Random random = new Random(42);
+
+		for(int sizeA = 1; sizeA < 40; sizeA += 3) {
+			for(int sizeB = 1; sizeB < 40; sizeB += 5) {
+				BigInteger[] a = randomCoefficients(random, sizeA);
+				BigInteger[] b = randomCoefficients(random, sizeB);
+
+				BigInteger[] expected = SCHOOLBOOK.multiply(a, b);
+
+				assertArrayEquals(expected, KARATSUBA.multiply(a, b));
+				assertArrayEquals(expected, TOOM.multiply(a, b));
+				assertArrayEquals(expected, KRONECKER.multiply(a, b));
+			}
+		}
+	}
+
+	@Test
+	public void testTransforms() {
+		Random random = new Random(7);
+		long[] a = new long[3000];
+		long[] b = new long[2000];
+		for(int i = 0; i < a.length; i++) a[i] = random.nextInt() >> 2;
+		for(int i = 0; i < b.length; i++) b[i] = random.nextInt() >> 2;
+
+		long[] expected = SCHOOLBOOK.multiply(a, b);
+		assertArrayEquals(expected, TRANSFORM.multiply(a, b));
+		assertArrayEquals(SCHOOLBOOK.multiply(a, a), TRANSFORM.multiply(a, a));
+
+		MultiplicationEngine fft = new MultiplicationEngine(2, 3, 1);
+		fft.setAcceptedFftError(0.25);
+		long[] small = new long[2000];
+		for(int i = 0; i < small.length; i++) small[i] = random.nextInt(2001) - 1000;
+		assertArrayEquals(SCHOOLBOOK.multiply(small, small.clone()), fft.multiply(small, small.clone()));
+
+		//Unbalanced operands: the error of the packed square follows (max|a| + max|b|)^2, so the FFT must be refused
+		long[] wide = new long[2048];
+		long[] signs = new long[2048];
+		for(int i = 0; i < wide.length; i++) wide[i] = random.nextInt(1 << 30);
+		for(int i = 0; i < signs.length; i++) signs[i] = random.nextInt(3) - 1;
+		assertArrayEquals(SCHOOLBOOK.multiply(wide, signs), fft.multiply(wide, signs));
+
+		//Coefficients too large for longs go through the multi-prime BigInteger path
+		BigInteger[] big = new BigInteger[500];
+		for(int i = 0; i < big.length; i++) big[i] = new BigInteger(40, random).subtract(BigInteger.ONE.shiftLeft(39));
+		assertArrayEquals(SCHOOLBOOK.multiply(big, big), TRANSFORM.multiply(big, big));
+		assertArrayEquals(SCHOOLBOOK.multiply(big, big), KRONECKER.multiply(big, big));
+
+		//...unless they are too large for the available primes, in which case Toom-3 takes over
+		for(int i = 0; i < big.length; i++) big[i] = new BigInteger(200, random).subtract(BigInteger.ONE.shiftLeft(199));
+		assertArrayEquals(SCHOOLBOOK.multiply(big, big), TRANSFORM.multiply(big, big));
+		assertArrayEquals(SCHOOLBOOK.multiply(big, big), KRONECKER.multiply(big, big));
+	}
+
+	@Test
+	public void testDecimalCoefficients() {
+		DensePolynomial p1 = new DensePolynomial(new BigDecimal[] {new BigDecimal("0"), new BigDecimal("3"), new BigDecimal("-2.5"), new BigDecimal("0.666667")});
+		DensePolynomial p2 = new Polynomial("0 0 4 -7").toDense();
+
+		assertEquals(p1.multiply(p2, SCHOOLBOOK).toString(), p1.multiply(p2, TOOM).toString());
+		assertEquals("12x^3 - 31x^4 + 20.166668x^5 - 4.666669x^6", p1.multiply(p2, TOOM).toString());
+	}
+
+	@Test
+	public void testLargeProduct() {
+		//(1 + x)^64 through repeated squaring, checked against the binomial coefficients
+		DensePolynomial p = new DensePolynomial(new long[] {1, 1});
+		for(int i = 0; i < 6; i++) p = p.multiply(p, TOOM);
+
+		BigInteger binomial = BigInteger.ONE;
+		for(int k = 0; k <= 64; k++) {
+			assertEquals(0, p.getCoeff(k).compareTo(new BigDecimal(binomial)));
+			binomial = binomial.multiply(BigInteger.valueOf(64 - k)).divide(BigInteger.valueOf(k + 1));
+		}
+		assertEquals(64, p.getDegree());
+	}
+
+
+	@Test
+	public void testParallelExecution() {
+		//A tiny threshold forces every operation to split, even on these small inputs
+		Random random = new Random(11);
+		long[] a = new long[700];
+		long[] b = new long[300];
+		for(int i = 0; i < a.length; i++) a[i] = random.nextInt(2001) - 1000;
+		for(int i = 0; i < b.length; i++) b[i] = random.nextInt(2001) - 1000;
+		BigInteger[] big = randomCoefficients(random, 200);
+		Polynomial sparse = new Polynomial("3 0 0 -1 0 0 0 0 7 0 0 0 0 0 0 0 0 0 0 0 0 2");
+
+		long[] serialProduct = KARATSUBA.multiply(a, b);
+		long[] serialTransform = TRANSFORM.multiply(a, b);
+		BigInteger[] serialBig = TOOM.multiply(big, big);
+		String serialSparse = sparse.multiply(sparse).add(sparse).derivate().integrate().toString();
+		String serialDivision = Arrays.toString(new DensePolynomial(serialProduct).add(new DensePolynomial(a)).toPolynomial().divide(new DensePolynomial(b).toPolynomial()));
+
+		ParallelExecution previous = ParallelExecution.getDefault();
+		ParallelExecution parallel = new ParallelExecution(4, 8);
+		ParallelExecution.setDefault(parallel);
+		try {
+			assertArrayEquals(serialProduct, KARATSUBA.multiply(a, b));
+			assertArrayEquals(serialTransform, TRANSFORM.multiply(a, b));
+			assertArrayEquals(serialBig, TOOM.multiply(big, big));
+			assertEquals(serialSparse, sparse.multiply(sparse).add(sparse).derivate().integrate().toString());
+			assertEquals(serialDivision, Arrays.toString(new DensePolynomial(serialProduct).add(new DensePolynomial(a)).toPolynomial().divide(new DensePolynomial(b).toPolynomial())));
+		}
+		finally {
+			ParallelExecution.setDefault(previous);
+			parallel.shutdown();
+		}
+	}
+
+	private static BigInteger[] randomCoefficients(Random random, int size) {
+		BigInteger[] result = new BigInteger[size];
+		for(int i = 0; i < size; i++) result[i] = BigInteger.valueOf(random.nextInt(2001) - 1000);
+		Arrays.fill(result, size / 2, Math.min(size, size / 2 + 2), BigInteger.ZERO); //A few gaps, too
+		return result;
+	}
+}
@@ -28,7 +28,7 @@ public class OperationTester {
 	public void testBadInputTwo() {
 		p1 = new Polynomial("8.0 4 17");
 		
-		assertEquals("0", p1.toString());
+		assertEquals("8 + 4x + 17x^2", p1.toString());
 	}
 	
 	@Test
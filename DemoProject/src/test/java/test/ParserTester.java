@@ -0,0 +1,71 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import model.Polynomial;
+import model.PolynomialParseException;
+import model.PolynomialParser;
+
+public class ParserTester {
+	private static Polynomial p1;
+
+	@Test
+	public void testSeparatorsAndDecimals() {
+		p1 = PolynomialParser.parse(" 1.5,-2 , 0\t+0.25\n3e2 ");
+
+		assertEquals("1.5 - 2x + 0.25x^3 + 300x^4", p1.toString());
+	}
+
+	@Test
+	public void testLongCoefficients() {
+		p1 = PolynomialParser.parse("123456789012345678901234567890 -0.000000000000000000001");
+
+		assertEquals("123456789012345678901234567890 - 0.000000000000000000001x", p1.toString());
+	}
+
+	@Test
+	public void testErrorPosition() {
+		try {
+			PolynomialParser.parse("1 2 3x 4");
+			fail();
+		}
+		catch(PolynomialParseException e) {
+			assertEquals(5, e.getPosition());
+		}
+
+		try {
+			PolynomialParser.parse("1, -, 3");
+			fail();
+		}
+		catch(PolynomialParseException e) {
+			assertEquals(3, e.getPosition());
+		}
+	}
+
+	@Test
+	public void testCharArrayRange() {
+		char[] text = "xx4 0 -1yy".toCharArray();
+		p1 = PolynomialParser.parse(text, 2, 6);
+
+		assertEquals("4 - x^2", p1.toString());
+	}
+
+	@Test
+	public void testStreams() throws IOException {
+		//Long enough to span several buffer refills, with coefficients cut at the buffer boundaries
+		StringBuilder text = new StringBuilder();
+		for(int i = 0; i < 20000; i++) text.append(i % 7 - 3).append(".5 ");
+
+		p1 = PolynomialParser.parse(new StringReader(text.toString()));
+		assertEquals(PolynomialParser.parse(text).toString(), p1.toString());
+		assertEquals(p1.toString(), PolynomialParser.parse(new ByteArrayInputStream(text.toString().getBytes(StandardCharsets.UTF_8))).toString());
+		assertEquals(p1.toString(), new Polynomial(text.toString()).toString());
+	}
+}
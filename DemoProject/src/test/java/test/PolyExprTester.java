@@ -0,0 +1,82 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.PolyExpr;
+import model.Polynomial;
+
+public class PolyExprTester {
+	private static Polynomial p1, p2, p3;
+
+	@Test
+	public void testEvaluate() {
+		p1 = new Polynomial("0 17 -3 0 5");
+		p2 = new Polynomial("1 2");
+		p3 = new Polynomial("-4 0 0 1.5");
+
+		PolyExpr e = PolyExpr.of(p1).multiply(p2).add(p3).derivate();
+		assertEquals(p1.multiply(p2).add(p3).derivate().toString(), e.evaluate().toString());
+		assertEquals("(([17x - 3x^2 + 5x^4] * [1 + 2x]) + [- 4 + 1.5x^3])'", e.toString());
+
+		//Derivatives of sums, differences and negations, of several orders
+		e = PolyExpr.of(p1).subtract(PolyExpr.of(p2).derivate()).derivate().add(PolyExpr.of(p3).negate().derivate().derivate());
+		assertEquals(p1.subtract(p2.derivate()).derivate().add(p3.multiply(new Polynomial("-1")).derivate().derivate()).toString(), e.evaluate().toString());
+
+		//Products of sums, integrals, and the same subexpression several times
+		PolyExpr sum = PolyExpr.of(p1).add(p2);
+		e = sum.multiply(sum).subtract(sum.integrate().multiply(p3)).add(sum.multiply(sum).derivate());
+		Polynomial s = p1.add(p2);
+		assertEquals(s.multiply(s).subtract(s.integrate().multiply(p3)).add(s.multiply(s).derivate()).toString(), e.evaluate().toString());
+
+		//The leaves are read when evaluating
+		e = PolyExpr.of(p1).add(p2);
+		p1.addInPlace(new Polynomial("1"));
+		assertEquals("2 + 19x - 3x^2 + 5x^4", e.evaluate().toString());
+		assertEquals("1 + 17x - 3x^2 + 5x^4", PolyExpr.of(p1).evaluate().toString());
+	}
+
+	@Test
+	public void testFusion() {
+		p1 = new Polynomial("1 2 3");
+		p2 = new Polynomial("0 1");
+
+		//Terms that cancel out, or are derivated beyond their degree, are 0 whatever their operands
+		PolyExpr product = PolyExpr.of(p1).multiply(p2);
+		assertTrue(product.subtract(PolyExpr.of(p2).multiply(p1)).evaluate().getTerms().isEmpty());
+		assertTrue(product.derivate().derivate().derivate().derivate().evaluate().getTerms().isEmpty());
+		assertEquals("18", product.derivate().derivate().derivate().evaluate().toString());
+		assertEquals("x + 2x^2 + 3x^3", product.add(product.derivate().derivate()).subtract(PolyExpr.of(new Polynomial("0 4 9")).derivate()).evaluate().toString());
+		Polynomial dense = new Polynomial("1 1 1 1"); //Holds every power of the product, which is then fused into the sum
+		assertEquals("1 + 2x + 3x^2 + 4x^3", PolyExpr.of(dense).add(product).evaluate().toString());
+		assertEquals("1 + 2x + 3x^2 + 4x^3", product.add(dense).evaluate().toString());
+
+		//Structural equality: sums and products in either order
+		assertEquals(PolyExpr.of(p1).add(p2).derivate(), PolyExpr.of(p2).add(p1).derivate());
+		assertEquals(PolyExpr.of(p1).add(p2).hashCode(), PolyExpr.of(p2).add(p1).hashCode());
+		assertNotEquals(PolyExpr.of(p1).subtract(p2), PolyExpr.of(p2).subtract(p1));
+		assertNotEquals(PolyExpr.of(p1), PolyExpr.of(new Polynomial("1 2 3")));
+
+		//A long chain of sums, sharing its nodes
+		PolyExpr chain = PolyExpr.of(p1);
+		for(int i = 0; i < 20000; i++) chain = chain.add((0 == i % 2) ? PolyExpr.of(p2) : PolyExpr.of(p2).negate());
+		assertEquals("1 + 2x + 3x^2", chain.evaluate().toString());
+		PolyExpr doubled = PolyExpr.of(p2);
+		for(int i = 0; i < 62; i++) doubled = doubled.add(doubled);
+		assertEquals("4611686018427387904x", doubled.evaluate().toString());
+	}
+
+	@Test
+	public void testContext() {
+		p1 = new Polynomial("1 0 1");
+		PolyExpr e = PolyExpr.of(p1).integrate().multiply(p1);
+		assertEquals("x + (4/3)x^3 + (1/3)x^5", e.evaluate(ArithmeticContext.EXACT).toString());
+		assertEquals(p1.integrate().multiply(p1).toString(), e.evaluate().toString());
+		assertEquals("- 1.23x", PolyExpr.of(new Polynomial("0 -1.234")).evaluate(new ArithmeticContext(2, 2, RoundingMode.DOWN)).toString());
+		assertEquals("([1 + x^2]' + (-[1 + x^2] * [1 + x^2]))", PolyExpr.of(p1).derivate().add(PolyExpr.of(p1).negate().multiply(p1)).toString());
+	}
+}
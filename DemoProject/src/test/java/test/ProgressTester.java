@@ -0,0 +1,62 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.Polynomial;
+import model.Progress;
+
+public class ProgressTester {
+	private static Polynomial p1 = dividend(200);
+	private static Polynomial p2 = new Polynomial("1 1 3"); //3x^2 + x + 1: exact long division over the fractions
+
+	@Test
+	public void testProgress() {
+		List<Integer> reported = new ArrayList<Integer>();
+		Polynomial[] division = Progress.run(reported::add, () -> p1.divide(p2, ArithmeticContext.EXACT));
+		assertEquals(p1, division[0].multiply(p2).add(division[1]));
+
+		//Every percentage once, in order
+		assertEquals(0, (int) reported.get(0));
+		assertTrue(reported.get(reported.size() - 1) >= 99);
+		for(int i = 1; i < reported.size(); i++) assertTrue(reported.get(i) > reported.get(i - 1));
+
+		//Nothing is reported outside of run()
+		reported.clear();
+		p1.divide(p2, ArithmeticContext.FLOATING_POINT);
+		assertTrue(reported.isEmpty());
+	}
+
+	@Test
+	public void testCancellation() {
+		//Interrupting the thread cancels the division at its next step, in every context
+		for(ArithmeticContext context : new ArithmeticContext[] {ArithmeticContext.EXACT, ArithmeticContext.DEFAULT, ArithmeticContext.FLOATING_POINT}) {
+			Thread.currentThread().interrupt();
+			try {
+				p1.divide(p2, context);
+				fail("Not cancelled");
+			}
+			catch(CancellationException e) {
+				assertTrue(Thread.currentThread().isInterrupted()); //The flag is left set
+			}
+			finally {
+				Thread.interrupted();
+			}
+		}
+
+		//A new computation runs normally
+		assertEquals("x", new Polynomial("0 1 1 3").divide(p2, ArithmeticContext.EXACT)[0].toString());
+	}
+
+	private static Polynomial dividend(int degree) {
+		StringBuilder coeffs = new StringBuilder();
+		for(int i = 0; i <= degree; i++) coeffs.append(i % 7 - 3).append(' ');
+		return new Polynomial(coeffs.toString().trim());
+	}
+}
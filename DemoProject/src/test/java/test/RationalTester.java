@@ -0,0 +1,93 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+import model.ArithmeticContext;
+import model.Monomial;
+import model.Polynomial;
+import model.PolynomialParser;
+import model.Rational;
+
+public class RationalTester {
+	private static Polynomial p1, p2;
+
+	@Test
+	public void testRational() {
+		Rational third = Rational.valueOf(1, 3);
+		Rational sixth = Rational.valueOf(-1, -6);
+
+		assertEquals("1/2", third.add(sixth).toString());
+		assertEquals(Rational.valueOf(3, 6), third.add(sixth)); //Equal whether reduced or not
+		assertEquals(Rational.valueOf(1, 2).hashCode(), third.add(sixth).hashCode());
+		assertEquals("-1/18", third.negate().multiply(sixth).toString());
+		assertEquals("2", third.divide(sixth).toString());
+		assertTrue(third.compareTo(sixth) > 0);
+
+		//Overflowing longs go through BigIntegers, and back once reduced
+		Rational big = Rational.valueOf(Long.MAX_VALUE, 3).multiply(Rational.valueOf(Long.MAX_VALUE, 7));
+		assertEquals(BigInteger.valueOf(Long.MAX_VALUE).pow(2), big.getNumerator());
+		assertEquals("3", big.divide(big).multiply(Rational.valueOf(3)).toString());
+		assertEquals("1/9223372036854775807", Rational.valueOf(Long.MIN_VALUE, Long.MIN_VALUE).divide(Rational.valueOf(Long.MAX_VALUE)).toString());
+		assertEquals(BigInteger.valueOf(Long.MAX_VALUE).pow(2).toString(), big.multiply(Rational.valueOf(21)).toString()); //Whole, but too big for a long
+
+		assertEquals(new BigDecimal("0.125"), Rational.valueOf(3, 24).toExactDecimal());
+		assertEquals(new BigDecimal("-2.5"), Rational.valueOf(new BigDecimal("-7.5")).divide(Rational.valueOf(3)).toExactDecimal());
+		assertNull(third.toExactDecimal());
+		assertEquals(new BigDecimal("1.5"), Rational.valueOf(new BigDecimal("1.50")).toExactDecimal().stripTrailingZeros());
+	}
+
+	@Test
+	public void testExactDivision() {
+		//(x^2 + 1) / (3x + 2) = x/3 - 2/9, remainder 13/9
+		p1 = new Polynomial("1 0 1");
+		p2 = new Polynomial("2 3");
+		Polynomial[] division = p1.divide(p2, ArithmeticContext.EXACT);
+		assertEquals("- 2/9 + (1/3)x", division[0].toString());
+		assertEquals("13/9", division[1].toString());
+
+		//Fractions stay exact through the other operations, whatever their size
+		p1 = new Polynomial("1/3 0 -5/7 2.5");
+		p2 = new Polynomial("3/11 1/13");
+		assertEquals("1/3 - (5/7)x^2 + 2.5x^3", p1.toString());
+		Polynomial product = p1.multiply(p2);
+		assertEquals("1/11 + (1/39)x - (15/77)x^2 + (1255/2002)x^3 + (5/26)x^4", product.toString());
+		division = product.divide(p2, ArithmeticContext.EXACT);
+		assertEquals(p1.toString(), division[0].toString());
+		assertTrue(division[1].getTerms().isEmpty());
+
+		StringBuilder text = new StringBuilder();
+		for(int i = 1; i <= 60; i++) text.append(i % 2 == 0 ? "" : "-").append(i).append('/').append(i + 1).append(' ');
+		p1 = new Polynomial(text.toString());
+		p2 = new Polynomial("7 -3/5 0 2/3");
+		division = p1.divide(p2, ArithmeticContext.EXACT);
+		assertEquals(p1.toString(), division[0].multiply(p2).add(division[1]).toString());
+
+		//Contexts that round turn fractions into decimals
+		assertEquals("- 0.222222 + 0.333333x", new Polynomial("1 0 1").divide(new Polynomial("2 3"))[0].toString());
+		assertEquals("0.33x^3", new Polynomial("0 0 1/3").integrate(ArithmeticContext.EXACT).multiply(new Polynomial("3"), new ArithmeticContext(2, 2, RoundingMode.DOWN)).toString());
+	}
+
+	@Test
+	public void testInPlace() {
+		p1 = new Polynomial("0 0 1").integrate(ArithmeticContext.EXACT);
+		p1.addInPlace(new Polynomial("1/6 0 0 1/6"));
+		assertEquals("1/6 + 0.5x^3", p1.toString()); //1/2 has a finite decimal expansion
+		p1.derivateInPlace();
+		p1.negateInPlace();
+		assertEquals("- 1.5x^2", p1.toString());
+
+		p1 = PolynomialParser.parse("2/3, -1/7");
+		p1.fma(p1.integrate(ArithmeticContext.EXACT), new Polynomial("0 1/5"));
+		assertEquals("2/3 - (1/7)x + (2/15)x^2 - (1/70)x^3", p1.toString());
+
+		Monomial m = new Monomial(Rational.valueOf(10, 4), 1);
+		assertFalse(m.isFraction());
+		assertEquals("2.5x", m.toString());
+	}
+}
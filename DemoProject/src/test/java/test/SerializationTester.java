@@ -0,0 +1,96 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import model.DensePolynomial;
+import model.Monomial;
+import model.Polynomial;
+import model.PolynomialReader;
+
+public class SerializationTester {
+	private static Polynomial p1, p2, p3;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		p1 = new Polynomial("3 -4 0 0 1 -9223372036854775807");
+		p2 = new Polynomial();
+		p2.addValue(new Monomial(new BigDecimal("-2.5"), 0));
+		p2.addValue(new Monomial(new BigDecimal("123456789012345678901234567890"), 1000000)); //Sparse and decimal
+		p3 = new Polynomial();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		WritableByteChannel out = Channels.newChannel(bytes);
+		p1.writeTo(out);
+		p2.writeTo(out);
+		p3.writeTo(out);
+		p1.toDense().writeTo(out);
+
+		//Each read consumes its own polynomial only
+		ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(p1.toString(), Polynomial.readFrom(in).toString());
+		assertEquals(p2.toString(), Polynomial.readFrom(in).toString());
+		assertEquals("0", Polynomial.readFrom(in).toString());
+		assertEquals(p1.toString(), DensePolynomial.readFrom(in).toString());
+		assertEquals(-1, in.read(ByteBuffer.allocate(1)));
+	}
+
+	@Test
+	public void testMapped() throws IOException {
+		//Large enough for several buffer refills
+		long[] coeffs = new long[200000];
+		for(int i = 0; i < coeffs.length; i++) coeffs[i] = (i % 7 - 3) * (1L << (i % 60));
+		DensePolynomial dense = new DensePolynomial(coeffs);
+		p2 = new Polynomial("0.5 0 -1.25");
+
+		File file = folder.newFile("checkpoint.bin");
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+			dense.writeTo(channel);
+			p2.writeTo(channel);
+		}
+
+		try(PolynomialReader reader = PolynomialReader.map(file.toPath())) {
+			assertFalse(reader.isDecimal());
+			assertEquals(coeffs.length - 1, reader.getDegree());
+			int terms = 0;
+			while(reader.next()) {
+				assertEquals(coeffs[reader.getPower()], reader.getLong());
+				terms++;
+			}
+			assertEquals(dense.toPolynomial().getTerms().size(), terms);
+		}
+
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			PolynomialReader first = PolynomialReader.map(channel, 0);
+			assertEquals(dense.toString(), first.readDense().toString());
+			PolynomialReader second = PolynomialReader.map(channel, first.getEncodedSize());
+			assertTrue(second.isDecimal());
+			assertEquals("0.5 - 1.25x^2", second.readPolynomial().toString());
+		}
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void testCorrupted() throws IOException {
+		byte[] bytes = new byte[64];
+		Polynomial.readFrom(Channels.newChannel(new ByteArrayInputStream(bytes)));
+	}
+}
@@ -0,0 +1,112 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import controller.PolynomialEngine;
+import controller.PolynomialServer;
+import model.Polynomial;
+
+public class ServerTester {
+	private static PolynomialServer server;
+
+	@Test
+	public void testCompute() throws Exception {
+		server = new PolynomialServer(0, 16, new PolynomialEngine());
+		server.start();
+		try {
+			assertEquals("1 + 19x - 3x^2 + 5x^4\n", post("add 0,17,-3,0,5 1,2"));
+			assertEquals("1 + x\t0\n17 - 6x + 20x^3\nerror: Unknown operation: power\n", post("divide 1,2,1 1,1\r\nderivate 0,17,-3,0,5\npower 1 2\n"));
+			assertEquals(405, status("GET", "/compute"));
+
+			//Many small concurrent requests, batched together
+			ExecutorService clients = Executors.newFixedThreadPool(8);
+			try {
+				List<Future<String>> results = new ArrayList<Future<String>>();
+				for(int i = 0; i < 200; i++) {
+					final int n = i;
+					results.add(clients.submit(new Callable<String>() {
+						public String call() throws IOException {
+							return post("multiply " + n + ",1 -" + n + ",1");
+						}
+					}));
+				}
+				for(int i = 0; i < results.size(); i++) {
+					assertEquals(new Polynomial(i + " 1").multiply(new Polynomial("-" + i + " 1")) + "\n", results.get(i).get());
+				}
+			}
+			finally {
+				clients.shutdown();
+			}
+			assertEquals(202, server.getRequests());
+			assertEquals(201, server.getBatchedRequests());
+			assertTrue(server.getBatches() <= server.getBatchedRequests());
+			assertEquals(200, status("GET", "/stats"));
+		}
+		finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testShedding() throws Exception {
+		//A limit of 0 sheds every request
+		server = new PolynomialServer(0, 0, new PolynomialEngine());
+		server.start();
+		try {
+			assertEquals(503, status("POST", "/compute"));
+			assertEquals(1, server.getShed());
+			assertEquals(0, server.getRequests());
+		}
+		finally {
+			server.stop();
+		}
+	}
+
+	private static String post(String body) throws IOException {
+		HttpURLConnection connection = open("POST", "/compute");
+		connection.setDoOutput(true);
+		try(OutputStream out = connection.getOutputStream()) {
+			out.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		assertEquals(200, connection.getResponseCode());
+		try(InputStream in = connection.getInputStream()) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			for(int n = in.read(buffer); n >= 0; n = in.read(buffer)) bytes.write(buffer, 0, n);
+			return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static int status(String method, String path) throws IOException {
+		HttpURLConnection connection = open(method, path);
+		if("POST".equals(method)) {
+			connection.setDoOutput(true);
+			connection.getOutputStream().close();
+		}
+		int status = connection.getResponseCode();
+		connection.disconnect();
+		return status;
+	}
+
+	private static HttpURLConnection open(String method, String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+		connection.setRequestMethod(method);
+		return connection;
+	}
+}
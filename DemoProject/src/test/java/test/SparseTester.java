@@ -0,0 +1,65 @@
+package test;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.Test;
+
+import model.Monomial;
+import model.Polynomial;
+import model.SparsePolynomial;
+
+public class SparseTester {
+	private static SparsePolynomial s1, s2;
+	private static Polynomial p1, p2;
+
+	@Test
+	public void testConstruction() {
+		//Unsorted, with a repeated power and a term that cancels out
+		s1 = new SparsePolynomial(new int[] {1000000, 17, 0, 17, 5, 5}, new long[] {1, 1, -2, 2, 4, -4});
+
+		assertEquals("- 2 + 3x^17 + x^1000000", s1.toString());
+		assertEquals(3, s1.getTermCount());
+		assertEquals(1000000, s1.getDegree());
+		assertEquals("3", s1.getCoeff(17).toString());
+		assertEquals("0", s1.getCoeff(5).toString());
+		assertEquals("0", s1.getCoeff(999999).toString());
+		assertEquals(s1.toString(), s1.toPolynomial().toSparse().toString());
+
+		s2 = new SparsePolynomial(new int[] {3, 1}, new BigDecimal[] {new BigDecimal("0.5"), new BigDecimal("2.0")});
+		assertFalse(s2.isCompact());
+		assertEquals("2x + 0.5x^3", s2.toString());
+	}
+
+	@Test
+	public void testArithmetic() {
+		s1 = new SparsePolynomial(new int[] {0, 17, 1000000}, new long[] {-2, 3, 1});
+		s2 = new SparsePolynomial(new int[] {17, 40}, new long[] {-3, Long.MAX_VALUE});
+
+		assertEquals("- 2 + 9223372036854775807x^40 + x^1000000", s1.add(s2).toString());
+		assertEquals("- 2 + 6x^17 - 9223372036854775807x^40 + x^1000000", s1.subtract(s2).toString());
+		assertEquals("2 - 3x^17 - x^1000000", s1.negate().toString());
+
+		//The x^57 coefficient overflows a long, so the product falls back to BigDecimal
+		assertEquals("6x^17 - 9x^34 - 18446744073709551614x^40 + 27670116110564327421x^57 - 3x^1000017 + 9223372036854775807x^1000040", s1.multiply(s2).toString());
+	}
+
+	@Test
+	public void testJohnson() {
+		//Sparse products must match the dense ones
+		Random random = new Random(14);
+		p1 = new Polynomial();
+		p2 = new Polynomial();
+		for(int i = 0; i < 300; i++) {
+			p1.addValue(new Monomial(random.nextInt(201) - 100, random.nextInt(100000)));
+			p2.addValue(new Monomial(new BigDecimal(random.nextInt(2001) - 1000).movePointLeft(2), random.nextInt(5000)));
+		}
+
+		String expected = p1.toDense().multiply(p2.toDense()).toString();
+		assertEquals(expected, p1.multiply(p2).toString());
+		assertEquals(expected, p2.toSparse().multiply(p1.toSparse()).toString());
+		assertEquals(p1.toDense().multiply(p1.toDense()).toString(), p1.multiply(p1).toString());
+	}
+}